@@ -0,0 +1,111 @@
+package ru.practicum.shareit.batch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.benchmark.BenchmarkContext;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скорость вставки в строках в секунду: пакетные addUsers/addItems против построчных addUser/addItem.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+    private static final int ROWS = 1_000;
+
+    @Param({"100", "1000"})
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private ItemService itemService;
+    private long ownerId;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("bulk" + System.nanoTime(), "shareit.batch.chunk-size=" + chunkSize);
+        userService = context.getBean(UserService.class);
+        itemService = context.getBean(ItemService.class);
+        ownerId = userService.addUser(UserDto.builder().name("owner").email("owner@bench.ru").build()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<UserDto> usersBatch() {
+        return userService.addUsers(users());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long usersOneByOne() {
+        long lastId = 0;
+        for (UserDto user : users()) {
+            lastId = userService.addUser(user).getId();
+        }
+        return lastId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int itemsBatch() {
+        return itemService.addItems(items(), ownerId).size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long itemsOneByOne() {
+        long lastId = 0;
+        for (ItemDtoIn item : items()) {
+            lastId = itemService.addItem(item, ownerId).getId();
+        }
+        return lastId;
+    }
+
+    private List<UserDto> users() {
+        List<UserDto> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            long n = sequence++;
+            users.add(UserDto.builder().name("user" + n).email("user" + n + "@bulk.ru").build());
+        }
+        return users;
+    }
+
+    private static List<ItemDtoIn> items() {
+        List<ItemDtoIn> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            items.add(ItemDtoIn.builder().name("Вещь " + i).description("Описание вещи " + i).available(true)
+                    .build());
+        }
+        return items;
+    }
+}
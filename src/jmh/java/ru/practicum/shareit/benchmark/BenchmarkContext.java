@@ -0,0 +1,138 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.summary.ItemBookingSummaryTracker;
+import ru.practicum.shareit.util.IdSequences;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Поднимает приложение на встроенной H2 и наполняет её данными для бенчмарков.
+ */
+public final class BenchmarkContext {
+    public static final String RARE_WORD = "perforator";
+    private static final int BATCH_SIZE = 5_000;
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sta", "vo", "dri", "pel", "tor",
+            "shi", "ba", "gu", "zen", "fa", "li", "mo", "ter", "xo", "ju"};
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String name, String... properties) {
+        return start(name, new Class<?>[0], properties);
+    }
+
+    /**
+     * Поднимает приложение с дополнительными конфигурациями, например {@link DbLatency}.
+     */
+    public static ConfigurableApplicationContext start(String name, Class<?>[] sources, String... properties) {
+        String[] defaults = {
+                "spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "logging.level.root=WARN",
+                "logging.level.org.springframework.orm.jpa=WARN",
+                "logging.level.org.springframework.transaction=WARN",
+                "logging.level.org.springframework.transaction.interceptor=WARN",
+                "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                "logging.level.ru.practicum.shareit=INFO"
+        };
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .sources(sources)
+                .web(WebApplicationType.NONE)
+                .run(Stream.concat(Arrays.stream(defaults), Arrays.stream(properties))
+                        .map(property -> "--" + property)
+                        .toArray(String[]::new));
+    }
+
+    /**
+     * Вызывается после загрузки данных с явными id: сдвигает последовательности и заполняет сводки бронирований.
+     */
+    public static void finishSeeding(ConfigurableApplicationContext context) {
+        context.getBean(IdSequences.class).align();
+        context.getBean(ItemBookingSummaryTracker.class).backfill();
+    }
+
+    public static void seedUsers(JdbcTemplate jdbcTemplate, int count) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= count; id++) {
+            batch.add(new Object[]{id, "user" + id, "user" + id + "@bench.ru"});
+            if (batch.size() == BATCH_SIZE || id == count) {
+                jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Вещи получают id 1..count и владельцев по кругу; примерно каждая тысячная содержит {@link #RARE_WORD}.
+     */
+    public static void seedItems(JdbcTemplate jdbcTemplate, int count, int owners, Random random) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= count; id++) {
+            String description = words(random, 6) + (random.nextInt(1000) == 0 ? " " + RARE_WORD : "");
+            batch.add(new Object[]{id, words(random, 2), description, random.nextInt(10) != 0, id % owners + 1});
+            if (batch.size() == BATCH_SIZE || id == count) {
+                jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, available, owner_id) " +
+                        "VALUES (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Бронирования случайных вещей пользователями с id от 2; даты разбросаны на год назад и вперёд.
+     */
+    public static void seedBookings(JdbcTemplate jdbcTemplate, int count, int items, int users, Random random) {
+        String[] statuses = {"APPROVED", "APPROVED", "APPROVED", "WAITING", "REJECTED", "CANCELED"};
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= count; id++) {
+            LocalDateTime start = now.plusHours(random.nextInt(24 * 365 * 2) - 24 * 365);
+            batch.add(new Object[]{id, start, start.plusHours(1 + random.nextInt(72)), random.nextInt(items) + 1,
+                    random.nextInt(users - 1) + 2, statuses[random.nextInt(statuses.length)]});
+            if (batch.size() == BATCH_SIZE || id == count) {
+                jdbcTemplate.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    public static void seedComments(JdbcTemplate jdbcTemplate, int count, int items, int users, Random random) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= count; id++) {
+            batch.add(new Object[]{id, words(random, 8), random.nextInt(items) + 1, random.nextInt(users - 1) + 2,
+                    now.minusMinutes(random.nextInt(60 * 24 * 365))});
+            if (batch.size() == BATCH_SIZE || id == count) {
+                jdbcTemplate.batchUpdate("INSERT INTO comments (id, content, item_id, author_id, created) " +
+                        "VALUES (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    public static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            int syllables = 2 + random.nextInt(2);
+            for (int j = 0; j < syllables; j++) {
+                sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+        }
+        return sb.toString();
+    }
+}
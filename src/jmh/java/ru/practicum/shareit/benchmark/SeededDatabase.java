@@ -0,0 +1,59 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Random;
+
+/**
+ * Приложение на H2 с заданными объёмами данных. Вещи распределены между {@code owners} владельцами,
+ * владелец с id 1 используется как текущий пользователь.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+    public static final long OWNER_ID = 1;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"10000"})
+    public int items;
+
+    @Param({"1000", "100"})
+    public int owners;
+
+    @Param({"100000"})
+    public int bookings;
+
+    @Param({"20000"})
+    public int comments;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("seeded" + System.nanoTime());
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(42);
+        BenchmarkContext.seedUsers(jdbcTemplate, users);
+        BenchmarkContext.seedItems(jdbcTemplate, items, owners, random);
+        BenchmarkContext.seedBookings(jdbcTemplate, bookings, items, users, random);
+        BenchmarkContext.seedComments(jdbcTemplate, comments, items, users, random);
+        BenchmarkContext.finishSeeding(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.email;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.benchmark.BenchmarkContext;
+import ru.practicum.shareit.repository.UserRepository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Проверка занятости email: полный перебор findAll, запрос по индексу и фильтр Блума перед запросом.
+ * Запуск: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="EmailUniquenessBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmailUniquenessBenchmark {
+    @Param({"1000000"})
+    private int users;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private EmailRegistry emailRegistry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("emails" + users);
+        BenchmarkContext.seedUsers(context.getBean(JdbcTemplate.class), users);
+        userRepository = context.getBean(UserRepository.class);
+        emailRegistry = context.getBean(EmailRegistry.class);
+        emailRegistry.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 10)
+    public boolean findAllScan() {
+        String email = newEmail();
+        return userRepository.findAll().stream().anyMatch(user -> user.getEmail().equals(email));
+    }
+
+    @Benchmark
+    public boolean indexedLookupNew() {
+        return userRepository.existsByEmail(newEmail());
+    }
+
+    @Benchmark
+    public boolean registryNew() {
+        return emailRegistry.isTaken(newEmail());
+    }
+
+    @Benchmark
+    public boolean registryExisting() {
+        return emailRegistry.isTaken("user" + (sequence.incrementAndGet() % users + 1) + "@bench.ru");
+    }
+
+    private String newEmail() {
+        return "new" + sequence.incrementAndGet() + "@bench.ru";
+    }
+}
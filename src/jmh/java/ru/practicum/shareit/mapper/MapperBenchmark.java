@@ -0,0 +1,90 @@
+package ru.practicum.shareit.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.benchmark.BenchmarkContext;
+import ru.practicum.shareit.dto.BookingDto;
+import ru.practicum.shareit.dto.CommentDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.Comment;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразования сущностей в DTO и обратно на списках заданного размера.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Item> items;
+    private List<ItemDtoIn> itemDtos;
+    private List<Booking> bookings;
+    private List<Comment> comments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        User owner = new User(1, "owner", "owner@bench.ru");
+        User booker = new User(2, "booker", "booker@bench.ru");
+        LocalDateTime now = LocalDateTime.now();
+        items = new ArrayList<>(size);
+        itemDtos = new ArrayList<>(size);
+        bookings = new ArrayList<>(size);
+        comments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Item item = new Item((long) i, BenchmarkContext.words(random, 2), BenchmarkContext.words(random, 6),
+                    true, owner);
+            items.add(item);
+            itemDtos.add(ItemDtoIn.builder().name(item.getName()).description(item.getDescription())
+                    .available(true).build());
+            bookings.add(new Booking(i, now.plusHours(i), now.plusHours(i + 1), item, booker, BookingStatus.APPROVED));
+            comments.add(new Comment(i, BenchmarkContext.words(random, 8), item, booker, now));
+        }
+    }
+
+    @Benchmark
+    public List<ItemDtoOut> itemToDto() {
+        return items.stream().map(ItemMapper::toDto).toList();
+    }
+
+    @Benchmark
+    public List<Item> dtoToItem() {
+        return itemDtos.stream().map(ItemMapper::toItem).toList();
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingToShortDto() {
+        return bookings.stream().map(BookingMapper::toBookingDtoShort).toList();
+    }
+
+    @Benchmark
+    public List<CommentDto> commentToDto() {
+        return comments.stream().map(CommentMapper::toCommentDtoOut).toList();
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.benchmark.BenchmarkContext;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.repository.ItemRepository;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение LIKE-запроса и триграммного индекса.
+ * Запуск: {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="ItemSearchBenchmark -f 1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemSearchBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int items;
+
+    @Param({BenchmarkContext.RARE_WORD, "stadri"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private LikeItemSearchEngine like;
+    private TrigramItemSearchEngine index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("search" + items);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkContext.seedUsers(jdbcTemplate, 100);
+        BenchmarkContext.seedItems(jdbcTemplate, items, 100, new Random(42));
+        like = new LikeItemSearchEngine(context.getBean(ItemRepository.class));
+        index = context.getBean(TrigramItemSearchEngine.class);
+        index.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> like() {
+        return like.search(query);
+    }
+
+    @Benchmark
+    public List<Item> trigramIndex() {
+        return index.search(query);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.benchmark.SeededDatabase;
+import ru.practicum.shareit.dto.BookingDtoOut;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бронирования владельца по каждому состоянию: первая страница и глубокая страница по курсору.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    private String state;
+
+    private BookingService bookingService;
+    private KeysetCursor deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        bookingService = database.getBean(BookingService.class);
+        deepCursor = new KeysetCursor(LocalDateTime.now().minusMonths(6), Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<BookingDtoOut> firstPage() {
+        return bookingService.getAllByOwner(SeededDatabase.OWNER_ID, state, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingDtoOut> deepPageByCursor() {
+        return bookingService.getAllByOwner(SeededDatabase.OWNER_ID, state, deepCursor, PAGE_SIZE);
+    }
+}
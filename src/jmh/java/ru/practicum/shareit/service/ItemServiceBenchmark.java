@@ -0,0 +1,53 @@
+package ru.practicum.shareit.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.benchmark.SeededDatabase;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.model.Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Просмотр вещей владельцем: getItemsByOwner (addBookingsAndCommentsForList) и getItemById.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+    private ItemService itemService;
+    private long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        itemService = database.getBean(ItemService.class);
+        itemId = database.getBean(ItemRepository.class).findAllByOwnerId(SeededDatabase.OWNER_ID).stream()
+                .map(Item::getId)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public List<ItemDtoOut> getItemsByOwner() {
+        return itemService.getItemsByOwner(SeededDatabase.OWNER_ID);
+    }
+
+    @Benchmark
+    public ItemDtoOut getItemByIdAsOwner() {
+        return itemService.getItemById(itemId, SeededDatabase.OWNER_ID);
+    }
+}
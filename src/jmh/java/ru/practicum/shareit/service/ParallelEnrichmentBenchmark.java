@@ -0,0 +1,81 @@
+package ru.practicum.shareit.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.benchmark.BenchmarkContext;
+import ru.practicum.shareit.benchmark.DbLatency;
+import ru.practicum.shareit.dto.ItemDtoOut;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка просмотра вещей владельцем при медленной базе: последовательная загрузка сводок бронирований
+ * и комментариев против параллельной (shareit.parallel-reads.enabled).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelEnrichmentBenchmark {
+    private static final long OWNER_ID = 1;
+    private static final int USERS = 1_000;
+    private static final int ITEMS = 10_000;
+    private static final long OWNED_ITEM_ID = USERS;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    @Param({"2"})
+    private long dbLatencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("parallel" + System.nanoTime(), new Class<?>[]{DbLatency.class},
+                "shareit.parallel-reads.enabled=" + parallel);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(42);
+        BenchmarkContext.seedUsers(jdbcTemplate, USERS);
+        BenchmarkContext.seedItems(jdbcTemplate, ITEMS, USERS, random);
+        BenchmarkContext.seedBookings(jdbcTemplate, 20_000, ITEMS, USERS, random);
+        BenchmarkContext.seedComments(jdbcTemplate, 5_000, ITEMS, USERS, random);
+        BenchmarkContext.finishSeeding(context);
+        itemService = context.getBean(ItemService.class);
+        context.getBean(DbLatency.class).set(Duration.ofMillis(dbLatencyMillis));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ItemDtoOut getItemByIdAsOwner() {
+        return itemService.getItemById(OWNED_ITEM_ID, OWNER_ID);
+    }
+
+    @Benchmark
+    public List<ItemDtoOut> getItemsByOwner() {
+        return itemService.getItemsByOwner(OWNER_ID);
+    }
+}
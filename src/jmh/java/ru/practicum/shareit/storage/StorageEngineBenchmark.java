@@ -0,0 +1,173 @@
+package ru.practicum.shareit.storage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.benchmark.BenchmarkContext;
+import ru.practicum.shareit.dto.BookingDtoOut;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.Comment;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.repository.CommentRepository;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.summary.ItemBookingSummaryTracker;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Одни и те же запросы сервисов на JPA с H2 и на хранилище в памяти. Данные загружаются через репозитории,
+ * поэтому одинаково попадают в оба хранилища; владелец первой вещи - текущий пользователь.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageEngineBenchmark {
+    private static final int CHUNK_SIZE = 2_000;
+    private static final int PAGE_SIZE = 20;
+    private static final String[] STATUSES = {"APPROVED", "APPROVED", "APPROVED", "WAITING", "REJECTED"};
+
+    @Param({"jpa", InMemoryStorage.PROFILE})
+    private String engine;
+
+    @Param({"1000"})
+    private int users;
+
+    @Param({"10000"})
+    private int items;
+
+    @Param({"100"})
+    private int owners;
+
+    @Param({"50000"})
+    private int bookings;
+
+    @Param({"10000"})
+    private int comments;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private long ownerId;
+    private long bookerId;
+    private long itemId;
+    private KeysetCursor deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String profile = InMemoryStorage.PROFILE.equals(engine) ? InMemoryStorage.PROFILE : "default";
+        context = BenchmarkContext.start("storage" + System.nanoTime(), "spring.profiles.active=" + profile);
+        seed(new Random(42));
+        context.getBean(ItemBookingSummaryTracker.class).backfill();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        deepCursor = new KeysetCursor(LocalDateTime.now().minusMonths(6), Long.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ItemDtoOut itemById() {
+        return itemService.getItemById(itemId, ownerId);
+    }
+
+    @Benchmark
+    public List<ItemDtoOut> itemsByOwner() {
+        return itemService.getItemsByOwner(ownerId);
+    }
+
+    @Benchmark
+    public List<BookingDtoOut> ownerBookingsFirstPage() {
+        return bookingService.getAllByOwner(ownerId, "ALL", 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingDtoOut> ownerBookingsDeepPageByCursor() {
+        return bookingService.getAllByOwner(ownerId, "ALL", deepCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingDtoOut> bookerPastBookings() {
+        return bookingService.getAllByBooker("PAST", bookerId, 0, PAGE_SIZE);
+    }
+
+    /**
+     * Пользователи, вещи, бронирования и комментарии порциями по {@value #CHUNK_SIZE} в отдельных транзакциях.
+     */
+    private void seed(Random random) {
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        CommentRepository commentRepository = context.getBean(CommentRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<User> savedUsers = inChunks(transactionTemplate, users, i ->
+                userRepository.save(new User(0, "user" + i, "user" + i + "@storage.ru")));
+        List<Item> savedItems = inChunks(transactionTemplate, items, i ->
+                itemRepository.save(new Item(null, BenchmarkContext.words(random, 2),
+                        BenchmarkContext.words(random, 6), random.nextInt(10) != 0, savedUsers.get(i % owners))));
+        inChunks(transactionTemplate, bookings, i -> {
+            LocalDateTime start = now.plusHours(random.nextInt(24 * 365 * 2) - 24 * 365);
+            return bookingRepository.save(new Booking(0, start, start.plusHours(1 + random.nextInt(72)),
+                    savedItems.get(random.nextInt(items)), savedUsers.get(owners + random.nextInt(users - owners)),
+                    BookingStatus.valueOf(STATUSES[random.nextInt(STATUSES.length)])));
+        });
+        inChunks(transactionTemplate, comments, i ->
+                commentRepository.save(new Comment(0, BenchmarkContext.words(random, 8),
+                        savedItems.get(random.nextInt(items)), savedUsers.get(owners + random.nextInt(users - owners)),
+                        now.minusMinutes(random.nextInt(60 * 24 * 365)))));
+
+        ownerId = savedUsers.get(0).getId();
+        bookerId = savedUsers.get(owners).getId();
+        itemId = savedItems.get(0).getId();
+    }
+
+    private static <T> List<T> inChunks(TransactionTemplate transactionTemplate, int count, Row<T> row) {
+        List<T> saved = new ArrayList<>(count);
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(count, from + CHUNK_SIZE);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = start; i < end; i++) {
+                    saved.add(row.create(i));
+                }
+            });
+        }
+        return saved;
+    }
+
+    @FunctionalInterface
+    private interface Row<T> {
+        T create(int index);
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.exception.ErrorResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Допуск запросов до контроллеров: ограничение частоты запросов пользователя (429) и предел одновременных
+ * запросов группы эндпоинтов (503). Отказ происходит до открытия транзакции и взятия соединения с базой.
+ * Пользователь определяется по заголовку {@value Constants#HEADER_USER_ID}, без него - по адресу клиента.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@EnableConfigurationProperties(AdmissionProperties.class)
+@ConditionalOnProperty(name = "shareit.admission.enabled", havingValue = "true")
+public class AdmissionFilter extends OncePerRequestFilter {
+    public static final String REJECTED = "shareit.admission.rejected";
+
+    private final List<GroupLimits> groups;
+    private final ObjectMapper objectMapper;
+
+    public AdmissionFilter(AdmissionProperties properties, MeterRegistry registry, ObjectMapper objectMapper) {
+        this.groups = properties.getGroups().stream()
+                .map(group -> new GroupLimits(group, registry))
+                .toList();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        GroupLimits group = findGroup(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = group.rateLimiter.tryAcquire(user(request));
+        if (waitNanos > 0) {
+            group.rateRejections.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1,
+                    "Слишком много запросов, повторите позже");
+            return;
+        }
+        if (!group.inFlight.tryAcquire()) {
+            group.concurrencyRejections.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Сервис перегружен, повторите позже");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            group.inFlight.release();
+        }
+    }
+
+    private GroupLimits findGroup(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (GroupLimits group : groups) {
+            for (PathPattern pattern : group.patterns) {
+                if (pattern.matches(path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String user(HttpServletRequest request) {
+        String userId = request.getHeader(Constants.HEADER_USER_ID);
+        return userId != null ? userId : request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message));
+    }
+
+    private static final class GroupLimits {
+        private final List<PathPattern> patterns;
+        private final UserRateLimiter rateLimiter;
+        private final Semaphore inFlight;
+        private final Counter rateRejections;
+        private final Counter concurrencyRejections;
+
+        GroupLimits(AdmissionProperties.Group group, MeterRegistry registry) {
+            this.patterns = group.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            this.rateLimiter = new UserRateLimiter(group.getRate(), group.getBurst(), System::nanoTime);
+            this.inFlight = new Semaphore(group.getMaxConcurrent());
+            this.rateRejections = rejections(registry, group, "rate");
+            this.concurrencyRejections = rejections(registry, group, "concurrency");
+        }
+
+        private static Counter rejections(MeterRegistry registry, AdmissionProperties.Group group, String reason) {
+            return Counter.builder(REJECTED)
+                    .description("Запросы, отклонённые до обработки")
+                    .tag("group", group.getName())
+                    .tag("reason", reason)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Лимиты групп эндпоинтов. Запрос относится к первой группе, один из шаблонов путей которой ему подходит;
+ * запросы, не попавшие ни в одну группу, не ограничиваются.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.admission")
+public class AdmissionProperties {
+    private boolean enabled;
+    private List<Group> groups = new ArrayList<>();
+
+    @Data
+    public static class Group {
+        private String name;
+        /**
+         * Шаблоны путей в синтаксисе PathPattern, например /items/search или /bookings/**.
+         */
+        private List<String> paths = new ArrayList<>();
+        /**
+         * Средняя частота запросов одного пользователя в секунду.
+         */
+        private double rate = 50;
+        /**
+         * Число запросов пользователя, которое можно выполнить подряд после простоя.
+         */
+        private int burst = 100;
+        /**
+         * Предел одновременно обрабатываемых запросов группы от всех пользователей.
+         */
+        private int maxConcurrent = 64;
+    }
+}
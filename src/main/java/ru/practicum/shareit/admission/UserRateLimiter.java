@@ -0,0 +1,55 @@
+package ru.practicum.shareit.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Токен-бакет на пользователя по алгоритму GCRA: для каждого пользователя хранится одно число -
+ * теоретическое время прихода следующего запроса, которое сдвигается CAS-ом без блокировок.
+ * Запрос пропускается, если это время опережает текущее не больше чем на размер всплеска.
+ */
+public class UserRateLimiter {
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(10);
+    private static final long MAX_USERS = 100_000;
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> arrivals = Caffeine.newBuilder()
+            .expireAfterAccess(IDLE_EXPIRY)
+            .maximumSize(MAX_USERS)
+            .build();
+
+    /**
+     * @param ratePerSecond средняя допустимая частота запросов пользователя
+     * @param burst         сколько запросов подряд можно выполнить после простоя
+     */
+    public UserRateLimiter(double ratePerSecond, int burst, LongSupplier clock) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.clock = clock;
+    }
+
+    /**
+     * Возвращает 0, если запрос пропущен, иначе - через сколько наносекунд пользователю стоит повторить запрос.
+     */
+    public long tryAcquire(String user) {
+        AtomicLong arrival = arrivals.get(user, key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = clock.getAsLong();
+            long current = arrival.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Переносит завершённые бронирования, закончившиеся раньше горизонта архивации, из bookings в bookings_archive.
+ * Перенос идёт частями, каждая часть - в своей транзакции, чтобы не держать долгих блокировок.
+ * Ожидающие подтверждения бронирования не переносятся: их ещё можно подтвердить или отклонить.
+ * Выборки по всей истории читают обе таблицы ({@link ru.practicum.shareit.model.HistoricalBooking}).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingArchiver {
+    private static final String COLUMNS = "id, start_date, end_date, item_id, booker_id, status";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final int chunkSize;
+    private final Lock archiveLock = new ReentrantLock();
+
+    public BookingArchiver(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           @Value("${shareit.bookings.archive.horizon:90d}") Duration horizon,
+                           @Value("${shareit.bookings.archive.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizon = horizon;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Пропускается, если перенос уже выполняется.
+     */
+    @Scheduled(initialDelayString = "${shareit.bookings.archive.delay:3600000}",
+            fixedDelayString = "${shareit.bookings.archive.delay:3600000}")
+    public void archiveScheduled() {
+        if (!archiveLock.tryLock()) {
+            return;
+        }
+        try {
+            archive();
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    /**
+     * Переносит все бронирования, закончившиеся раньше горизонта, и возвращает их число.
+     */
+    public int archive() {
+        Timestamp endedBefore = Timestamp.valueOf(LocalDateTime.now().minus(horizon));
+        int archived = 0;
+        Integer chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> archiveChunk(endedBefore));
+            archived += chunk;
+        } while (chunk == chunkSize);
+        if (archived > 0) {
+            log.info("Перенесено в архив бронирований: {}", archived);
+        }
+        return archived;
+    }
+
+    private int archiveChunk(Timestamp endedBefore) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM bookings " +
+                        "WHERE end_date < :endedBefore AND status <> 'WAITING' " +
+                        "ORDER BY id FETCH FIRST :limit ROWS ONLY",
+                new MapSqlParameterSource("endedBefore", endedBefore).addValue("limit", chunkSize), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                .addValue("archived", Timestamp.valueOf(LocalDateTime.now()));
+        jdbcTemplate.update("INSERT INTO bookings_archive (" + COLUMNS + ", archived) " +
+                "SELECT " + COLUMNS + ", :archived FROM bookings WHERE id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM bookings WHERE id IN (:ids)", params);
+        return ids.size();
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.availability;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.util.TransactionUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Интервалы действующих (WAITING и APPROVED) бронирований по каждой вещи.
+ * Проверка пересечения и резервирование выполняются атомарно под блокировкой вещи без обращения к базе.
+ * Интервалы полуоткрытые: бронирование может начаться в момент окончания предыдущего.
+ * Пересечение при создании и при подтверждении бронирования - одна и та же ошибка {@link BookingConflictException}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex implements SmartInitializingSingleton {
+    public static final String OVERLAP_MESSAGE = "Вещь уже забронирована на эти даты";
+    static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemSchedule> schedules = new ConcurrentHashMap<>();
+
+    /**
+     * Резервирует интервал за бронированием или бросает исключение, если он пересекается с уже занятым.
+     * При откате текущей транзакции резерв снимается.
+     */
+    public void reserve(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        ItemSchedule schedule = schedules.computeIfAbsent(itemId, id -> new ItemSchedule());
+        Interval interval = new Interval(toEpochMilli(start), toEpochMilli(end), bookingId);
+        if (!schedule.tryAdd(interval, toEpochMilli(LocalDateTime.now()))) {
+            throw new BookingConflictException(OVERLAP_MESSAGE);
+        }
+        TransactionUtils.afterRollback(() -> schedule.remove(bookingId));
+    }
+
+    /**
+     * Освобождает интервал после коммита текущей транзакции.
+     */
+    public void release(long itemId, long bookingId) {
+        TransactionUtils.afterCommit(() -> {
+            ItemSchedule schedule = schedules.get(itemId);
+            if (schedule != null) {
+                schedule.remove(bookingId);
+            }
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        schedules.clear();
+        List<BookingIntervalView> intervals = bookingRepository.findIntervals(ACTIVE_STATUSES, LocalDateTime.now());
+        for (BookingIntervalView view : intervals) {
+            schedules.computeIfAbsent(view.getItemId(), id -> new ItemSchedule())
+                    .add(new Interval(toEpochMilli(view.getStart()), toEpochMilli(view.getEnd()), view.getId()));
+        }
+        log.info("Индекс интервалов бронирований построен: {} интервалов по {} вещам",
+                intervals.size(), schedules.size());
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    record Interval(long start, long end, long bookingId) {
+        long length() {
+            return end - start;
+        }
+    }
+
+    /**
+     * Интервалы одной вещи. Пересечение ищется среди интервалов, начавшихся не раньше чем за самую большую
+     * длину до начала нового; длины считаются по всем хранимым интервалам и убывают при их удалении,
+     * поэтому одно длинное бронирование не расширяет поиск после того, как закончилось или снято.
+     */
+    static final class ItemSchedule {
+        private static final Comparator<Interval> ORDER = Comparator.comparingLong(Interval::start)
+                .thenComparingLong(Interval::bookingId);
+
+        private final TreeSet<Interval> byStart = new TreeSet<>(ORDER);
+        private final Map<Long, Interval> byBooking = new HashMap<>();
+        private final TreeMap<Long, Integer> lengths = new TreeMap<>();
+
+        synchronized boolean tryAdd(Interval interval, long now) {
+            evictFinished(now);
+            long maxLength = maxLength();
+            Interval from = new Interval(interval.start() - maxLength, interval.start() - maxLength, Long.MIN_VALUE);
+            Interval to = new Interval(interval.end(), interval.end(), Long.MIN_VALUE);
+            for (Interval other : byStart.subSet(from, false, to, false)) {
+                if (other.end() > interval.start()) {
+                    return false;
+                }
+            }
+            add(interval);
+            return true;
+        }
+
+        synchronized void add(Interval interval) {
+            byStart.add(interval);
+            byBooking.put(interval.bookingId(), interval);
+            lengths.merge(interval.length(), 1, Integer::sum);
+        }
+
+        synchronized void remove(long bookingId) {
+            Interval interval = byBooking.remove(bookingId);
+            if (interval != null) {
+                byStart.remove(interval);
+                forgetLength(interval);
+            }
+        }
+
+        private void evictFinished(long now) {
+            while (!byStart.isEmpty() && byStart.first().end() <= now) {
+                Interval finished = byStart.pollFirst();
+                byBooking.remove(finished.bookingId());
+                forgetLength(finished);
+            }
+        }
+
+        synchronized long maxLength() {
+            return lengths.isEmpty() ? 0 : lengths.lastKey();
+        }
+
+        private void forgetLength(Interval interval) {
+            lengths.computeIfPresent(interval.length(), (length, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.batch;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.BatchValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Проверяет весь пакет до записи в базу. В сообщение об ошибке попадают первые нарушения с номерами строк.
+ */
+@Component
+public class BatchValidator {
+    private static final int MAX_REPORTED = 20;
+
+    private final Validator validator;
+    private final int maxSize;
+
+    public BatchValidator(Validator validator, @Value("${shareit.batch.max-size:50000}") int maxSize) {
+        this.validator = validator;
+        this.maxSize = maxSize;
+    }
+
+    public void validate(List<?> rows, Class<?> group) {
+        if (rows == null || rows.isEmpty()) {
+            throw new BatchValidationException("Пакет пуст");
+        }
+        if (rows.size() > maxSize) {
+            throw new BatchValidationException(String.format("Пакет больше %d строк", maxSize));
+        }
+        List<String> errors = new ArrayList<>();
+        int total = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i) == null) {
+                total++;
+                report(errors, String.format("[%d]: пустая строка", i));
+                continue;
+            }
+            for (ConstraintViolation<?> violation : validator.validate(rows.get(i), group)) {
+                total++;
+                report(errors, String.format("[%d].%s: %s", i, violation.getPropertyPath(), violation.getMessage()));
+            }
+        }
+        if (total > 0) {
+            String message = String.join("; ", errors);
+            if (total > errors.size()) {
+                message += String.format("; и ещё %d", total - errors.size());
+            }
+            throw new BatchValidationException(message);
+        }
+    }
+
+    private static void report(List<String> errors, String error) {
+        if (errors.size() < MAX_REPORTED) {
+            errors.add(error);
+        }
+    }
+}
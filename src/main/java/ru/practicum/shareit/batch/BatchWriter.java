@@ -0,0 +1,48 @@
+package ru.practicum.shareit.batch;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Вставляет сущности частями в текущей транзакции. После каждой части изменения сбрасываются в базу
+ * пакетами JDBC, а контекст персистентности очищается, чтобы память не росла с размером пакета.
+ * Без JPA (хранилище в памяти) очищать нечего: изменения остаются в контексте транзакции до коммита.
+ */
+@Component
+public class BatchWriter {
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final int chunkSize;
+
+    public BatchWriter(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                       @Value("${shareit.batch.chunk-size:1000}") int chunkSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Сохраняет новые сущности; id назначаются из последовательностей. После вызова сущности отсоединены.
+     */
+    public <T> void insert(List<T> entities, JpaRepository<T, ?> repository) {
+        for (int from = 0; from < entities.size(); from += chunkSize) {
+            repository.saveAll(entities.subList(from, Math.min(from + chunkSize, entities.size())));
+            repository.flush();
+            clear();
+        }
+    }
+
+    private void clear() {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        EntityManager entityManager = factory == null ? null
+                : EntityManagerFactoryUtils.getTransactionalEntityManager(factory);
+        if (entityManager != null) {
+            entityManager.clear();
+        }
+    }
+}
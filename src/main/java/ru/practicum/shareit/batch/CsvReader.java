@@ -0,0 +1,117 @@
+package ru.practicum.shareit.batch;
+
+import ru.practicum.shareit.exception.BatchValidationException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Читает CSV по RFC 4180 по одной записи, не загружая файл целиком. Поля в кавычках могут содержать
+ * запятые, переводы строк и удвоенные кавычки. Длина записи ограничена, чтобы незакрытая кавычка
+ * не затянула в память весь остаток файла.
+ */
+class CsvReader {
+    private final Reader reader;
+    private final int maxRecordLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int pushedBack = -2;
+    private int line = 1;
+    private int recordLine;
+
+    CsvReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Номер строки файла, с которой началась последняя прочитанная запись.
+     */
+    int getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Следующая запись или {@code null} в конце файла.
+     */
+    List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        int length = 0;
+        while (true) {
+            if (++length > maxRecordLength) {
+                throw new BatchValidationException(String.format("Строка %d: запись длиннее %d символов",
+                        recordLine, maxRecordLength));
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new BatchValidationException(String.format("Строка %d: не закрыта кавычка", recordLine));
+                }
+                if (c != '"') {
+                    field.append((char) c);
+                } else {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    pushedBack = next;
+                }
+                break;
+            } else {
+                field.append((char) c);
+                fieldStart = false;
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.batch;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.EntityCache;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemImportReport;
+import ru.practicum.shareit.exception.BatchValidationException;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.validationgroup.Add;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Импортирует вещи из CSV с заголовком name,description,available (порядок колонок любой, лишние пропускаются).
+ * Файл читается потоком; корректные строки копятся частями по chunk-size и каждая часть добавляется
+ * пакетной вставкой в своей транзакции, поэтому в памяти одновременно только одна часть.
+ * Некорректные строки пропускаются и попадают в отчёт; уже добавленные части не откатываются.
+ */
+@Component
+public class ItemCsvImporter {
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String AVAILABLE = "available";
+
+    private final ItemService itemService;
+    private final EntityCache entityCache;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final int maxRecordLength;
+
+    public ItemCsvImporter(ItemService itemService, EntityCache entityCache, Validator validator,
+                           @Value("${shareit.items.import.chunk-size:1000}") int chunkSize,
+                           @Value("${shareit.items.import.max-errors:100}") int maxErrors,
+                           @Value("${shareit.items.import.max-record-length:10000}") int maxRecordLength) {
+        this.itemService = itemService;
+        this.entityCache = entityCache;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    public ItemImportReport importItems(InputStream in, long userId) throws IOException {
+        entityCache.findUser(userId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
+        CsvReader reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8), maxRecordLength);
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            throw new BatchValidationException("Файл пуст");
+        }
+        int name = column(header, NAME);
+        int description = column(header, DESCRIPTION);
+        int available = column(header, AVAILABLE);
+
+        List<ItemDtoIn> chunk = new ArrayList<>(chunkSize);
+        List<String> errors = new ArrayList<>();
+        long imported = 0;
+        long rejected = 0;
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            String error;
+            ItemDtoIn item = null;
+            if (record.size() != header.size()) {
+                error = String.format("ожидалось колонок: %d, получено: %d", header.size(), record.size());
+            } else {
+                item = ItemDtoIn.builder()
+                        .name(record.get(name))
+                        .description(record.get(description))
+                        .available(parseBoolean(record.get(available)))
+                        .build();
+                error = validate(item);
+            }
+            if (error != null) {
+                rejected++;
+                if (errors.size() < maxErrors) {
+                    errors.add(String.format("Строка %d: %s", reader.getRecordLine(), error));
+                }
+                continue;
+            }
+            chunk.add(item);
+            if (chunk.size() == chunkSize) {
+                imported += flush(chunk, userId);
+            }
+        }
+        imported += flush(chunk, userId);
+        return new ItemImportReport(imported, rejected, errors);
+    }
+
+    private int flush(List<ItemDtoIn> chunk, long userId) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        // строки уже проверены в validate, повторная проверка пакета удвоила бы её стоимость
+        int size = itemService.addValidatedItems(chunk, userId).size();
+        chunk.clear();
+        return size;
+    }
+
+    private String validate(ItemDtoIn item) {
+        List<String> violations = new ArrayList<>();
+        for (ConstraintViolation<ItemDtoIn> violation : validator.validate(item, Add.class)) {
+            violations.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return violations.isEmpty() ? null : String.join(", ", violations);
+    }
+
+    /**
+     * Значение, отличное от true/false, считается отсутствующим и отклоняется проверкой группы Add.
+     */
+    private static Boolean parseBoolean(String value) {
+        String normalized = value.strip().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "true" -> Boolean.TRUE;
+            case "false" -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    private static int column(List<String> header, String name) {
+        for (int i = 0; i < header.size(); i++) {
+            // Excel начинает UTF-8 файлы с BOM
+            if (header.get(i).replace("\uFEFF", "").strip().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        throw new BatchValidationException(String.format("В заголовке нет колонки %s", name));
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.util.TransactionUtils;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Кэш пользователей и вещей для проверок существования и владения.
+ * В кэше лежат отсоединённые копии сущностей, общие для всех потоков: их нельзя изменять и сохранять,
+ * владелец у кэшированной вещи - заглушка, в которой заполнен только id.
+ *
+ * <p>Изменённая сущность после коммита заменяется в кэше отметкой с зафиксированной версией. Загруженная
+ * копия кладётся в кэш атомарно и только если её версия не ниже отметки, поэтому чтение, начатое до коммита,
+ * и сущность из контекста персистентности, загруженная до него, не возвращают в кэш устаревшее состояние.
+ * Записи читаются без учёта статистики Caffeine: попадания и промахи, включая чтение отметки,
+ * считаются в {@link EntityCacheStatistics}.
+ */
+@Component
+public class EntityCache {
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final Cache users;
+    private final Cache items;
+    private final StatsCounter userStats;
+    private final StatsCounter itemStats;
+
+    public EntityCache(UserRepository userRepository, ItemRepository itemRepository, CacheManager cacheManager,
+                       EntityCacheStatistics statistics) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.users = Objects.requireNonNull(cacheManager.getCache(USERS));
+        this.items = Objects.requireNonNull(cacheManager.getCache(ITEMS));
+        this.userStats = statistics.counter(USERS);
+        this.itemStats = statistics.counter(ITEMS);
+    }
+
+    public Optional<User> findUser(long userId) {
+        return find(users, userStats, userId, userRepository::findById, EntityCache::detach, User::getVersion);
+    }
+
+    public Optional<Item> findItem(long itemId) {
+        return find(items, itemStats, itemId, itemRepository::findById, EntityCache::detach, Item::getVersion);
+    }
+
+    /**
+     * Сбрасывает пользователя после коммита; версия читается в момент коммита, когда она уже увеличена.
+     */
+    public void evictUser(User user) {
+        long userId = user.getId();
+        TransactionUtils.afterCommit(() -> evict(users, userId, user.getVersion()));
+    }
+
+    public void removeUser(long userId) {
+        TransactionUtils.afterCommit(() -> evict(users, userId, Long.MAX_VALUE));
+    }
+
+    public void evictItem(Item item) {
+        long itemId = item.getId();
+        TransactionUtils.afterCommit(() -> evict(items, itemId, item.getVersion()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Optional<T> find(Cache cache, StatsCounter stats, long id, LongFunction<Optional<T>> loader,
+                                        UnaryOperator<T> detach, ToLongFunction<T> version) {
+        Object cached = entries(cache).get(id);
+        if (cached != null && !(cached instanceof Evicted)) {
+            stats.recordHits(1);
+            return Optional.of((T) cached);
+        }
+        stats.recordMisses(1);
+        Optional<T> loaded = loader.apply(id).map(detach);
+        loaded.ifPresent(value -> entries(cache).compute(id, (key, current) ->
+                current != null && versionOf(current, version) > version.applyAsLong(value) ? current : value));
+        return loaded;
+    }
+
+    private static void evict(Cache cache, long id, long version) {
+        entries(cache).compute(id, (key, current) ->
+                current instanceof Evicted evicted && evicted.version() >= version ? current : new Evicted(version));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> long versionOf(Object entry, ToLongFunction<T> version) {
+        return entry instanceof Evicted evicted ? evicted.version() : version.applyAsLong((T) entry);
+    }
+
+    /**
+     * Записи кэша как ConcurrentMap: compute над ней атомарен относительно других изменений того же ключа.
+     */
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Object, Object> entries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return (ConcurrentMap<Object, Object>) caffeine.asMap();
+        }
+        return (ConcurrentMap<Object, Object>) nativeCache;
+    }
+
+    private static User detach(User user) {
+        User copy = new User(user.getId(), user.getName(), user.getEmail());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+
+    private static Item detach(Item item) {
+        Item copy = new Item(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                new User(item.getOwner().getId(), null, null));
+        copy.setRequestId(item.getRequestId());
+        copy.setCommentsCount(item.getCommentsCount());
+        copy.setVersion(item.getVersion());
+        return copy;
+    }
+
+    /**
+     * Отметка сброшенной записи: копии с версией ниже {@code version} устарели.
+     */
+    private record Evicted(long version) {
+    }
+}
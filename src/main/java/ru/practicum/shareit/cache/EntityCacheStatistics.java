@@ -0,0 +1,48 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Счётчики обращений к кэшам {@link EntityCache}. Попадание и промах отмечает сам {@link EntityCache}:
+ * отметка сброшенной записи лежит в кэше, но для читателя это промах, а Caffeine посчитал бы её попаданием.
+ * Кэши строятся по {@code spring.cache.caffeine.spec} с этими счётчиками вместо встроенных,
+ * поэтому cache.gets и доля попаданий в метриках отражают реальные чтения из базы.
+ */
+@Component
+public class EntityCacheStatistics implements CacheManagerCustomizer<CaffeineCacheManager> {
+    private static final String RECORD_STATS = "recordStats";
+
+    private final Map<String, StatsCounter> counters = Map.of(
+            EntityCache.USERS, new ConcurrentStatsCounter(),
+            EntityCache.ITEMS, new ConcurrentStatsCounter());
+    private final String spec;
+
+    public EntityCacheStatistics(CacheProperties cacheProperties) {
+        String configured = cacheProperties.getCaffeine().getSpec();
+        // счётчик задаётся ниже, повторное включение статистики Caffeine запрещает
+        this.spec = configured == null ? "" : Arrays.stream(configured.split(","))
+                .map(String::trim)
+                .filter(option -> !option.equals(RECORD_STATS))
+                .collect(Collectors.joining(","));
+    }
+
+    @Override
+    public void customize(CaffeineCacheManager cacheManager) {
+        counters.forEach((name, counter) -> cacheManager.registerCustomCache(name,
+                Caffeine.from(spec).recordStats(() -> counter).build()));
+    }
+
+    StatsCounter counter(String cacheName) {
+        return counters.get(cacheName);
+    }
+}
@@ -1,49 +1,148 @@
 package ru.practicum.shareit.controller;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.BookingDtoOut;
 import ru.practicum.shareit.dto.BookingItemDto;
-import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.events.BookingEventBroker;
+import ru.practicum.shareit.export.BookingExporter;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.idempotency.IdempotentRequests;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.UserService;
 import ru.practicum.shareit.validationgroup.Add;
 
 import java.util.List;
+import java.util.Locale;
 
+@Validated
 @RequiredArgsConstructor
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final UserService userService;
+    private final IdempotentRequests idempotentRequests;
+    private final BookingEventBroker bookingEventBroker;
+    private final BookingExporter bookingExporter;
 
     @PostMapping
-    public Booking addBooking(@Validated(Add.class) @RequestBody BookingItemDto bookingItemDtoIn,
-                              @RequestHeader(Constants.HEADER_USER_ID) long userId) {
-        return bookingService.addBooking(bookingItemDtoIn, userId);
+    public BookingDtoOut addBooking(@Validated(Add.class) @RequestBody BookingItemDto bookingItemDtoIn,
+                                    @RequestHeader(Constants.HEADER_USER_ID) long userId,
+                                    @RequestHeader(name = Constants.HEADER_IDEMPOTENCY_KEY, required = false)
+                                    String idempotencyKey) {
+        return idempotentRequests.execute(idempotencyKey, userId, "addBooking", bookingItemDtoIn, BookingDtoOut.class,
+                () -> bookingService.addBooking(bookingItemDtoIn, userId));
+    }
+
+    @PostMapping("/batch")
+    public List<BookingDtoOut> addBookings(@RequestBody List<BookingItemDto> bookingItemDtos,
+                                           @RequestHeader(Constants.HEADER_USER_ID) long userId) {
+        return bookingService.addBookings(bookingItemDtos, userId);
     }
 
     @PatchMapping("/{bookingId}")
-    public Booking approve(@PathVariable long bookingId, @RequestParam(name = "approved") Boolean isApproved,
+    public BookingDtoOut approve(@PathVariable long bookingId, @RequestParam(name = "approved") Boolean isApproved,
                                  @RequestHeader(Constants.HEADER_USER_ID) long userId) {
         return bookingService.approve(bookingId, isApproved, userId);
     }
 
+    /**
+     * Поток событий о бронированиях пользователя - его собственных и бронированиях его вещей.
+     * Неизвестный пользователь получает 404, и подписка не создаётся.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(Constants.HEADER_USER_ID) long userId) {
+        userService.getUserById(userId);
+        return bookingEventBroker.subscribe(userId);
+    }
+
     @GetMapping("/{bookingId}")
-    public Booking getBookingById(@PathVariable long bookingId,
+    public BookingDtoOut getBookingById(@PathVariable long bookingId,
                                         @RequestHeader(Constants.HEADER_USER_ID) long userId) {
         return bookingService.getBookingById(bookingId, userId);
     }
 
+    /**
+     * Бронирования пользователя от поздних к ранним. Без {@code size} выдаются все бронирования, начиная
+     * с {@code from} или курсора; с {@code size} полная страница сопровождается курсором следующей страницы.
+     */
     @GetMapping
-    public List<Booking> getAllByBooker(@RequestParam(name = "state", defaultValue = "ALL") String state,
-                                              @RequestHeader(Constants.HEADER_USER_ID) long bookerId) {
-        return bookingService.getAllByBooker(state, bookerId);
+    public ResponseEntity<List<BookingDtoOut>> getAllByBooker(
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(required = false) @Positive @Max(Constants.MAX_PAGE_SIZE) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(Constants.HEADER_USER_ID) long bookerId) {
+        int limit = size == null ? Integer.MAX_VALUE : size;
+        List<BookingDtoOut> bookings = cursor == null
+                ? bookingService.getAllByBooker(state, bookerId, from, limit)
+                : bookingService.getAllByBooker(state, bookerId, KeysetCursor.decode(cursor), limit);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<Booking> getAllByOwner(@RequestParam(name = "state", defaultValue = "ALL") String state,
-                                             @RequestHeader(Constants.HEADER_USER_ID) long ownerId) {
-        return bookingService.getAllByOwner(ownerId, state);
+    public ResponseEntity<List<BookingDtoOut>> getAllByOwner(
+            @RequestParam(name = "state", defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(required = false) @Positive @Max(Constants.MAX_PAGE_SIZE) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(Constants.HEADER_USER_ID) long ownerId) {
+        int limit = size == null ? Integer.MAX_VALUE : size;
+        List<BookingDtoOut> bookings = cursor == null
+                ? bookingService.getAllByOwner(ownerId, state, from, limit)
+                : bookingService.getAllByOwner(ownerId, state, KeysetCursor.decode(cursor), limit);
+        return withNextCursor(bookings, size);
+    }
+
+    /**
+     * Вся история бронирований пользователя одним файлом: format=csv или format=ndjson.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportByBooker(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(Constants.HEADER_USER_ID) long bookerId) {
+        return export(BookingExporter.Party.BOOKER, bookerId, ExportFormat.from(format));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportByOwner(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(Constants.HEADER_USER_ID) long ownerId) {
+        return export(BookingExporter.Party.OWNER, ownerId, ExportFormat.from(format));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(BookingExporter.Party party, long userId,
+                                                         ExportFormat format) {
+        StreamingResponseBody body = bookingExporter.stream(party, userId, format);
+        String filename = "bookings-" + party.name().toLowerCase(Locale.ROOT) + "-" + userId + "."
+                + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    private static ResponseEntity<List<BookingDtoOut>> withNextCursor(List<BookingDtoOut> bookings, Integer size) {
+        if (size == null || bookings.isEmpty() || bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingDtoOut last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(Constants.HEADER_NEXT_CURSOR, new KeysetCursor(last.getStart(), last.getId()).encode())
+                .body(bookings);
     }
-}
\ No newline at end of file
+}
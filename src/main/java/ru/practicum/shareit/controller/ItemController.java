@@ -1,23 +1,36 @@
 package ru.practicum.shareit.controller;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.batch.ItemCsvImporter;
 import ru.practicum.shareit.constant.Constants;
 import ru.practicum.shareit.dto.CommentDto;
 import ru.practicum.shareit.dto.ItemDtoIn;
 import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.dto.ItemImportReport;
+import ru.practicum.shareit.idempotency.IdempotentRequests;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.service.ItemService;
 import ru.practicum.shareit.validationgroup.Add;
 import ru.practicum.shareit.validationgroup.Update;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
+@Validated
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final IdempotentRequests idempotentRequests;
+    private final ItemCsvImporter itemCsvImporter;
 
     @PostMapping
     public ItemDtoOut addItem(@Validated(Add.class) @RequestBody ItemDtoIn itemDtoIn,
@@ -25,6 +38,21 @@ public class ItemController {
         return itemService.addItem(itemDtoIn, userId);
     }
 
+    @PostMapping("/batch")
+    public List<ItemDtoOut> addItems(@RequestBody List<ItemDtoIn> itemDtoIns,
+                                     @RequestHeader(Constants.HEADER_USER_ID) long userId) {
+        return itemService.addItems(itemDtoIns, userId);
+    }
+
+    /**
+     * Импорт вещей из CSV в кодировке UTF-8; тело запроса читается потоком.
+     */
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ItemImportReport importItems(InputStream body, @RequestHeader(Constants.HEADER_USER_ID) long userId)
+            throws IOException {
+        return itemCsvImporter.importItems(body, userId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDtoOut updateItem(@PathVariable long itemId,
                                  @Validated(Update.class) @RequestBody ItemDtoIn itemDtoIn,
@@ -33,7 +61,11 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDtoOut getItemById(@PathVariable long itemId, @RequestHeader(Constants.HEADER_USER_ID) long userId) {
+    public ItemDtoOut getItemById(@PathVariable long itemId, @RequestHeader(Constants.HEADER_USER_ID) long userId,
+                                  WebRequest request) {
+        if (request.checkNotModified(itemService.getItemETag(itemId, userId))) {
+            return null;
+        }
         return itemService.getItemById(itemId, userId);
     }
 
@@ -50,7 +82,27 @@ public class ItemController {
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@PathVariable long itemId,
                                  @Validated(Add.class) @RequestBody CommentDto commentDto,
-                                 @RequestHeader(Constants.HEADER_USER_ID) long userId) {
-        return itemService.addComment(itemId, commentDto, userId);
+                                 @RequestHeader(Constants.HEADER_USER_ID) long userId,
+                                 @RequestHeader(name = Constants.HEADER_IDEMPOTENCY_KEY, required = false)
+                                 String idempotencyKey) {
+        return idempotentRequests.execute(idempotencyKey, userId, "addComment:" + itemId, commentDto, CommentDto.class,
+                () -> itemService.addComment(itemId, commentDto, userId));
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(
+            @PathVariable long itemId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) @Positive @Max(Constants.MAX_PAGE_SIZE)
+            int size) {
+        List<CommentDto> comments = itemService.getComments(itemId,
+                cursor == null ? null : KeysetCursor.decode(cursor), size);
+        if (comments.size() < size) {
+            return ResponseEntity.ok(comments);
+        }
+        CommentDto last = comments.get(comments.size() - 1);
+        return ResponseEntity.ok()
+                .header(Constants.HEADER_NEXT_CURSOR, new KeysetCursor(last.getCreated(), last.getId()).encode())
+                .body(comments);
     }
 }
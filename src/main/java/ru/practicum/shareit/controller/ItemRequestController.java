@@ -1,12 +1,63 @@
 package ru.practicum.shareit.controller;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.ItemRequestDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.service.ItemRequestService;
+import ru.practicum.shareit.validationgroup.Add;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import java.util.List;
+
+@Validated
+@RequiredArgsConstructor
 @RestController
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ItemRequestDto addRequest(@Validated(Add.class) @RequestBody ItemRequestDto itemRequestDto,
+                                     @RequestHeader(Constants.HEADER_USER_ID) long userId) {
+        return itemRequestService.addRequest(itemRequestDto, userId);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ItemRequestDto>> getOwnRequests(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) @Positive @Max(Constants.MAX_PAGE_SIZE) int size,
+            @RequestHeader(Constants.HEADER_USER_ID) long userId) {
+        return withNextCursor(itemRequestService.getOwnRequests(userId,
+                cursor == null ? null : KeysetCursor.decode(cursor), size), size);
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getOtherRequests(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_SIZE) @Positive @Max(Constants.MAX_PAGE_SIZE) int size,
+            @RequestHeader(Constants.HEADER_USER_ID) long userId) {
+        return withNextCursor(itemRequestService.getOtherRequests(userId,
+                cursor == null ? null : KeysetCursor.decode(cursor), size), size);
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto getRequestById(@PathVariable long requestId,
+                                         @RequestHeader(Constants.HEADER_USER_ID) long userId) {
+        return itemRequestService.getRequestById(requestId, userId);
+    }
+
+    private static ResponseEntity<List<ItemRequestDto>> withNextCursor(List<ItemRequestDto> requests, int size) {
+        if (requests.size() < size) {
+            return ResponseEntity.ok(requests);
+        }
+        ItemRequestDto last = requests.get(requests.size() - 1);
+        return ResponseEntity.ok()
+                .header(Constants.HEADER_NEXT_CURSOR, new KeysetCursor(last.getCreated(), last.getId()).encode())
+                .body(requests);
+    }
 }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.dto.UserDto;
 import ru.practicum.shareit.service.UserService;
 import ru.practicum.shareit.validationgroup.Add;
@@ -22,7 +23,10 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public UserDto getUserById(@PathVariable Long userId) {
+    public UserDto getUserById(@PathVariable Long userId, WebRequest request) {
+        if (request.checkNotModified(userService.getUserETag(userId))) {
+            return null;
+        }
         return userService.getUserById(userId);
     }
 
@@ -31,6 +35,11 @@ public class UserController {
         return userService.addUser(userDto);
     }
 
+    @PostMapping("/batch")
+    public List<UserDto> addUsers(@RequestBody List<UserDto> userDtos) {
+        return userService.addUsers(userDtos);
+    }
+
 
     @PatchMapping("/{userId}")
     public UserDto updateUserById(@PathVariable long userId, @Validated(Update.class) @RequestBody UserDto userDto) {
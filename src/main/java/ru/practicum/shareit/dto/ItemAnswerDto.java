@@ -0,0 +1,12 @@
+package ru.practicum.shareit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemAnswerDto {
+    private long id;
+    private String name;
+    private long ownerId;
+}
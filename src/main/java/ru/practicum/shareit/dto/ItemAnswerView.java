@@ -0,0 +1,14 @@
+package ru.practicum.shareit.dto;
+
+/**
+ * Вещь-ответ на запрос без загрузки сущности и её владельца.
+ */
+public interface ItemAnswerView {
+    long getId();
+
+    String getName();
+
+    long getOwnerId();
+
+    long getRequestId();
+}
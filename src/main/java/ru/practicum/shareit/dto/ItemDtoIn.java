@@ -16,4 +16,5 @@ public class ItemDtoIn {
     private String description;
     @NotNull(groups = {Add.class})
     private Boolean available;
+    private Long requestId;
 }
@@ -15,14 +15,23 @@ public class ItemDtoOut {
     private Boolean available;
     private BookingDto lastBooking;
     private BookingDto nextBooking;
+    /**
+     * Последние комментарии, не больше shareit.items.comments.embedded-limit; остальные -
+     * в GET /items/{itemId}/comments.
+     */
     private List<CommentDto> comments;
+    private int commentsCount;
     private User owner;
+    private Long requestId;
 
-    public ItemDtoOut(long id, String name, String description, Boolean available, User owner) {
+    public ItemDtoOut(long id, String name, String description, Boolean available, int commentsCount, User owner,
+                      Long requestId) {
         this.id = id;
         this.name = name;
         this.description = description;
         this.available = available;
+        this.commentsCount = commentsCount;
         this.owner = owner;
+        this.requestId = requestId;
     }
 }
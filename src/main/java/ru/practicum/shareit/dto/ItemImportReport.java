@@ -0,0 +1,17 @@
+package ru.practicum.shareit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Итог импорта: сколько вещей добавлено, сколько строк отклонено и первые ошибки с номерами строк файла.
+ */
+@Data
+@AllArgsConstructor
+public class ItemImportReport {
+    private long imported;
+    private long rejected;
+    private List<String> errors;
+}
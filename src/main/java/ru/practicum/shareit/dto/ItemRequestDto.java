@@ -1,7 +1,24 @@
 package ru.practicum.shareit.dto;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.validationgroup.Add;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
 public class ItemRequestDto {
+    private long id;
+    @Size(max = 1000, groups = {Add.class})
+    @NotBlank(groups = {Add.class})
+    private String description;
+    private LocalDateTime created;
+    /**
+     * Вещи, добавленные в ответ на запрос.
+     */
+    private List<ItemAnswerDto> items;
 }
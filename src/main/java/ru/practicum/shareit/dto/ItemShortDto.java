@@ -0,0 +1,11 @@
+package ru.practicum.shareit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemShortDto {
+    private long id;
+    private String name;
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.email;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.repository.UserRepository;
+
+import java.util.List;
+
+/**
+ * Проверка занятости email: фильтр Блума отсекает заведомо новые адреса, остальные проверяются
+ * запросом по уникальному индексу. Окончательную гарантию даёт ограничение UNIQUE в таблице users.
+ */
+@Slf4j
+@Component
+public class EmailRegistry implements SmartInitializingSingleton {
+    private static final int REBUILD_BATCH_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final long expectedSize;
+    private final double falsePositiveRate;
+    private volatile EmailBloomFilter filter;
+    private volatile boolean ready;
+
+    public EmailRegistry(UserRepository userRepository,
+                         @Value("${shareit.users.email-filter.expected-size:1000000}") long expectedSize,
+                         @Value("${shareit.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.expectedSize = expectedSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new EmailBloomFilter(expectedSize, falsePositiveRate);
+    }
+
+    public boolean isTaken(String email) {
+        if (ready && !filter.mightContain(email)) {
+            return false;
+        }
+        return userRepository.existsByEmail(email);
+    }
+
+    public void register(String email) {
+        filter.add(email);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        ready = false;
+        EmailBloomFilter rebuilt = new EmailBloomFilter(expectedSize, falsePositiveRate);
+        filter = rebuilt;
+        long lastId = 0;
+        int count = 0;
+        List<UserEmailView> batch;
+        do {
+            batch = userRepository.findEmails(lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (UserEmailView view : batch) {
+                rebuilt.add(view.getEmail());
+                lastId = view.getId();
+            }
+            count += batch.size();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        ready = true;
+        log.info("Фильтр email построен: {} адресов", count);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.email;
+
+public interface UserEmailView {
+    Long getId();
+
+    String getEmail();
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.etag;
+
+import ru.practicum.shareit.model.BookingSnapshot;
+import ru.practicum.shareit.model.ItemBookingSummary;
+import ru.practicum.shareit.model.User;
+
+/**
+ * ETag представлений вещей и пользователей. Тег строится из версий сущностей без загрузки самого представления:
+ * версия вещи меняется при её изменении и при новом комментарии, версия владельца - при его изменении,
+ * а для владельца вещи в тег входят id последнего и следующего бронирований из сводки.
+ * Переименование автора комментария тег вещи не меняет.
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String item(long itemId, ItemVersionView version) {
+        return String.format("item-%d-%d-%d", itemId, version.getVersion(), version.getOwnerVersion());
+    }
+
+    public static String ownedItem(long itemId, ItemVersionView version, ItemBookingSummary summary) {
+        return String.format("%s-%d-%d", item(itemId, version), bookingId(summary.getLastBooking()),
+                bookingId(summary.getNextBooking()));
+    }
+
+    public static String user(User user) {
+        return String.format("user-%d-%d", user.getId(), user.getVersion());
+    }
+
+    private static long bookingId(BookingSnapshot snapshot) {
+        return snapshot == null ? 0 : snapshot.getBookingId();
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.etag;
+
+public interface ItemVersionView {
+    long getVersion();
+
+    long getOwnerId();
+
+    long getOwnerVersion();
+}
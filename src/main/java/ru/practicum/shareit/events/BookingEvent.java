@@ -0,0 +1,21 @@
+package ru.practicum.shareit.events;
+
+import ru.practicum.shareit.dto.BookingDtoOut;
+
+/**
+ * Изменение бронирования, о котором сообщается автору бронирования и владельцу вещи
+ * после фиксации транзакции.
+ */
+public record BookingEvent(Type type, long ownerId, BookingDtoOut booking) {
+    public enum Type {
+        CREATED, APPROVED, REJECTED;
+
+        public String eventName() {
+            return "booking-" + name().toLowerCase();
+        }
+    }
+
+    public long bookerId() {
+        return booking.getBooker().getId();
+    }
+}
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Рассылает события бронирований подписчикам по SSE. Публикующий поток только кладёт событие в очереди
+ * подписчиков и не ждёт сети: запись в соединение выполняет отдельный виртуальный поток, по одному
+ * на подписчика и только пока его очередь не пуста. Очередь подписчика ограничена; подписчик,
+ * не успевающий читать события, отключается и при переподключении получает актуальное состояние запросом.
+ * Ожидающее соединение не занимает поток: запрос переходит в асинхронный режим.
+ */
+@Slf4j
+@Component
+public class BookingEventBroker {
+    public static final String DROPPED = "shareit.bookings.events.dropped";
+    public static final String SUBSCRIBERS = "shareit.bookings.events.subscribers";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final Counter dropped;
+
+    public BookingEventBroker(MeterRegistry registry,
+                              @Value("${shareit.bookings.events.timeout:30m}") Duration timeout,
+                              @Value("${shareit.bookings.events.queue-capacity:32}") int queueCapacity) {
+        this.timeoutMillis = timeout.toMillis();
+        this.queueCapacity = queueCapacity;
+        this.dropped = Counter.builder(DROPPED)
+                .description("Подписчики, отключённые из-за переполнения очереди")
+                .register(registry);
+        registry.gauge(SUBSCRIBERS, subscriberCount);
+    }
+
+    public SseEmitter subscribe(long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(userId, emitter);
+        return emitter;
+    }
+
+    void register(long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(queueCapacity));
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            Set<Subscriber> result = userSubscribers != null ? userSubscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+    }
+
+    @TransactionalEventListener
+    public void onBookingEvent(BookingEvent event) {
+        Message message = new Message(String.valueOf(sequence.incrementAndGet()), event.type().eventName(),
+                event.booking());
+        deliver(event.ownerId(), message);
+        deliver(event.bookerId(), message);
+    }
+
+    /**
+     * Комментарий в потоке не даёт прокси и балансировщикам закрыть соединение без событий.
+     * Подписчикам с непустой очередью не отправляется: соединение и так занято.
+     */
+    @Scheduled(initialDelayString = "${shareit.bookings.events.heartbeat-delay:15000}",
+            fixedDelayString = "${shareit.bookings.events.heartbeat-delay:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                if (subscriber.queue.isEmpty()) {
+                    offer(subscriber, Message.HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber ->
+                subscriber.emitter.complete()));
+        senders.shutdown();
+    }
+
+    private void deliver(long userId, Message message) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> offer(subscriber, message));
+        }
+    }
+
+    private void offer(Subscriber subscriber, Message message) {
+        if (!subscriber.queue.offer(message)) {
+            if (remove(subscriber)) {
+                dropped.increment();
+                log.debug("Подписчик {} не успевает читать события и отключён", subscriber.userId);
+                subscriber.emitter.complete();
+            }
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Message message;
+            while ((message = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(message.toEvent());
+                } catch (IOException | IllegalStateException e) {
+                    remove(subscriber);
+                    subscriber.emitter.completeWithError(e);
+                    return;
+                }
+            }
+            subscriber.sending.set(false);
+            // событие, добавленное после опустошения очереди, но до сброса флага, отправляем сами
+            if (subscriber.queue.isEmpty() || !subscriber.sending.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Возвращает {@code false}, если подписчик уже удалён другим потоком.
+     */
+    private boolean remove(Subscriber subscriber) {
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            removed.set(userSubscribers.remove(subscriber));
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+        if (removed.get()) {
+            subscriberCount.decrementAndGet();
+        }
+        return removed.get();
+    }
+
+    /**
+     * Событие в очереди подписчика. SseEventBuilder не переиспользуется между отправками,
+     * поэтому собирается для каждого подписчика при отправке.
+     */
+    private record Message(String id, String name, Object data) {
+        static final Message HEARTBEAT = new Message(null, null, null);
+
+        SseEventBuilder toEvent() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private static final class Subscriber {
+        private final long userId;
+        private final SseEmitter emitter;
+        private final Queue<Message> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(long userId, SseEmitter emitter, Queue<Message> queue) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class BatchValidationException extends RuntimeException {
+    public BatchValidationException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.exception;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,12 +14,14 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 @RestControllerAdvice
 public class ErrorHandler {
+    private static final String CONCURRENCY_RETRY_AFTER_SECONDS = "1";
 
     @ExceptionHandler({MethodArgumentNotValidException.class, ItemNotAvailableForBookingException.class,
             WrongDatesException.class, BookingNotOwnerException.class,
-            UnsupportedStatusException.class, NotBookerException.class})
+            UnsupportedStatusException.class, NotBookerException.class, InvalidCursorException.class,
+            BatchValidationException.class, UnsupportedExportFormatException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse validationException(final MethodArgumentNotValidException e) {
+    public ErrorResponse validationException(final Exception e) {
         return new ErrorResponse(e.getMessage());
     }
 
@@ -25,11 +30,15 @@ public class ErrorHandler {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Тип ответа задан явно: ошибку получает и клиент потока событий, который принимает только text/event-stream.
+     */
     @ExceptionHandler({EntityNotFoundException.class, IllegalViewAndUpdateException.class,
             BookOwnItemsException.class})
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    public ErrorResponse entityNotFoundException(final EntityNotFoundException e) {
-        return new ErrorResponse(e.getMessage());
+    public ResponseEntity<ErrorResponse> entityNotFoundException(final EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponse(e.getMessage()));
     }
 
     @ExceptionHandler
@@ -38,6 +47,29 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse bookingConflictException(final BookingConflictException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse idempotencyConflictException(final IdempotencyConflictException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    /**
+     * Проигрыш в гонке за объект: проверка версии не прошла или не дождались блокировки.
+     * Повтор запроса через секунду прочитает уже новое состояние.
+     */
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> concurrencyFailureException(final ConcurrencyFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, CONCURRENCY_RETRY_AFTER_SECONDS)
+                .body(new ErrorResponse("Объект изменён параллельным запросом, повторите запрос"));
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ErrorResponse notOwnerException(final NotOwnerException e) {
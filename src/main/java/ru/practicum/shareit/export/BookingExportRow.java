@@ -0,0 +1,10 @@
+package ru.practicum.shareit.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка выгрузки истории бронирований: бронирование с названием вещи и именем букера.
+ */
+public record BookingExportRow(long id, LocalDateTime start, LocalDateTime end, String status, long itemId,
+                               String itemName, long bookerId, String bookerName) {
+}
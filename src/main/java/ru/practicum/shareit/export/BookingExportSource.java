@@ -0,0 +1,12 @@
+package ru.practicum.shareit.export;
+
+import java.util.function.Consumer;
+
+/**
+ * Источник строк выгрузки: вся история бронирований пользователя от поздних к ранним
+ * (start DESC, id DESC). Строки передаются по одной, не собираясь в список.
+ * Вызывается внутри read-only транзакции выгрузки.
+ */
+public interface BookingExportSource {
+    void forEach(BookingExporter.Party party, long userId, Consumer<BookingExportRow> action);
+}
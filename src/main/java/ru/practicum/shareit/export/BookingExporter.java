@@ -0,0 +1,89 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.cache.EntityCache;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.replica.ReplicaRouting;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Выгружает всю историю бронирований пользователя, включая архив, в CSV или NDJSON.
+ * Строки {@link BookingExportSource} сразу пишутся в поток ответа, поэтому память не зависит от длины истории.
+ * Выгрузка идёт в read-only транзакции (и при включённой реплике - с реплики).
+ */
+@Component
+public class BookingExporter {
+    public enum Party {
+        BOOKER,
+        OWNER
+    }
+
+    private final BookingExportSource source;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final EntityCache entityCache;
+    private final int bufferSize;
+
+    public BookingExporter(BookingExportSource source, PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper, EntityCache entityCache,
+                           @Value("${shareit.bookings.export.buffer-size:8192}") int bufferSize) {
+        this.source = source;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.entityCache = entityCache;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Проверяет пользователя сразу, чтобы ошибка вернулась обычным ответом, а саму выгрузку
+     * откладывает до записи тела ответа.
+     */
+    public StreamingResponseBody stream(Party party, long userId, ExportFormat format) {
+        entityCache.findUser(userId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
+        // тело пишется в другом потоке, признак read-your-writes переносится явно
+        boolean pinnedToPrimary = ReplicaRouting.isPinnedToPrimary();
+        return out -> {
+            try {
+                ReplicaRouting.callWith(pinnedToPrimary, () -> transactionTemplate.execute(status -> {
+                    export(party, userId, format, out);
+                    return null;
+                }));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void export(Party party, long userId, ExportFormat format, OutputStream out) {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferSize);
+            BookingRowWriter rows = BookingRowWriter.of(format, writer, objectMapper.getFactory());
+            rows.writeHeader();
+            source.forEach(party, userId, row -> {
+                try {
+                    rows.writeRow(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rows.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Пишет строки выгрузки по одной, сразу в поток ответа. Строка не сохраняется после записи,
+ * поэтому память не зависит от размера выгрузки.
+ */
+abstract class BookingRowWriter {
+    static final String[] COLUMNS = {"id", "start", "end", "status", "item_id", "item_name", "booker_id",
+            "booker_name"};
+
+    static BookingRowWriter of(ExportFormat format, Writer writer, JsonFactory jsonFactory) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(writer);
+            case NDJSON -> new Ndjson(jsonFactory.createGenerator(writer));
+        };
+    }
+
+    abstract void writeHeader() throws IOException;
+
+    abstract void writeRow(BookingExportRow row) throws IOException;
+
+    abstract void finish() throws IOException;
+
+    private static String timestamp(LocalDateTime value) {
+        return value == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value);
+    }
+
+    private static final class Csv extends BookingRowWriter {
+        private final Writer writer;
+
+        private Csv(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRow(BookingExportRow row) throws IOException {
+            writer.write(Long.toString(row.id()));
+            writer.write(',');
+            writeField(timestamp(row.start()));
+            writer.write(',');
+            writeField(timestamp(row.end()));
+            writer.write(',');
+            writeField(row.status());
+            writer.write(',');
+            writer.write(Long.toString(row.itemId()));
+            writer.write(',');
+            writeQuoted(row.itemName());
+            writer.write(',');
+            writer.write(Long.toString(row.bookerId()));
+            writer.write(',');
+            writeQuoted(row.bookerName());
+            writer.write("\r\n");
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * Пустое значение - пустое поле, как null в NDJSON.
+         */
+        private void writeField(String value) throws IOException {
+            if (value != null) {
+                writer.write(value);
+            }
+        }
+
+        /**
+         * Экранирование по RFC 4180: поле с запятой, кавычкой или переводом строки берётся в кавычки,
+         * кавычки внутри удваиваются.
+         */
+        private void writeQuoted(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static final class Ndjson extends BookingRowWriter {
+        private final JsonGenerator generator;
+
+        /**
+         * Объекты разделяются переводом строки вместо пробела по умолчанию.
+         */
+        private Ndjson(JsonGenerator generator) {
+            this.generator = generator;
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void writeHeader() {
+        }
+
+        @Override
+        void writeRow(BookingExportRow row) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUMNS[0], row.id());
+            generator.writeStringField(COLUMNS[1], timestamp(row.start()));
+            generator.writeStringField(COLUMNS[2], timestamp(row.end()));
+            generator.writeStringField(COLUMNS[3], row.status());
+            generator.writeNumberField(COLUMNS[4], row.itemId());
+            generator.writeStringField(COLUMNS[5], row.itemName());
+            generator.writeNumberField(COLUMNS[6], row.bookerId());
+            generator.writeStringField(COLUMNS[7], row.bookerName());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
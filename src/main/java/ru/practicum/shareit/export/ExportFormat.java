@@ -0,0 +1,35 @@
+package ru.practicum.shareit.export;
+
+import ru.practicum.shareit.exception.UnsupportedExportFormatException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public enum ExportFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    ExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ExportFormat from(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedExportFormatException(String.format("Неизвестный формат выгрузки %s, допустимые: %s",
+                    value, Arrays.stream(values()).map(ExportFormat::getExtension).collect(Collectors.joining(", "))));
+        }
+    }
+}
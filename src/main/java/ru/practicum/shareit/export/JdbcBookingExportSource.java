@@ -0,0 +1,44 @@
+package ru.practicum.shareit.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.storage.InMemoryStorage;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+/**
+ * Читает историю, включая архив, однонаправленным курсором порциями по fetch-size строк.
+ * Курсор PostgreSQL работает только внутри транзакции, её открывает {@link BookingExporter}.
+ */
+@Component
+@Profile("!" + InMemoryStorage.PROFILE)
+public class JdbcBookingExportSource implements BookingExportSource {
+    private static final String HISTORY = "SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings " +
+            "UNION ALL SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings_archive";
+    private static final String SELECT = "SELECT b.id, b.start_date, b.end_date, b.status, b.item_id, i.name, " +
+            "b.booker_id, u.name FROM (" + HISTORY + ") b " +
+            "JOIN items i ON i.id = b.item_id JOIN users u ON u.id = b.booker_id ";
+    private static final String ORDER = " ORDER BY b.start_date DESC, b.id DESC";
+    private static final String BY_BOOKER = SELECT + "WHERE b.booker_id = ?" + ORDER;
+    private static final String BY_OWNER = SELECT + "WHERE i.owner_id = ?" + ORDER;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcBookingExportSource(DataSource dataSource,
+                                   @Value("${shareit.bookings.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public void forEach(BookingExporter.Party party, long userId, Consumer<BookingExportRow> action) {
+        jdbcTemplate.query(party == BookingExporter.Party.OWNER ? BY_OWNER : BY_BOOKER, rs -> {
+            action.accept(new BookingExportRow(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(),
+                    rs.getTimestamp(3).toLocalDateTime(), rs.getString(4), rs.getLong(5), rs.getString(6),
+                    rs.getLong(7), rs.getString(8)));
+        }, userId);
+    }
+}
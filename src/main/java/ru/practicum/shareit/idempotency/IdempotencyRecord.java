@@ -0,0 +1,13 @@
+package ru.practicum.shareit.idempotency;
+
+/**
+ * Запись хранилища ключей идемпотентности.
+ *
+ * @param requestHash хеш тела первого запроса с этим ключом
+ * @param body        сериализованный ответ; {@code null}, пока первый запрос ещё выполняется
+ */
+public record IdempotencyRecord(String requestHash, String body) {
+    public boolean completed() {
+        return body != null;
+    }
+}
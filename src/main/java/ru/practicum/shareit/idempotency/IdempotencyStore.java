@@ -0,0 +1,23 @@
+package ru.practicum.shareit.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Хранилище ответов на запросы с заголовком Idempotency-Key. Записи живут ограниченное время,
+ * после чего ключ можно использовать заново.
+ */
+public interface IdempotencyStore {
+    /**
+     * Занимает ключ под выполнение запроса. Возвращает {@code false}, если ключ уже занят или по нему есть ответ.
+     */
+    boolean reserve(String key, String requestHash);
+
+    void complete(String key, String body);
+
+    /**
+     * Освобождает ключ, запрос по которому завершился ошибкой, чтобы клиент мог его повторить.
+     */
+    void release(String key);
+
+    Optional<IdempotencyRecord> find(String key);
+}
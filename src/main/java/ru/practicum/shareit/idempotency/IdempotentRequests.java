@@ -0,0 +1,125 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.IdempotencyConflictException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет изменяющий запрос не более одного раза на ключ идемпотентности: повтор с тем же ключом получает
+ * сохранённый ответ первого запроса. Одновременные повторы на одном узле дожидаются первого запроса,
+ * а не уходят в базу. Ключ действует в пределах пользователя и операции; повтор ключа с другим телом
+ * запроса отклоняется. Если запрос завершился ошибкой, ключ освобождается.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotentRequests {
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param idempotencyKey значение заголовка Idempotency-Key; без него действие просто выполняется
+     */
+    public <T> T execute(String idempotencyKey, long userId, String operation, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        String key = sha256(userId + ":" + operation + ":" + idempotencyKey);
+        String requestHash = sha256(write(request));
+        InFlight own = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            checkSameRequest(running.requestHash(), requestHash);
+            return read(await(running.response()), responseType);
+        }
+        try {
+            T result = executeOnce(key, requestHash, responseType, action);
+            own.response().complete(write(result));
+            return result;
+        } catch (RuntimeException e) {
+            own.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private <T> T executeOnce(String key, String requestHash, Class<T> responseType, Supplier<T> action) {
+        if (!store.reserve(key, requestHash)) {
+            IdempotencyRecord stored = store.find(key)
+                    .orElseThrow(() -> new IdempotencyConflictException("Запрос с этим ключом ещё выполняется"));
+            checkSameRequest(stored.requestHash(), requestHash);
+            if (!stored.completed()) {
+                throw new IdempotencyConflictException("Запрос с этим ключом ещё выполняется");
+            }
+            return read(stored.body(), responseType);
+        }
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            store.release(key);
+            throw e;
+        }
+        store.complete(key, write(result));
+        return result;
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyConflictException("Ключ идемпотентности уже использован для другого запроса");
+        }
+    }
+
+    private static String await(CompletableFuture<String> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<String> response) {
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Ответы хранятся в памяти узла: подходит для одного экземпляра приложения.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private final Cache<String, IdempotencyRecord> records;
+
+    public InMemoryIdempotencyStore(@Value("${shareit.idempotency.ttl:24h}") Duration ttl,
+                                    @Value("${shareit.idempotency.max-size:100000}") long maxSize) {
+        this.records = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).build();
+    }
+
+    @Override
+    public boolean reserve(String key, String requestHash) {
+        return records.asMap().putIfAbsent(key, new IdempotencyRecord(requestHash, null)) == null;
+    }
+
+    @Override
+    public void complete(String key, String body) {
+        records.asMap().computeIfPresent(key, (k, pending) -> new IdempotencyRecord(pending.requestHash(), body));
+    }
+
+    @Override
+    public void release(String key) {
+        records.invalidate(key);
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        return Optional.ofNullable(records.getIfPresent(key));
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Ответы хранятся в таблице idempotency_keys и видны всем узлам. Ключ занимается вставкой строки,
+ * поэтому из одновременных запросов разных узлов выполняется только один. Незавершённая запись старше
+ * pending-timeout считается брошенной упавшим узлом и может быть занята заново.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.idempotency.store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                @Value("${shareit.idempotency.ttl:24h}") Duration ttl,
+                                @Value("${shareit.idempotency.pending-timeout:1m}") Duration pendingTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    @Override
+    public boolean reserve(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? "
+                        + "AND (created < ? OR (response_body IS NULL AND created < ?))",
+                key, Timestamp.valueOf(now.minus(ttl)), Timestamp.valueOf(now.minus(pendingTimeout)));
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, created) "
+                    + "VALUES (?, ?, ?)", key, requestHash, Timestamp.valueOf(now));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String key, String body) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET response_body = ? WHERE idempotency_key = ?", body, key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ?", key);
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        return jdbcTemplate.query("SELECT request_hash, response_body FROM idempotency_keys "
+                                + "WHERE idempotency_key = ? AND created >= ?",
+                        (rs, rowNum) -> new IdempotencyRecord(rs.getString(1), rs.getString(2)),
+                        key, Timestamp.valueOf(LocalDateTime.now().minus(ttl)))
+                .stream()
+                .findFirst();
+    }
+
+    @Scheduled(initialDelayString = "${shareit.idempotency.purge-delay:600000}",
+            fixedDelayString = "${shareit.idempotency.purge-delay:600000}")
+    public void purgeExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created < ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(ttl)));
+        if (deleted > 0) {
+            log.debug("Удалено устаревших ключей идемпотентности: {}", deleted);
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package ru.practicum.shareit.mapper;
 
 import ru.practicum.shareit.dto.BookingDto;
+import ru.practicum.shareit.dto.BookingDtoOut;
 import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemShortDto;
+import ru.practicum.shareit.dto.UserShortDto;
 import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.metrics.RequestTimings;
 import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.BookingSnapshot;
 
 public final class BookingMapper {
     public static BookingDto toBookingDtoShort(Booking booking) {
+        return RequestTimings.mapping(booking, BookingMapper::mapShort);
+    }
+
+    private static BookingDto mapShort(Booking booking) {
         return new BookingDto(
                 booking.getId(),
                 booking.getStart(),
@@ -16,6 +25,35 @@ public final class BookingMapper {
         );
     }
 
+    public static BookingDto toBookingDtoShort(BookingSnapshot snapshot) {
+        return RequestTimings.mapping(snapshot, BookingMapper::mapShort);
+    }
+
+    private static BookingDto mapShort(BookingSnapshot snapshot) {
+        return new BookingDto(
+                snapshot.getBookingId(),
+                snapshot.getStart(),
+                snapshot.getEnd(),
+                BookingStatus.APPROVED,
+                snapshot.getBookerId()
+        );
+    }
+
+    public static BookingDtoOut toBookingDtoOut(Booking booking) {
+        return RequestTimings.mapping(booking, BookingMapper::map);
+    }
+
+    private static BookingDtoOut map(Booking booking) {
+        return new BookingDtoOut(
+                booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getStatus(),
+                new ItemShortDto(booking.getItem().getId(), booking.getItem().getName()),
+                new UserShortDto(booking.getBooker().getId(), booking.getBooker().getName())
+        );
+    }
+
     public static Booking toBooking(BookingItemDto bookingItemDto, Booking booking) {
         booking.setStart(bookingItemDto.getStart());
         booking.setEnd(bookingItemDto.getEnd());
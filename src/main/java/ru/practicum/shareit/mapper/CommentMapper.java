@@ -1,6 +1,7 @@
 package ru.practicum.shareit.mapper;
 
 import ru.practicum.shareit.dto.CommentDto;
+import ru.practicum.shareit.metrics.RequestTimings;
 import ru.practicum.shareit.model.Comment;
 import ru.practicum.shareit.model.Item;
 import ru.practicum.shareit.model.User;
@@ -9,6 +10,10 @@ import java.time.LocalDateTime;
 
 public final class CommentMapper {
     public static CommentDto toCommentDtoOut(Comment comment) {
+        return RequestTimings.mapping(comment, CommentMapper::map);
+    }
+
+    private static CommentDto map(Comment comment) {
         return new CommentDto(comment.getId(),
                 comment.getContent(),
                 comment.getAuthor().getName(),
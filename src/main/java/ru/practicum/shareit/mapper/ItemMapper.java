@@ -2,24 +2,33 @@ package ru.practicum.shareit.mapper;
 
 import ru.practicum.shareit.dto.ItemDtoIn;
 import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.metrics.RequestTimings;
 import ru.practicum.shareit.model.Item;
 
 public final class ItemMapper {
     public static ItemDtoOut toDto(Item item) {
+        return RequestTimings.mapping(item, ItemMapper::map);
+    }
+
+    private static ItemDtoOut map(Item item) {
         return new ItemDtoOut(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
-                item.getOwner()
+                item.getCommentsCount(),
+                item.getOwner(),
+                item.getRequestId()
         );
     }
 
     public static Item toItem(ItemDtoIn itemDto) {
-        return new Item(
+        Item item = new Item(
                 itemDto.getName(),
                 itemDto.getDescription(),
                 itemDto.getAvailable()
                 );
+        item.setRequestId(itemDto.getRequestId());
+        return item;
     }
 }
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.mapper;
+
+import ru.practicum.shareit.dto.ItemAnswerDto;
+import ru.practicum.shareit.dto.ItemAnswerView;
+import ru.practicum.shareit.dto.ItemRequestDto;
+import ru.practicum.shareit.metrics.RequestTimings;
+import ru.practicum.shareit.model.ItemRequest;
+import ru.practicum.shareit.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public final class ItemRequestMapper {
+    public static ItemRequestDto toDto(ItemRequest itemRequest, List<ItemAnswerDto> items) {
+        return RequestTimings.mapping(itemRequest, request -> new ItemRequestDto(request.getId(),
+                request.getDescription(),
+                request.getCreated(),
+                items));
+    }
+
+    public static ItemAnswerDto toAnswerDto(ItemAnswerView item) {
+        return RequestTimings.mapping(item, ItemRequestMapper::map);
+    }
+
+    private static ItemAnswerDto map(ItemAnswerView item) {
+        return new ItemAnswerDto(item.getId(), item.getName(), item.getOwnerId());
+    }
+
+    public static ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User requestor) {
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setDescription(itemRequestDto.getDescription());
+        itemRequest.setRequestor(requestor);
+        itemRequest.setCreated(LocalDateTime.now());
+        return itemRequest;
+    }
+}
@@ -1,10 +1,15 @@
 package ru.practicum.shareit.mapper;
 
 import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.metrics.RequestTimings;
 import ru.practicum.shareit.model.User;
 
 public final class UserMapper {
     public static UserDto toDto(User user) {
+        return RequestTimings.mapping(user, UserMapper::map);
+    }
+
+    private static UserDto map(User user) {
         return UserDto.builder()
                 .id(user.getId())
                 .name(user.getName())
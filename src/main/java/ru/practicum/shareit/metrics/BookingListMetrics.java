@@ -0,0 +1,48 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.enums.BookingState;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Таймеры списков бронирований по ветке состояния: {@value #TIMER}{role, state, paging}.
+ * Процентили и гистограммы настраиваются свойствами management.metrics.distribution.*.
+ */
+@Component
+public class BookingListMetrics {
+    public static final String TIMER = "shareit.bookings.list";
+
+    public enum Role { BOOKER, OWNER }
+
+    public enum Paging { OFFSET, KEYSET }
+
+    private final Map<Role, Map<Paging, Map<BookingState, Timer>>> timers = new EnumMap<>(Role.class);
+
+    public BookingListMetrics(MeterRegistry registry) {
+        for (Role role : Role.values()) {
+            Map<Paging, Map<BookingState, Timer>> byPaging = new EnumMap<>(Paging.class);
+            for (Paging paging : Paging.values()) {
+                Map<BookingState, Timer> byState = new EnumMap<>(BookingState.class);
+                for (BookingState state : BookingState.values()) {
+                    byState.put(state, Timer.builder(TIMER)
+                            .description("Выборка и преобразование страницы бронирований")
+                            .tag("role", role.name().toLowerCase())
+                            .tag("state", state.name())
+                            .tag("paging", paging.name().toLowerCase())
+                            .register(registry));
+                }
+                byPaging.put(paging, byState);
+            }
+            timers.put(role, byPaging);
+        }
+    }
+
+    public <T> T record(Role role, Paging paging, BookingState state, Supplier<T> listing) {
+        return timers.get(role).get(paging).get(state).record(listing);
+    }
+}
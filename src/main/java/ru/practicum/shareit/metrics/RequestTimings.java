@@ -0,0 +1,105 @@
+package ru.practicum.shareit.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Накопитель времени одного HTTP-запроса: время JDBC-вызовов, число операторов, время преобразования
+ * сущностей в DTO и время сериализации ответа.
+ * Привязан к потоку запроса; параллельные чтения переносят его в свои потоки, поэтому время их запросов
+ * суммируется и может превышать общее время ответа.
+ */
+public final class RequestTimings {
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong dbNanos = new AtomicLong();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong mappingNanos = new AtomicLong();
+    private long serializationNanos;
+
+    /**
+     * Накопитель текущего запроса или null, если замер не ведётся.
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Начинает замер запроса в текущем потоке.
+     */
+    public static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Выполняет действие с привязанным к потоку накопителем и восстанавливает прежний после выполнения.
+     */
+    public static <T> T callWith(RequestTimings timings, Supplier<T> action) {
+        RequestTimings previous = CURRENT.get();
+        CURRENT.set(timings);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Выполняет преобразование и учитывает его время в накопителе текущего запроса, если замер ведётся.
+     * Ленивые загрузки внутри преобразования попадают и в db, и в mapping.
+     */
+    public static <S, T> T mapping(S source, Function<S, T> mapper) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            return mapper.apply(source);
+        }
+        long start = System.nanoTime();
+        try {
+            return mapper.apply(source);
+        } finally {
+            timings.mappingNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    public void addStatement(long nanos) {
+        dbNanos.addAndGet(nanos);
+        statements.incrementAndGet();
+    }
+
+    public void addSerialization(long nanos) {
+        serializationNanos += nanos;
+    }
+
+    public long dbNanos() {
+        return dbNanos.get();
+    }
+
+    public int statements() {
+        return statements.get();
+    }
+
+    public long mappingNanos() {
+        return mappingNanos.get();
+    }
+
+    public long serializationNanos() {
+        return serializationNanos;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Добавляет к ответам заголовок Server-Timing с разбивкой времени запроса: db (JDBC-вызовы и число операторов),
+ * mapping (преобразование сущностей в DTO в мапперах), serialization (Jackson) и total; остаток total -
+ * логика сервисов и фреймворка. Тело ответа буферизуется, чтобы заголовок можно было выставить
+ * после сериализации, поэтому фильтр включается только для диагностики.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Server-Timing";
+
+    /**
+     * Потоки событий не буферизуются: ответ не заканчивается, пока клиент подписан.
+     * Выгрузки тоже: они пишутся в ответ потоком и могут быть любого размера.
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)
+                || request.getRequestURI().endsWith("/export");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        RequestTimings timings = RequestTimings.start();
+        try {
+            filterChain.doFilter(request, buffered);
+        } finally {
+            RequestTimings.clear();
+            String header = format(timings);
+            buffered.setHeader(HEADER, header);
+            log.debug("{} {} -> {}: {}", request.getMethod(), request.getRequestURI(), buffered.getStatus(), header);
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    static String format(RequestTimings timings) {
+        return String.format(Locale.ROOT,
+                "db;dur=%.3f;desc=\"%d statements\", mapping;dur=%.3f, serialization;dur=%.3f, total;dur=%.3f",
+                millis(timings.dbNanos()), timings.statements(), millis(timings.mappingNanos()),
+                millis(timings.serializationNanos()), millis(timings.elapsedNanos()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Оборачивает DataSource и учитывает каждое выполнение JDBC-оператора в {@link RequestTimings} текущего запроса.
+ * Вне замеряемого запроса операторы выполняются без замера. Обёртка DataSource реализует все интерфейсы
+ * исходного бина, в том числе {@link AutoCloseable}, поэтому при остановке контекста пулы закрываются.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.server-timing.enabled", havingValue = "true")
+public class TimedDataSource implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(dataSource, ClassUtils.getAllInterfaces(dataSource), false);
+        }
+        return bean;
+    }
+
+    private static Object proxy(Object target, Class<?>[] interfaces, boolean statement) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            RequestTimings timings = statement && method.getName().startsWith("execute")
+                    ? RequestTimings.current()
+                    : null;
+            long start = timings != null ? System.nanoTime() : 0;
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (timings != null) {
+                    timings.addStatement(System.nanoTime() - start);
+                }
+            }
+            Class<?> returnType = method.getReturnType();
+            if (result != null && (returnType == Connection.class || Statement.class.isAssignableFrom(returnType))) {
+                return proxy(result, new Class<?>[]{returnType}, returnType != Connection.class);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, handler);
+    }
+}
@@ -3,18 +3,23 @@ package ru.practicum.shareit.model;
 import jakarta.persistence.*;
 import lombok.*;
 import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.util.IdSequences;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.LISTING_GRAPH,
+        attributeNodes = {@NamedAttributeNode(value = "item", subgraph = "item"), @NamedAttributeNode("booker")},
+        subgraphs = @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode("owner")))
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class Booking {
+    public static final String LISTING_GRAPH = "Booking.listing";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private long id;
 
     @Column(name = "start_date", nullable = false)
@@ -33,4 +38,17 @@ public class Booking {
 
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public Booking(long id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = item;
+        this.booker = booker;
+        this.status = status;
+    }
 }
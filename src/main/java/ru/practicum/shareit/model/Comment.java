@@ -2,6 +2,7 @@ package ru.practicum.shareit.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ru.practicum.shareit.util.IdSequences;
 
 import java.time.LocalDateTime;
 
@@ -13,7 +14,8 @@ import java.time.LocalDateTime;
 public class Comment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
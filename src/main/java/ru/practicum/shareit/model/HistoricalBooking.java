@@ -0,0 +1,70 @@
+package ru.practicum.shareit.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование из полной истории: действующие бронирования и перенесённые в архив
+ * ({@link ru.practicum.shareit.archive.BookingArchiver}). Только для чтения; изменяются бронирования
+ * через {@link Booking}.
+ */
+@Entity
+@Immutable
+@Subselect("SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings " +
+        "UNION ALL " +
+        "SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings_archive")
+@Synchronize({"bookings", "bookings_archive"})
+@NamedEntityGraph(name = HistoricalBooking.LISTING_GRAPH,
+        attributeNodes = {@NamedAttributeNode(value = "item", subgraph = "item"), @NamedAttributeNode("booker")},
+        subgraphs = @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode("owner")))
+@Getter
+@NoArgsConstructor
+public class HistoricalBooking {
+    public static final String LISTING_GRAPH = "HistoricalBooking.listing";
+
+    @Id
+    private long id;
+
+    @Column(name = "start_date")
+    private LocalDateTime start;
+
+    @Column(name = "end_date")
+    private LocalDateTime end;
+
+    @ManyToOne
+    @JoinColumn(name = "item_id")
+    private Item item;
+
+    @ManyToOne
+    @JoinColumn(name = "booker_id")
+    private User booker;
+
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    /**
+     * Бронирование истории, собранное из действующего бронирования без обращения к базе,
+     * например хранилищем в памяти.
+     */
+    public static HistoricalBooking of(Booking booking) {
+        HistoricalBooking historical = new HistoricalBooking();
+        historical.id = booking.getId();
+        historical.start = booking.getStart();
+        historical.end = booking.getEnd();
+        historical.item = booking.getItem();
+        historical.booker = booking.getBooker();
+        historical.status = booking.getStatus();
+        return historical;
+    }
+
+    public Booking toBooking() {
+        return new Booking(id, start, end, item, booker, status);
+    }
+}
@@ -2,16 +2,17 @@ package ru.practicum.shareit.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ru.practicum.shareit.util.IdSequences;
 
 @Entity
 @Table(name = "items")
-@AllArgsConstructor
 @Data
 @NoArgsConstructor
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -27,6 +28,33 @@ public class Item {
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
+    /**
+     * Запрос, в ответ на который добавлена вещь. Хранится как id, чтобы выборки вещей не подтягивали запросы.
+     */
+    @Column(name = "request_id")
+    private Long requestId;
+
+    /**
+     * Число комментариев к вещи; увеличивается вместе с версией при добавлении комментария.
+     */
+    @Column(name = "comments_count", nullable = false)
+    private int commentsCount;
+
+    /**
+     * Версия вещи; увеличивается при изменении вещи и при добавлении к ней комментария.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public Item(Long id, String name, String description, Boolean available, User owner) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.owner = owner;
+    }
+
     public Item(String name, String description, Boolean available) {
         this.name = name;
         this.description = description;
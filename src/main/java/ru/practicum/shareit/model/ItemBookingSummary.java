@@ -0,0 +1,72 @@
+package ru.practicum.shareit.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Последнее и ближайшее подтверждённые бронирования вещи.
+ * Сводка верна до момента {@code refreshAt} - начала самого раннего из будущих бронирований, после него её нужно
+ * пересчитать.
+ */
+@Entity
+@Table(name = "item_booking_summaries")
+@Data
+@NoArgsConstructor
+public class ItemBookingSummary implements Persistable<Long> {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Embedded
+    @AttributeOverride(name = "bookingId", column = @Column(name = "last_booking_id"))
+    @AttributeOverride(name = "start", column = @Column(name = "last_start_date"))
+    @AttributeOverride(name = "end", column = @Column(name = "last_end_date"))
+    @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id"))
+    private BookingSnapshot lastBooking;
+
+    @Embedded
+    @AttributeOverride(name = "bookingId", column = @Column(name = "next_booking_id"))
+    @AttributeOverride(name = "start", column = @Column(name = "next_start_date"))
+    @AttributeOverride(name = "end", column = @Column(name = "next_end_date"))
+    @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id"))
+    private BookingSnapshot nextBooking;
+
+    @Column(name = "refresh_at")
+    private LocalDateTime refreshAt;
+
+    @Transient
+    private boolean created;
+
+    /**
+     * Новая сводка: сохраняется вставкой без предварительного поиска по ключу.
+     */
+    public ItemBookingSummary(long itemId) {
+        this.itemId = itemId;
+        this.created = true;
+    }
+
+    @Override
+    public Long getId() {
+        return itemId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        created = false;
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return refreshAt != null && !refreshAt.isAfter(now);
+    }
+}
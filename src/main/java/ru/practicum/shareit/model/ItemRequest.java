@@ -1,7 +1,36 @@
 package ru.practicum.shareit.model;
 
+import jakarta.persistence.*;
+import lombok.*;
+import ru.practicum.shareit.util.IdSequences;
+
+import java.time.LocalDateTime;
+
 /**
- * TODO Sprint add-item-requests.
+ * Запрос вещи, которой ещё нет: «нужна дрель». Другие пользователи отвечают на него, добавляя вещь
+ * с {@link Item#getRequestId()}.
  */
+@Entity
+@Table(name = "requests")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class ItemRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq",
+            allocationSize = IdSequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(nullable = false)
+    private String description;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requestor_id", nullable = false)
+    private User requestor;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
 }
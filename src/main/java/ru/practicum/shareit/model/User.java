@@ -2,16 +2,17 @@ package ru.practicum.shareit.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ru.practicum.shareit.util.IdSequences;
 
 @Entity
 @Table(name = "users")
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
@@ -19,4 +20,14 @@ public class User {
 
     @Column(nullable = false, unique = true)
     private String email;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public User(long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
 }
\ No newline at end of file
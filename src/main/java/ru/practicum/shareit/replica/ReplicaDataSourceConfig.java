@@ -0,0 +1,39 @@
+package ru.practicum.shareit.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Основная база настраивается обычными свойствами spring.datasource.*, реплика - свойствами shareit.replica.*.
+ * Пулы не регистрируются отдельными бинами: приложение видит один DataSource, который сам выбирает пул.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                               @Value("${shareit.replica.url}") String url,
+                                               @Value("${shareit.replica.username:}") String username,
+                                               @Value("${shareit.replica.password:}") String password,
+                                               @Value("${shareit.replica.maximum-pool-size:10}") int poolSize) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(poolSize);
+        replica.setReadOnly(true);
+        return new ReplicaRoutingDataSource(primary, replica);
+    }
+}
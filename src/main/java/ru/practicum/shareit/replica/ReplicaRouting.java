@@ -0,0 +1,43 @@
+package ru.practicum.shareit.replica;
+
+import java.util.function.Supplier;
+
+/**
+ * Признак того, что read-only транзакции текущего запроса должны читать с основной базы,
+ * потому что пользователь недавно что-то записал и реплика могла ещё не догнать его изменения.
+ */
+public final class ReplicaRouting {
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    /**
+     * Выполняет действие с заданным признаком и восстанавливает прежний после выполнения.
+     */
+    public static <T> T callWith(boolean pinnedToPrimary, Supplier<T> action) {
+        Boolean previous = PINNED_TO_PRIMARY.get();
+        PINNED_TO_PRIMARY.set(pinnedToPrimary);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PINNED_TO_PRIMARY.remove();
+            } else {
+                PINNED_TO_PRIMARY.set(previous);
+            }
+        }
+    }
+}
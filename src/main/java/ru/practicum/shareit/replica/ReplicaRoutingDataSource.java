@@ -0,0 +1,43 @@
+package ru.practicum.shareit.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.Map;
+
+/**
+ * Отправляет read-only транзакции в пул реплики, остальные - в пул основной базы.
+ * Соединение берётся лениво, при первом запросе, когда транзакция уже пометила его как read-only.
+ * Запросы пользователей, недавно выполнивших запись ({@link ReplicaRouting}), читают с основной базы.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        super(primary);
+        this.primary = primary;
+        this.replica = replica;
+        setReadOnlyDataSource(new ReadYourWritesDataSource(primary, replica));
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    private static final class ReadYourWritesDataSource extends AbstractRoutingDataSource {
+        ReadYourWritesDataSource(HikariDataSource primary, HikariDataSource replica) {
+            setTargetDataSources(Map.of(Boolean.TRUE, primary, Boolean.FALSE, replica));
+            setLenientFallback(false);
+            afterPropertiesSet();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return ReplicaRouting.isPinnedToPrimary();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.HistoricalBooking;
+import ru.practicum.shareit.summary.SummaryBookingView;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Запросы по всей истории бронирований - действующим и архивным. Выборки, которые не могут задеть архив
+ * (CURRENT, FUTURE, WAITING), выполняются через {@link BookingRepository}.
+ */
+@org.springframework.stereotype.Repository
+public interface BookingHistoryRepository extends Repository<HistoricalBooking, Long> {
+    String BEFORE_CURSOR = BookingRepository.BEFORE_CURSOR;
+
+    Optional<HistoricalBooking> findById(long id);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    List<HistoricalBooking> findAllByBookerId(long bookerId, Pageable pageable);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.booker.id = ?1 " +
+            "AND current_timestamp > b.end")
+    List<HistoricalBooking> findAllByBookerIdAndStatePast(long bookerId, Pageable pageable);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    List<HistoricalBooking> findAllByBookerIdAndStatus(long bookerId, BookingStatus bookingStatus, Pageable pageable);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.item.owner.id = ?1")
+    List<HistoricalBooking> findAllByOwnerId(long ownerId, Pageable pageable);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.item.owner.id = ?1 " +
+            "AND current_timestamp > b.end")
+    List<HistoricalBooking> findAllByOwnerIdAndStatePast(long ownerId, Pageable pageable);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.item.owner.id = ?1 " +
+            "AND b.status = ?2")
+    List<HistoricalBooking> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus, Pageable pageable);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.booker.id = :userId " +
+            BEFORE_CURSOR)
+    List<HistoricalBooking> findPageByBookerId(@Param("userId") long bookerId, @Param("start") LocalDateTime start,
+                                               @Param("id") long id, Limit limit);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.booker.id = :userId " +
+            "AND current_timestamp > b.end " +
+            BEFORE_CURSOR)
+    List<HistoricalBooking> findPageByBookerIdAndStatePast(@Param("userId") long bookerId,
+                                                           @Param("start") LocalDateTime start,
+                                                           @Param("id") long id, Limit limit);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.booker.id = :userId " +
+            "AND b.status = :status " +
+            BEFORE_CURSOR)
+    List<HistoricalBooking> findPageByBookerIdAndStatus(@Param("userId") long bookerId,
+                                                        @Param("status") BookingStatus status,
+                                                        @Param("start") LocalDateTime start, @Param("id") long id,
+                                                        Limit limit);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.item.owner.id = :userId " +
+            BEFORE_CURSOR)
+    List<HistoricalBooking> findPageByOwnerId(@Param("userId") long ownerId, @Param("start") LocalDateTime start,
+                                              @Param("id") long id, Limit limit);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.item.owner.id = :userId " +
+            "AND current_timestamp > b.end " +
+            BEFORE_CURSOR)
+    List<HistoricalBooking> findPageByOwnerIdAndStatePast(@Param("userId") long ownerId,
+                                                          @Param("start") LocalDateTime start,
+                                                          @Param("id") long id, Limit limit);
+
+    @EntityGraph(HistoricalBooking.LISTING_GRAPH)
+    @Query("SELECT b FROM HistoricalBooking b " +
+            "WHERE b.item.owner.id = :userId " +
+            "AND b.status = :status " +
+            BEFORE_CURSOR)
+    List<HistoricalBooking> findPageByOwnerIdAndStatus(@Param("userId") long ownerId,
+                                                       @Param("status") BookingStatus status,
+                                                       @Param("start") LocalDateTime start, @Param("id") long id,
+                                                       Limit limit);
+
+    /**
+     * Последние бронирования вещей: среди начавшихся не позже {@code now} - с наибольшим end. При равных end
+     * возвращаются все такие бронирования, выбор между ними остаётся вызывающему.
+     */
+    @Query("SELECT b.item.id AS itemId, b.id AS bookingId, b.start AS start, b.end AS end, " +
+            "b.booker.id AS bookerId " +
+            "FROM HistoricalBooking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = :status AND b.start <= :now " +
+            "AND b.end = (SELECT MAX(o.end) FROM HistoricalBooking o WHERE o.item.id = b.item.id " +
+            "AND o.status = :status AND o.start <= :now)")
+    List<SummaryBookingView> findLastByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                               @Param("now") LocalDateTime now,
+                                               @Param("status") BookingStatus status);
+
+    boolean existsByBookerIdAndItemIdAndEndBefore(long bookerId, long itemId, LocalDateTime localDateTime);
+}
@@ -1,73 +1,137 @@
 package ru.practicum.shareit.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.availability.BookingIntervalView;
 import ru.practicum.shareit.enums.BookingStatus;
 import ru.practicum.shareit.model.Booking;
-import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.summary.NextBookingView;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
+/**
+ * Действующие бронирования. Завершённые бронирования старше горизонта архивации переносятся в архив,
+ * запросы по всей истории - в {@link BookingHistoryRepository}.
+ */
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerId(long bookerId, Sort start);
+    String BEFORE_CURSOR = "AND (b.start < :start OR (b.start = :start AND b.id < :id)) " +
+            "ORDER BY b.start DESC, b.id DESC";
 
+    @EntityGraph(Booking.LISTING_GRAPH)
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = ?1 " +
             "AND current_timestamp BETWEEN b.start AND b.end")
-    List<Booking> findAllByBookerIdAndStateCurrent(long bookerId, Sort start);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.booker.id = ?1 " +
-            "AND current_timestamp > b.end")
-    List<Booking> findAllByBookerIdAndStatePast(long brokerId, Sort start);
+    List<Booking> findAllByBookerIdAndStateCurrent(long bookerId, Pageable pageable);
 
+    @EntityGraph(Booking.LISTING_GRAPH)
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = ?1 " +
             "AND current_timestamp < b.start")
-    List<Booking> findAllByBookerIdAndStateFuture(long bookerId, Sort start);
-
-    List<Booking> findAllByBookerIdAndStatus(long bookerId, BookingStatus bookingStatus, Sort start);
+    List<Booking> findAllByBookerIdAndStateFuture(long bookerId, Pageable pageable);
 
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.owner.id = ?1")
-    List<Booking> findAllByOwnerId(long ownerId, Sort start);
+    @EntityGraph(Booking.LISTING_GRAPH)
+    List<Booking> findAllByBookerIdAndStatus(long bookerId, BookingStatus bookingStatus, Pageable pageable);
 
+    @EntityGraph(Booking.LISTING_GRAPH)
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = ?1 " +
             "AND current_timestamp BETWEEN b.start AND b.end")
-    List<Booking> findAllByOwnerIdAndStateCurrent(long ownerId, Sort start);
-
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item.owner.id = ?1 " +
-            "AND current_timestamp > b.end")
-    List<Booking> findAllByOwnerIdAndStatePast(long ownerId, Sort start);
+    List<Booking> findAllByOwnerIdAndStateCurrent(long ownerId, Pageable pageable);
 
+    @EntityGraph(Booking.LISTING_GRAPH)
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = ?1 " +
             "AND current_timestamp < b.start")
-    List<Booking> findAllByOwnerIdAndStateFuture(long ownerId, Sort start);
+    List<Booking> findAllByOwnerIdAndStateFuture(long ownerId, Pageable pageable);
 
+    @EntityGraph(Booking.LISTING_GRAPH)
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.owner.id = ?1 " +
             "AND b.status = ?2")
-    List<Booking> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus, Sort start);
+    List<Booking> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus, Pageable pageable);
 
-    Optional<Booking> findFirstByItemIdAndStartLessThanEqualAndStatus(long itemId, LocalDateTime localDateTime,
-                                                                      BookingStatus bookingStatus, Sort end);
-
-    Optional<Booking> findFirstByItemIdAndStartAfterAndStatus(long itemId, LocalDateTime localDateTime,
-                                                              BookingStatus bookingStatus, Sort end);
-
-    List<Booking> findByItemInAndStartLessThanEqualAndStatus(List<Item> items, LocalDateTime thisMoment,
-                                                             BookingStatus approved, Sort end);
+    @EntityGraph(Booking.LISTING_GRAPH)
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :userId " +
+            "AND current_timestamp BETWEEN b.start AND b.end " +
+            BEFORE_CURSOR)
+    List<Booking> findPageByBookerIdAndStateCurrent(@Param("userId") long bookerId,
+                                                    @Param("start") LocalDateTime start,
+                                                    @Param("id") long id, Limit limit);
+
+    @EntityGraph(Booking.LISTING_GRAPH)
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :userId " +
+            "AND current_timestamp < b.start " +
+            BEFORE_CURSOR)
+    List<Booking> findPageByBookerIdAndStateFuture(@Param("userId") long bookerId,
+                                                   @Param("start") LocalDateTime start,
+                                                   @Param("id") long id, Limit limit);
+
+    @EntityGraph(Booking.LISTING_GRAPH)
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.booker.id = :userId " +
+            "AND b.status = :status " +
+            BEFORE_CURSOR)
+    List<Booking> findPageByBookerIdAndStatus(@Param("userId") long bookerId, @Param("status") BookingStatus status,
+                                              @Param("start") LocalDateTime start, @Param("id") long id,
+                                              Limit limit);
+
+    @EntityGraph(Booking.LISTING_GRAPH)
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :userId " +
+            "AND current_timestamp BETWEEN b.start AND b.end " +
+            BEFORE_CURSOR)
+    List<Booking> findPageByOwnerIdAndStateCurrent(@Param("userId") long ownerId, @Param("start") LocalDateTime start,
+                                                   @Param("id") long id, Limit limit);
 
-    List<Booking> findByItemInAndStartAfterAndStatus(List<Item> items, LocalDateTime thisMoment,
-                                                     BookingStatus approved, Sort end);
+    @EntityGraph(Booking.LISTING_GRAPH)
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :userId " +
+            "AND current_timestamp < b.start " +
+            BEFORE_CURSOR)
+    List<Booking> findPageByOwnerIdAndStateFuture(@Param("userId") long ownerId, @Param("start") LocalDateTime start,
+                                                  @Param("id") long id, Limit limit);
 
-    Boolean existsByBookerIdAndItemIdAndEndBefore(long bookerId, long itemId, LocalDateTime localDateTime);
+    @EntityGraph(Booking.LISTING_GRAPH)
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.owner.id = :userId " +
+            "AND b.status = :status " +
+            BEFORE_CURSOR)
+    List<Booking> findPageByOwnerIdAndStatus(@Param("userId") long ownerId, @Param("status") BookingStatus status,
+                                             @Param("start") LocalDateTime start, @Param("id") long id,
+                                             Limit limit);
+
+    /**
+     * Ближайшие бронирования вещей: среди начинающихся позже {@code now} - с наименьшим end. При равных end
+     * возвращаются все такие бронирования, выбор между ними остаётся вызывающему.
+     */
+    @Query("SELECT b.item.id AS itemId, b.id AS bookingId, b.start AS start, b.end AS end, " +
+            "b.booker.id AS bookerId, (SELECT MIN(f.start) FROM Booking f WHERE f.item.id = b.item.id " +
+            "AND f.status = :status AND f.start > :now) AS refreshAt " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = :status AND b.start > :now " +
+            "AND b.end = (SELECT MIN(o.end) FROM Booking o WHERE o.item.id = b.item.id " +
+            "AND o.status = :status AND o.start > :now)")
+    List<NextBookingView> findNextByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                            @Param("now") LocalDateTime now, @Param("status") BookingStatus status);
+
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.status IN ?1 AND b.end > ?2")
+    List<BookingIntervalView> findIntervals(Collection<BookingStatus> statuses, LocalDateTime endAfter);
+
+    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.status = :status AND b.id <> :excludedId " +
+            "AND b.start < :end AND b.end > :start")
+    boolean existsOverlapping(@Param("itemId") long itemId, @Param("status") BookingStatus status,
+                              @Param("excludedId") long excludedId, @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end);
 }
@@ -1,16 +1,40 @@
 package ru.practicum.shareit.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.model.Comment;
-import ru.practicum.shareit.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
-    List<Comment> findAllByItemId(long itemId);
+    String NEWEST_FIRST = "ORDER BY c.created DESC, c.id DESC";
 
-    List<Comment> findByItemIn(List<Item> allByOwnerId, Sort created);
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT c FROM Comment c WHERE c.item.id = :itemId " + NEWEST_FIRST)
+    List<Comment> findNewestByItemId(@Param("itemId") long itemId, Limit limit);
+
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT c FROM Comment c WHERE c.item.id = :itemId " +
+            "AND (c.created < :created OR (c.created = :created AND c.id < :id)) " +
+            NEWEST_FIRST)
+    List<Comment> findPageByItemId(@Param("itemId") long itemId, @Param("created") LocalDateTime created,
+                                   @Param("id") long id, Limit limit);
+
+    /**
+     * Не больше {@code limit} последних комментариев каждой вещи одним запросом.
+     */
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT c FROM Comment c WHERE c.id IN (" +
+            "SELECT r.id FROM (SELECT n.id AS id, row_number() OVER (PARTITION BY n.item.id " +
+            "ORDER BY n.created DESC, n.id DESC) AS position FROM Comment n WHERE n.item.id IN :itemIds) r " +
+            "WHERE r.position <= :limit) " +
+            NEWEST_FIRST)
+    List<Comment> findNewestByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+}
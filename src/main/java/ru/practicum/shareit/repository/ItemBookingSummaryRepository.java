@@ -0,0 +1,39 @@
+package ru.practicum.shareit.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemBookingSummary s WHERE s.itemId = ?1")
+    Optional<ItemBookingSummary> findForUpdate(long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemBookingSummary s WHERE s.refreshAt <= ?1 ORDER BY s.refreshAt")
+    List<ItemBookingSummary> findStaleForUpdate(LocalDateTime now, Limit limit);
+
+    /**
+     * Добавляет сводки для вещей, у которых их нет. Сводки вещей с подтверждёнными бронированиями
+     * сразу помечаются устаревшими и заполняются при следующем обновлении.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO item_booking_summaries (item_id, refresh_at) " +
+            "SELECT i.id, CASE WHEN EXISTS (SELECT 1 FROM bookings b " +
+            "WHERE b.item_id = i.id AND b.status = 'APPROVED') OR EXISTS (SELECT 1 FROM bookings_archive a " +
+            "WHERE a.item_id = i.id AND a.status = 'APPROVED') THEN CURRENT_TIMESTAMP END " +
+            "FROM items i " +
+            "WHERE NOT EXISTS (SELECT 1 FROM item_booking_summaries s WHERE s.item_id = i.id)",
+            nativeQuery = true)
+    int insertMissing();
+}
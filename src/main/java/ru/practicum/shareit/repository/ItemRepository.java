@@ -1,11 +1,20 @@
 package ru.practicum.shareit.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.dto.ItemAnswerView;
+import ru.practicum.shareit.etag.ItemVersionView;
 import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.search.ItemSearchView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
@@ -16,4 +25,38 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%'))) " +
             "AND i.available = true")
     List<Item> search(String text);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllByIdInOrderById(Collection<Long> ids);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description FROM Item i " +
+            "WHERE i.available = true AND i.id > ?1 " +
+            "ORDER BY i.id")
+    List<ItemSearchView> findAvailableForSearch(long afterId, Limit limit);
+
+    @Query("SELECT i.version AS version, o.id AS ownerId, o.version AS ownerVersion FROM Item i JOIN i.owner o " +
+            "WHERE i.id = ?1")
+    Optional<ItemVersionView> findVersionById(long itemId);
+
+    /**
+     * Ответы сразу на все запросы страницы одним запросом.
+     */
+    @Query("SELECT i.id AS id, i.name AS name, i.owner.id AS ownerId, i.requestId AS requestId FROM Item i " +
+            "WHERE i.requestId IN ?1 " +
+            "ORDER BY i.id")
+    List<ItemAnswerView> findAnswersByRequestIds(Collection<Long> requestIds);
+
+    /**
+     * Блокирует вещь до конца транзакции, не меняя её версию.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = ?1")
+    Optional<Item> findForUpdate(long itemId);
+
+    /**
+     * Блокирует вещь и увеличивает её версию, например при добавлении комментария.
+     */
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT i FROM Item i WHERE i.id = ?1")
+    Optional<Item> findAndIncrementVersion(long itemId);
 }
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    String NEWEST_FIRST = "ORDER BY r.created DESC, r.id DESC";
+    String AFTER_CURSOR = "AND (r.created < :created OR (r.created = :created AND r.id < :id)) ";
+
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id = :userId " + NEWEST_FIRST)
+    List<ItemRequest> findNewestByRequestorId(@Param("userId") long userId, Limit limit);
+
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id = :userId " + AFTER_CURSOR + NEWEST_FIRST)
+    List<ItemRequest> findPageByRequestorId(@Param("userId") long userId, @Param("created") LocalDateTime created,
+                                            @Param("id") long id, Limit limit);
+
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id <> :userId " + NEWEST_FIRST)
+    List<ItemRequest> findNewestOfOthers(@Param("userId") long userId, Limit limit);
+
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id <> :userId " + AFTER_CURSOR + NEWEST_FIRST)
+    List<ItemRequest> findPageOfOthers(@Param("userId") long userId, @Param("created") LocalDateTime created,
+                                       @Param("id") long id, Limit limit);
+
+    long countByIdIn(Collection<Long> ids);
+}
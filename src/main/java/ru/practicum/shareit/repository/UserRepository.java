@@ -1,10 +1,25 @@
 package ru.practicum.shareit.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.email.UserEmailView;
 import ru.practicum.shareit.model.User;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-}
+    boolean existsByEmail(String email);
+
+    boolean existsByEmailAndIdNot(String email, long id);
 
+    boolean existsByEmailIn(Collection<String> emails);
+
+    @Query("SELECT u.id AS id, u.email AS email FROM User u " +
+            "WHERE u.id > ?1 " +
+            "ORDER BY u.id")
+    List<UserEmailView> findEmails(long afterId, Limit limit);
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.search;
+
+import ru.practicum.shareit.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    List<Item> search(String text);
+
+    void index(Item item);
+
+    void remove(Item item);
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.util.TransactionUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Поиск по триграммному индексу в памяти. Индекс отдаёт кандидатов, а итоговая выборка
+ * загружается по первичному ключу и перепроверяется теми же правилами, что и LIKE-запрос,
+ * поэтому устаревшие записи индекса не попадают в результат.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "index", matchIfMissing = true)
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+    private static final int REBUILD_BATCH_SIZE = 10_000;
+    private static final int LOAD_BATCH_SIZE = 1_000;
+
+    private final ItemRepository itemRepository;
+    private final TrigramIndex index = new TrigramIndex();
+    private volatile boolean ready;
+
+    @Override
+    public List<Item> search(String text) {
+        if (!ready || text.length() < TrigramIndex.GRAM_SIZE || hasLikeWildcards(text)) {
+            return itemRepository.search(text);
+        }
+        long[] candidates = index.candidates(text);
+        String query = TrigramIndex.normalize(text);
+        List<Item> result = new ArrayList<>();
+        for (int from = 0; from < candidates.length; from += LOAD_BATCH_SIZE) {
+            long[] batch = Arrays.copyOfRange(candidates, from, Math.min(from + LOAD_BATCH_SIZE, candidates.length));
+            for (Item item : itemRepository.findAllByIdInOrderById(Arrays.stream(batch).boxed().toList())) {
+                if (matches(item, query)) {
+                    result.add(item);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void index(Item item) {
+        long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            TransactionUtils.afterCommit(() -> index.add(id, name, description));
+        }
+    }
+
+    @Override
+    public void remove(Item item) {
+        long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        TransactionUtils.afterCommit(() -> index.remove(id, name, description));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        ready = false;
+        index.clear();
+        long lastId = 0;
+        int count = 0;
+        List<ItemSearchView> batch;
+        do {
+            batch = itemRepository.findAvailableForSearch(lastId, Limit.of(REBUILD_BATCH_SIZE));
+            for (ItemSearchView view : batch) {
+                index.add(view.getId(), view.getName(), view.getDescription());
+                lastId = view.getId();
+            }
+            count += batch.size();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        ready = true;
+        log.info("Поисковый индекс построен: {} вещей, {} триграмм", count, index.size());
+    }
+
+    private static boolean matches(Item item, String query) {
+        return Boolean.TRUE.equals(item.getAvailable())
+                && (TrigramIndex.normalize(item.getName()).contains(query)
+                || TrigramIndex.normalize(item.getDescription()).contains(query));
+    }
+
+    private static boolean hasLikeWildcards(String text) {
+        return text.indexOf('%') >= 0 || text.indexOf('_') >= 0 || text.indexOf('\\') >= 0;
+    }
+}
@@ -1,18 +1,25 @@
 package ru.practicum.shareit.service;
 
+import ru.practicum.shareit.dto.BookingDtoOut;
 import ru.practicum.shareit.dto.BookingItemDto;
-import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.util.List;
 
 public interface BookingService {
-    Booking addBooking(BookingItemDto bookingItemDto, long userId);
+    BookingDtoOut addBooking(BookingItemDto bookingItemDto, long userId);
 
-    Booking approve(long bookingId, Boolean isApproved, long userId);
+    List<BookingDtoOut> addBookings(List<BookingItemDto> bookingItemDtos, long userId);
 
-    Booking getBookingById(long bookingId, long userId);
+    BookingDtoOut approve(long bookingId, Boolean isApproved, long userId);
 
-    List<Booking> getAllByBooker(String subState, long bookerId);
+    BookingDtoOut getBookingById(long bookingId, long userId);
 
-    List<Booking> getAllByOwner(long ownerId, String state);
+    List<BookingDtoOut> getAllByBooker(String state, long bookerId, int from, int size);
+
+    List<BookingDtoOut> getAllByBooker(String state, long bookerId, KeysetCursor cursor, int size);
+
+    List<BookingDtoOut> getAllByOwner(long ownerId, String state, int from, int size);
+
+    List<BookingDtoOut> getAllByOwner(long ownerId, String state, KeysetCursor cursor, int size);
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.service;
+
+import ru.practicum.shareit.dto.ItemRequestDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestDto addRequest(ItemRequestDto itemRequestDto, long userId);
+
+    /**
+     * Запросы пользователя от новых к старым; {@code cursor == null} - первая страница.
+     */
+    List<ItemRequestDto> getOwnRequests(long userId, KeysetCursor cursor, int size);
+
+    /**
+     * Запросы остальных пользователей от новых к старым; {@code cursor == null} - первая страница.
+     */
+    List<ItemRequestDto> getOtherRequests(long userId, KeysetCursor cursor, int size);
+
+    ItemRequestDto getRequestById(long requestId, long userId);
+}
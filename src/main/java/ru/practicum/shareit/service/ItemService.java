@@ -3,19 +3,35 @@ package ru.practicum.shareit.service;
 import ru.practicum.shareit.dto.CommentDto;
 import ru.practicum.shareit.dto.ItemDtoIn;
 import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
 import java.util.List;
 
 public interface ItemService {
     ItemDtoOut getItemById(long itemId, long userId);
 
+    String getItemETag(long itemId, long userId);
+
     List<ItemDtoOut> getItemsByOwner(long userId);
 
     List<ItemDtoOut> getItemBySearch(String text);
 
     ItemDtoOut addItem(ItemDtoIn itemDtoIn, long userId);
 
+    List<ItemDtoOut> addItems(List<ItemDtoIn> itemDtoIns, long userId);
+
+    /**
+     * Пакетная вставка без проверки строк по группе Add: вызывающий уже проверил каждую строку,
+     * как импорт CSV, который проверяет строки для построчного отчёта.
+     */
+    List<ItemDtoOut> addValidatedItems(List<ItemDtoIn> itemDtoIns, long userId);
+
     ItemDtoOut updateItem(long itemId, ItemDtoIn itemDtoIn, long userId);
 
     CommentDto addComment(long itemId, CommentDto commentDto, long userId);
+
+    /**
+     * Комментарии вещи от новых к старым; {@code cursor == null} - первая страница.
+     */
+    List<CommentDto> getComments(long itemId, KeysetCursor cursor, int size);
 }
@@ -9,8 +9,12 @@ public interface UserService {
 
     UserDto getUserById(long id);
 
+    String getUserETag(long id);
+
     UserDto addUser(UserDto userDto);
 
+    List<UserDto> addUsers(List<UserDto> userDtos);
+
     UserDto updateUser(long id, UserDto userDto);
 
     void deleteUserById(long id);
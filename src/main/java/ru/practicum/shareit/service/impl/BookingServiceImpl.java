@@ -1,24 +1,44 @@
 package ru.practicum.shareit.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.availability.BookingIntervalIndex;
+import ru.practicum.shareit.batch.BatchValidator;
+import ru.practicum.shareit.batch.BatchWriter;
+import ru.practicum.shareit.cache.EntityCache;
+import ru.practicum.shareit.dto.BookingDtoOut;
 import ru.practicum.shareit.dto.BookingItemDto;
 import ru.practicum.shareit.enums.BookingState;
 import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.events.BookingEvent;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.mapper.BookingMapper;
+import ru.practicum.shareit.metrics.BookingListMetrics;
+import ru.practicum.shareit.metrics.BookingListMetrics.Paging;
+import ru.practicum.shareit.metrics.BookingListMetrics.Role;
 import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.HistoricalBooking;
 import ru.practicum.shareit.model.Item;
 import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.repository.BookingHistoryRepository;
 import ru.practicum.shareit.repository.BookingRepository;
 import ru.practicum.shareit.repository.ItemRepository;
-import ru.practicum.shareit.repository.UserRepository;
 import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.summary.ItemBookingSummaryTracker;
+import ru.practicum.shareit.validationgroup.Add;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.springframework.data.domain.Sort.Direction.DESC;
 
@@ -26,35 +46,55 @@ import static org.springframework.data.domain.Sort.Direction.DESC;
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final Sort NEWEST_FIRST = Sort.by(DESC, "start", "id");
+
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final BookingHistoryRepository bookingHistoryRepository;
     private final ItemRepository itemRepository;
+    private final EntityCache entityCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingSummaryTracker itemBookingSummaryTracker;
+    private final BatchValidator batchValidator;
+    private final BatchWriter batchWriter;
+    private final BookingListMetrics bookingListMetrics;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    public Booking addBooking(BookingItemDto bookingItemDtoIn, long userId) {
+    public BookingDtoOut addBooking(BookingItemDto bookingItemDtoIn, long userId) {
         User booker = getUser(userId);
-        Item item = getItem(bookingItemDtoIn.getItemId());
-        if (!item.getAvailable()) {
-            throw new ItemNotAvailableForBookingException("Вещь недоступна для брони");
-        }
-        if (booker.getId() == item.getOwner().getId()) {
-            throw new BookOwnItemsException("Нельзя забронировать свою вещь");
+        Booking booking = toNewBooking(bookingItemDtoIn, booker, getItem(bookingItemDtoIn.getItemId()));
+        bookingRepository.save(booking);
+        bookingIntervalIndex.reserve(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd());
+        return publish(BookingEvent.Type.CREATED, booking);
+    }
+
+    @Override
+    public List<BookingDtoOut> addBookings(List<BookingItemDto> bookingItemDtos, long userId) {
+        batchValidator.validate(bookingItemDtos, Add.class);
+        User booker = getUser(userId);
+        Map<Long, Item> items = new HashMap<>();
+        List<Booking> bookings = new ArrayList<>(bookingItemDtos.size());
+        for (BookingItemDto bookingItemDto : bookingItemDtos) {
+            Item item = items.computeIfAbsent(bookingItemDto.getItemId(), this::getItem);
+            bookings.add(toNewBooking(bookingItemDto, booker, item));
         }
-        if (!bookingItemDtoIn.getEnd().isAfter(bookingItemDtoIn.getStart()) ||
-                bookingItemDtoIn.getStart().isBefore(LocalDateTime.now())) {
-            throw new WrongDatesException("Неверная дата бронирования");
+        batchWriter.insert(bookings, bookingRepository);
+        List<BookingDtoOut> bookingDtos = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            bookingIntervalIndex.reserve(booking.getItem().getId(), booking.getId(), booking.getStart(),
+                    booking.getEnd());
+            bookingDtos.add(publish(BookingEvent.Type.CREATED, booking));
         }
-        Booking booking = new Booking();
-        booking.setItem(item);
-        booking.setBooker(booker);
-        bookingRepository.save(BookingMapper.toBooking(bookingItemDtoIn, booking));
-        return booking;
+        return bookingDtos;
     }
 
     @Override
-    public Booking approve(long bookingId, Boolean isApproved, long userId) {
+    public BookingDtoOut approve(long bookingId, Boolean isApproved, long userId) {
         Booking booking = getById(bookingId);
-        getItem(booking.getItem().getId());
+        // подтверждения бронирований одной вещи выполняются по очереди под блокировкой вещи,
+        // а одновременное изменение самого бронирования отсекается проверкой версии при коммите
+        itemRepository.findForUpdate(booking.getItem().getId()).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
 
         if (booking.getStatus() != BookingStatus.WAITING) {
             throw new ItemNotAvailableForBookingException("Вещь уже забронирована");
@@ -63,72 +103,143 @@ public class BookingServiceImpl implements BookingService {
             throw new IllegalViewAndUpdateException("Подтвердить бронирование может только владцелец");
         }
         BookingStatus newBookingStatus = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (newBookingStatus == BookingStatus.APPROVED && bookingRepository.existsOverlapping(booking.getItem().getId(),
+                BookingStatus.APPROVED, booking.getId(), booking.getStart(), booking.getEnd())) {
+            throw new BookingConflictException(BookingIntervalIndex.OVERLAP_MESSAGE);
+        }
         booking.setStatus(newBookingStatus);
-        return booking;
+        if (newBookingStatus == BookingStatus.REJECTED) {
+            bookingIntervalIndex.release(booking.getItem().getId(), booking.getId());
+            return publish(BookingEvent.Type.REJECTED, booking);
+        }
+        itemBookingSummaryTracker.onApproved(booking);
+        return publish(BookingEvent.Type.APPROVED, booking);
 
     }
 
     @Transactional(readOnly = true)
     @Override
-    public Booking getBookingById(long bookingId, long userId) {
-        Booking booking = getById(bookingId);
+    public BookingDtoOut getBookingById(long bookingId, long userId) {
+        Booking booking = bookingHistoryRepository.findById(bookingId).map(HistoricalBooking::toBooking)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Объект класса %s не найден",
+                        Booking.class)));
         User booker = booking.getBooker();
         User owner = getUser(booking.getItem().getOwner().getId());
         if (booker.getId() != userId && owner.getId() != userId) {
             throw new IllegalViewAndUpdateException("Только автор или владелец может просматривать бронирование");
         }
-        return booking;
+        return BookingMapper.toBookingDtoOut(booking);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<Booking> getAllByBooker(String state, long bookerId) {
+    public List<BookingDtoOut> getAllByBooker(String state, long bookerId, int from, int size) {
         User booker = getUser(bookerId);
-        BookingState bookingState;
-        try {
-            bookingState = BookingState.valueOf(state);
-        } catch (IllegalArgumentException e) {
-            throw new UnsupportedStatusException("UnsupportedStatusException");
-        }
-        return switch (bookingState) {
-            case ALL -> bookingRepository.findAllByBookerId(booker.getId(), Sort.by(DESC, "start"));
-            case CURRENT -> bookingRepository.findAllByBookerIdAndStateCurrent(booker.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case PAST -> bookingRepository.findAllByBookerIdAndStatePast(booker.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case FUTURE -> bookingRepository.findAllByBookerIdAndStateFuture(booker.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case WAITING -> bookingRepository.findAllByBookerIdAndStatus(booker.getId(),
-                    BookingStatus.WAITING, Sort.by(Sort.Direction.DESC, "start"));
-            case REJECTED -> bookingRepository.findAllByBookerIdAndStatus(booker.getId(),
-                    BookingStatus.REJECTED, Sort.by(DESC, "end"));
-        };
+        Pageable page = new OffsetPageRequest(from, size, NEWEST_FIRST);
+        BookingState bookingState = parseState(state);
+        return toDto(bookingListMetrics.record(Role.BOOKER, Paging.OFFSET, bookingState, () -> switch (bookingState) {
+            case ALL -> fromHistory(bookingHistoryRepository.findAllByBookerId(booker.getId(), page));
+            case CURRENT -> bookingRepository.findAllByBookerIdAndStateCurrent(booker.getId(), page);
+            case PAST -> fromHistory(bookingHistoryRepository.findAllByBookerIdAndStatePast(booker.getId(), page));
+            case FUTURE -> bookingRepository.findAllByBookerIdAndStateFuture(booker.getId(), page);
+            case WAITING -> bookingRepository.findAllByBookerIdAndStatus(booker.getId(), BookingStatus.WAITING, page);
+            case REJECTED -> fromHistory(bookingHistoryRepository.findAllByBookerIdAndStatus(booker.getId(),
+                    BookingStatus.REJECTED, page));
+        }));
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<Booking> getAllByOwner(long ownerId, String state) {
+    public List<BookingDtoOut> getAllByBooker(String state, long bookerId, KeysetCursor cursor, int size) {
+        User booker = getUser(bookerId);
+        LocalDateTime start = cursor.timestamp();
+        long id = cursor.id();
+        Limit limit = Limit.of(size);
+        BookingState bookingState = parseState(state);
+        return toDto(bookingListMetrics.record(Role.BOOKER, Paging.KEYSET, bookingState, () -> switch (bookingState) {
+            case ALL -> fromHistory(bookingHistoryRepository.findPageByBookerId(booker.getId(), start, id, limit));
+            case CURRENT -> bookingRepository.findPageByBookerIdAndStateCurrent(booker.getId(), start, id, limit);
+            case PAST -> fromHistory(bookingHistoryRepository.findPageByBookerIdAndStatePast(booker.getId(), start,
+                    id, limit));
+            case FUTURE -> bookingRepository.findPageByBookerIdAndStateFuture(booker.getId(), start, id, limit);
+            case WAITING -> bookingRepository.findPageByBookerIdAndStatus(booker.getId(), BookingStatus.WAITING,
+                    start, id, limit);
+            case REJECTED -> fromHistory(bookingHistoryRepository.findPageByBookerIdAndStatus(booker.getId(),
+                    BookingStatus.REJECTED, start, id, limit));
+        }));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDtoOut> getAllByOwner(long ownerId, String state, int from, int size) {
         User owner = getUser(ownerId);
-        BookingState bookingState;
-        try {
-            bookingState = BookingState.valueOf(state);
-        } catch (IllegalArgumentException e) {
-            throw new UnsupportedStatusException("UnsupportedStatusException");
+        Pageable page = new OffsetPageRequest(from, size, NEWEST_FIRST);
+        BookingState bookingState = parseState(state);
+        return toDto(bookingListMetrics.record(Role.OWNER, Paging.OFFSET, bookingState, () -> switch (bookingState) {
+            case ALL -> fromHistory(bookingHistoryRepository.findAllByOwnerId(owner.getId(), page));
+            case CURRENT -> bookingRepository.findAllByOwnerIdAndStateCurrent(owner.getId(), page);
+            case PAST -> fromHistory(bookingHistoryRepository.findAllByOwnerIdAndStatePast(owner.getId(), page));
+            case FUTURE -> bookingRepository.findAllByOwnerIdAndStateFuture(owner.getId(), page);
+            case WAITING -> bookingRepository.findAllByOwnerIdAndStatus(owner.getId(), BookingStatus.WAITING, page);
+            case REJECTED -> fromHistory(bookingHistoryRepository.findAllByOwnerIdAndStatus(owner.getId(),
+                    BookingStatus.REJECTED, page));
+        }));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingDtoOut> getAllByOwner(long ownerId, String state, KeysetCursor cursor, int size) {
+        User owner = getUser(ownerId);
+        LocalDateTime start = cursor.timestamp();
+        long id = cursor.id();
+        Limit limit = Limit.of(size);
+        BookingState bookingState = parseState(state);
+        return toDto(bookingListMetrics.record(Role.OWNER, Paging.KEYSET, bookingState, () -> switch (bookingState) {
+            case ALL -> fromHistory(bookingHistoryRepository.findPageByOwnerId(owner.getId(), start, id, limit));
+            case CURRENT -> bookingRepository.findPageByOwnerIdAndStateCurrent(owner.getId(), start, id, limit);
+            case PAST -> fromHistory(bookingHistoryRepository.findPageByOwnerIdAndStatePast(owner.getId(), start,
+                    id, limit));
+            case FUTURE -> bookingRepository.findPageByOwnerIdAndStateFuture(owner.getId(), start, id, limit);
+            case WAITING -> bookingRepository.findPageByOwnerIdAndStatus(owner.getId(), BookingStatus.WAITING,
+                    start, id, limit);
+            case REJECTED -> fromHistory(bookingHistoryRepository.findPageByOwnerIdAndStatus(owner.getId(),
+                    BookingStatus.REJECTED, start, id, limit));
+        }));
+    }
+
+    private static Booking toNewBooking(BookingItemDto bookingItemDtoIn, User booker, Item item) {
+        if (!item.getAvailable()) {
+            throw new ItemNotAvailableForBookingException("Вещь недоступна для брони");
+        }
+        if (booker.getId() == item.getOwner().getId()) {
+            throw new BookOwnItemsException("Нельзя забронировать свою вещь");
+        }
+        if (!bookingItemDtoIn.getEnd().isAfter(bookingItemDtoIn.getStart()) ||
+                bookingItemDtoIn.getStart().isBefore(LocalDateTime.now())) {
+            throw new WrongDatesException("Неверная дата бронирования");
         }
-        return switch (bookingState) {
-            case ALL -> bookingRepository.findAllByOwnerId(owner.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case CURRENT -> bookingRepository.findAllByOwnerIdAndStateCurrent(owner.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case PAST -> bookingRepository.findAllByOwnerIdAndStatePast(owner.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case FUTURE -> bookingRepository.findAllByOwnerIdAndStateFuture(owner.getId(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case WAITING -> bookingRepository.findAllByOwnerIdAndStatus(owner.getId(),
-                    BookingStatus.WAITING, Sort.by(Sort.Direction.DESC, "start"));
-            case REJECTED -> bookingRepository.findAllByOwnerIdAndStatus(owner.getId(),
-                    BookingStatus.REJECTED, Sort.by(Sort.Direction.DESC, "start"));
-        };
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        return BookingMapper.toBooking(bookingItemDtoIn, booking);
+    }
+
+    /**
+     * Событие доставляется подписчикам после фиксации транзакции,
+     * см. {@link ru.practicum.shareit.events.BookingEventBroker}.
+     */
+    private BookingDtoOut publish(BookingEvent.Type type, Booking booking) {
+        BookingDtoOut bookingDtoOut = BookingMapper.toBookingDtoOut(booking);
+        eventPublisher.publishEvent(new BookingEvent(type, booking.getItem().getOwner().getId(), bookingDtoOut));
+        return bookingDtoOut;
+    }
+
+    private static List<Booking> fromHistory(List<HistoricalBooking> bookings) {
+        return bookings.stream().map(HistoricalBooking::toBooking).toList();
+    }
+
+    private static List<BookingDtoOut> toDto(List<Booking> bookings) {
+        return bookings.stream().map(BookingMapper::toBookingDtoOut).toList();
     }
 
     @Transactional(readOnly = true)
@@ -137,13 +248,21 @@ public class BookingServiceImpl implements BookingService {
                 new EntityNotFoundException(String.format("Объект класса %s не найден", Booking.class)));
     }
 
+    private BookingState parseState(String state) {
+        try {
+            return BookingState.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedStatusException("UnsupportedStatusException");
+        }
+    }
+
     private User getUser(long userId) {
-        return userRepository.findById(userId).orElseThrow(() ->
+        return entityCache.findUser(userId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
     }
 
     private Item getItem(long itemId) {
-        return itemRepository.findById(itemId).orElseThrow(() ->
+        return entityCache.findItem(itemId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
     }
 }
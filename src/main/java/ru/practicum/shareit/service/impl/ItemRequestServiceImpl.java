@@ -0,0 +1,93 @@
+package ru.practicum.shareit.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.EntityCache;
+import ru.practicum.shareit.dto.ItemAnswerDto;
+import ru.practicum.shareit.dto.ItemAnswerView;
+import ru.practicum.shareit.dto.ItemRequestDto;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.mapper.ItemRequestMapper;
+import ru.practicum.shareit.model.ItemRequest;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.ItemRequestRepository;
+import ru.practicum.shareit.service.ItemRequestService;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+
+@Transactional
+@Service
+@RequiredArgsConstructor
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final EntityCache entityCache;
+
+    @Override
+    public ItemRequestDto addRequest(ItemRequestDto itemRequestDto, long userId) {
+        User requestor = getUser(userId);
+        ItemRequest itemRequest = itemRequestRepository.save(ItemRequestMapper.toItemRequest(itemRequestDto,
+                requestor));
+        return ItemRequestMapper.toDto(itemRequest, Collections.emptyList());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemRequestDto> getOwnRequests(long userId, KeysetCursor cursor, int size) {
+        getUser(userId);
+        return withAnswers(cursor == null
+                ? itemRequestRepository.findNewestByRequestorId(userId, Limit.of(size))
+                : itemRequestRepository.findPageByRequestorId(userId, cursor.timestamp(), cursor.id(),
+                Limit.of(size)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemRequestDto> getOtherRequests(long userId, KeysetCursor cursor, int size) {
+        getUser(userId);
+        return withAnswers(cursor == null
+                ? itemRequestRepository.findNewestOfOthers(userId, Limit.of(size))
+                : itemRequestRepository.findPageOfOthers(userId, cursor.timestamp(), cursor.id(), Limit.of(size)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ItemRequestDto getRequestById(long requestId, long userId) {
+        getUser(userId);
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", ItemRequest.class)));
+        return withAnswers(List.of(itemRequest)).get(0);
+    }
+
+    /**
+     * Ответы на все запросы страницы читаются одним запросом, а не по запросу на каждый.
+     */
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<ItemAnswerDto>> answers = itemRepository
+                .findAnswersByRequestIds(itemRequests.stream().map(ItemRequest::getId).collect(toList()))
+                .stream()
+                .collect(groupingBy(ItemAnswerView::getRequestId, mapping(ItemRequestMapper::toAnswerDto, toList())));
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.toDto(itemRequest,
+                        answers.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(toList());
+    }
+
+    private User getUser(long userId) {
+        return entityCache.findUser(userId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
+    }
+}
@@ -2,17 +2,23 @@ package ru.practicum.shareit.service.impl;
 
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.batch.BatchValidator;
+import ru.practicum.shareit.batch.BatchWriter;
+import ru.practicum.shareit.cache.EntityCache;
 import ru.practicum.shareit.dto.CommentDto;
+import ru.practicum.shareit.etag.ETags;
+import ru.practicum.shareit.etag.ItemVersionView;
 import ru.practicum.shareit.mapper.ItemMapper;
 import ru.practicum.shareit.model.Comment;
 import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.ItemBookingSummary;
+import ru.practicum.shareit.model.ItemRequest;
 import ru.practicum.shareit.repository.CommentRepository;
 import ru.practicum.shareit.mapper.BookingMapper;
-import ru.practicum.shareit.model.Booking;
-import ru.practicum.shareit.repository.BookingRepository;
-import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.repository.BookingHistoryRepository;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.NotBookerException;
 import ru.practicum.shareit.exception.NotOwnerException;
@@ -20,9 +26,14 @@ import ru.practicum.shareit.mapper.CommentMapper;
 import ru.practicum.shareit.dto.ItemDtoIn;
 import ru.practicum.shareit.dto.ItemDtoOut;
 import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.ItemRequestRepository;
 import ru.practicum.shareit.model.User;
-import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.search.ItemSearchEngine;
 import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.summary.ItemBookingSummaryTracker;
+import ru.practicum.shareit.util.ParallelReads;
+import ru.practicum.shareit.validationgroup.Add;
 
 
 import java.time.LocalDateTime;
@@ -30,29 +41,75 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
-import static org.springframework.data.domain.Sort.Direction.ASC;
-import static org.springframework.data.domain.Sort.Direction.DESC;
+import static java.util.stream.Collectors.toSet;
 
 @Transactional
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
-    private final BookingRepository bookingRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final EntityCache entityCache;
+    private final BookingHistoryRepository bookingHistoryRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemBookingSummaryTracker itemBookingSummaryTracker;
+    private final ParallelReads parallelReads;
+    private final BatchValidator batchValidator;
+    private final BatchWriter batchWriter;
+
+    /**
+     * Сколько последних комментариев встраивается в представление вещи.
+     */
+    @Value("${shareit.items.comments.embedded-limit:10}")
+    private int embeddedCommentsLimit;
 
     @Override
     public ItemDtoOut addItem(ItemDtoIn itemDtoIn, long userId) {
         User owner = getUser(userId);
+        if (itemDtoIn.getRequestId() != null) {
+            checkRequestsExist(Set.of(itemDtoIn.getRequestId()));
+        }
         Item item = ItemMapper.toItem(itemDtoIn);
         item.setOwner(owner);
-        return ItemMapper.toDto(itemRepository.save(item));
+        itemRepository.save(item);
+        itemBookingSummaryTracker.create(item.getId());
+        itemSearchEngine.index(item);
+        entityCache.evictItem(item);
+        return ItemMapper.toDto(item);
+    }
+
+    @Override
+    public List<ItemDtoOut> addItems(List<ItemDtoIn> itemDtoIns, long userId) {
+        batchValidator.validate(itemDtoIns, Add.class);
+        return addValidatedItems(itemDtoIns, userId);
+    }
+
+    @Override
+    public List<ItemDtoOut> addValidatedItems(List<ItemDtoIn> itemDtoIns, long userId) {
+        User owner = getUser(userId);
+        Set<Long> requestIds = itemDtoIns.stream().map(ItemDtoIn::getRequestId).filter(Objects::nonNull)
+                .collect(toSet());
+        if (!requestIds.isEmpty()) {
+            checkRequestsExist(requestIds);
+        }
+        List<Item> items = itemDtoIns.stream()
+                .map(itemDtoIn -> {
+                    Item item = ItemMapper.toItem(itemDtoIn);
+                    item.setOwner(owner);
+                    return item;
+                })
+                .collect(toList());
+        batchWriter.insert(items, itemRepository);
+        itemBookingSummaryTracker.createAll(items.stream().map(Item::getId).collect(toList()));
+        items.forEach(itemSearchEngine::index);
+        return items.stream().map(ItemMapper::toDto).collect(toList());
     }
 
     @Override
@@ -67,6 +124,7 @@ public class ItemServiceImpl implements ItemService {
             throw new NotOwnerException(String.format("Пользователь с id %s не является владельцем %s",
                     userId, name));
         }
+        itemSearchEngine.remove(item);
         if (name != null && !name.isBlank()) {
             item.setName(name);
         }
@@ -76,6 +134,8 @@ public class ItemServiceImpl implements ItemService {
         if (available != null) {
             item.setAvailable(available);
         }
+        itemSearchEngine.index(item);
+        entityCache.evictItem(item);
         return ItemMapper.toDto(item);
     }
 
@@ -86,6 +146,20 @@ public class ItemServiceImpl implements ItemService {
                 new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
     }
 
+    /**
+     * ETag представления вещи без загрузки комментариев; сводка бронирований читается только для владельца.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public String getItemETag(long itemId, long userId) {
+        ItemVersionView version = itemRepository.findVersionById(itemId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
+        if (version.getOwnerId() != userId) {
+            return ETags.item(itemId, version);
+        }
+        return ETags.ownedItem(itemId, version, itemBookingSummaryTracker.findByItemId(itemId));
+    }
+
     @Transactional(readOnly = true)
     @Override
     public List<ItemDtoOut> getItemsByOwner(long userId) {
@@ -100,79 +174,69 @@ public class ItemServiceImpl implements ItemService {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        return itemRepository.search(text).stream().map(ItemMapper::toDto).collect(toList());
+        return itemSearchEngine.search(text).stream().map(ItemMapper::toDto).collect(toList());
     }
 
     @Override
     public CommentDto addComment(long itemId, CommentDto commentDto, long userId) {
         User user = getUser(userId);
-        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+        Item item = itemRepository.findAndIncrementVersion(itemId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class)));
-        if (!bookingRepository.existsByBookerIdAndItemIdAndEndBefore(user.getId(), item.getId(), LocalDateTime.now())) {
+        if (!bookingHistoryRepository.existsByBookerIdAndItemIdAndEndBefore(user.getId(), item.getId(),
+                LocalDateTime.now())) {
             throw new NotBookerException("Сущность не пользовался вещью");
         }
+        item.setCommentsCount(item.getCommentsCount() + 1);
         Comment comment = commentRepository.save(CommentMapper.toComment(commentDto, item, user));
         return CommentMapper.toCommentDtoOut(comment);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<CommentDto> getComments(long itemId, KeysetCursor cursor, int size) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new EntityNotFoundException(String.format("Объект класса %s не найден", Item.class));
+        }
+        List<Comment> comments = cursor == null
+                ? commentRepository.findNewestByItemId(itemId, Limit.of(size))
+                : commentRepository.findPageByItemId(itemId, cursor.timestamp(), cursor.id(), Limit.of(size));
+        return comments.stream().map(CommentMapper::toCommentDtoOut).collect(toList());
+    }
+
     private ItemDtoOut addBookingsAndComments(Item item, long userId) {
         ItemDtoOut itemDtoOut = ItemMapper.toDto(item);
 
-        LocalDateTime thisMoment = LocalDateTime.now();
-        if (itemDtoOut.getOwner().getId() == userId) {
-            itemDtoOut.setLastBooking(bookingRepository
-                    .findFirstByItemIdAndStartLessThanEqualAndStatus(itemDtoOut.getId(), thisMoment,
-                            BookingStatus.APPROVED, Sort.by(DESC, "end"))
-                    .map(BookingMapper::toBookingDtoShort)
-                    .orElse(null));
-
-            itemDtoOut.setNextBooking(bookingRepository
-                    .findFirstByItemIdAndStartAfterAndStatus(itemDtoOut.getId(), thisMoment,
-                            BookingStatus.APPROVED, Sort.by(ASC, "end"))
-                    .map(BookingMapper::toBookingDtoShort)
-                    .orElse(null));
-        }
+        Supplier<ItemBookingSummary> summary = itemDtoOut.getOwner().getId() == userId
+                ? parallelReads.fork(() -> itemBookingSummaryTracker.findByItemId(item.getId()))
+                : null;
 
-        itemDtoOut.setComments(commentRepository.findAllByItemId(itemDtoOut.getId())
+        itemDtoOut.setComments(commentRepository.findNewestByItemId(item.getId(), Limit.of(embeddedCommentsLimit))
                 .stream()
                 .map(CommentMapper::toCommentDtoOut)
                 .collect(toList()));
+        if (summary != null) {
+            setBookings(itemDtoOut, summary.get());
+        }
 
         return itemDtoOut;
     }
 
     private List<ItemDtoOut> addBookingsAndCommentsForList(List<Item> items) {
-        LocalDateTime thisMoment = LocalDateTime.now();
-
-        Map<Item, Booking> itemsWithLastBookings = bookingRepository
-                .findByItemInAndStartLessThanEqualAndStatus(items, thisMoment,
-                        BookingStatus.APPROVED, Sort.by(DESC, "end"))
-                .stream()
-                .collect(Collectors.toMap(Booking::getItem, Function.identity(), (o1, o2) -> o1));
+        List<Long> itemIds = items.stream().map(Item::getId).collect(toList());
+        Supplier<Map<Long, ItemBookingSummary>> summariesRead = parallelReads.fork(() ->
+                itemBookingSummaryTracker.findByItemIds(itemIds));
 
-        Map<Item, Booking> itemsWithNextBookings = bookingRepository
-                .findByItemInAndStartAfterAndStatus(items, thisMoment,
-                        BookingStatus.APPROVED, Sort.by(ASC, "end"))
+        Map<Long, List<Comment>> itemsWithComments = commentRepository
+                .findNewestByItemIds(itemIds, embeddedCommentsLimit)
                 .stream()
-                .collect(Collectors.toMap(Booking::getItem, Function.identity(), (o1, o2) -> o1));
-
-        Map<Item, List<Comment>> itemsWithComments = commentRepository
-                .findByItemIn(items, Sort.by(DESC, "created"))
-                .stream()
-                .collect(groupingBy(Comment::getItem, toList()));
+                .collect(groupingBy(comment -> comment.getItem().getId(), toList()));
 
+        Map<Long, ItemBookingSummary> summaries = summariesRead.get();
         List<ItemDtoOut> itemDtoOuts = new ArrayList<>();
         for (Item item : items) {
             ItemDtoOut itemDtoOut = ItemMapper.toDto(item);
-            Booking lastBooking = itemsWithLastBookings.get(item);
-            if (!itemsWithLastBookings.isEmpty() && lastBooking != null) {
-                itemDtoOut.setLastBooking(BookingMapper.toBookingDtoShort(lastBooking));
-            }
-            Booking nextBooking = itemsWithNextBookings.get(item);
-            if (!itemsWithNextBookings.isEmpty() && nextBooking != null) {
-                itemDtoOut.setNextBooking(BookingMapper.toBookingDtoShort(nextBooking));
-            }
-            List<CommentDto> commentDtos = itemsWithComments.getOrDefault(item, Collections.emptyList())
+            setBookings(itemDtoOut, summaries.get(item.getId()));
+            List<CommentDto> commentDtos = itemsWithComments.getOrDefault(item.getId(), Collections.emptyList())
                     .stream()
                     .map(CommentMapper::toCommentDtoOut)
                     .collect(toList());
@@ -183,8 +247,23 @@ public class ItemServiceImpl implements ItemService {
         return itemDtoOuts;
     }
 
+    private static void setBookings(ItemDtoOut itemDtoOut, ItemBookingSummary summary) {
+        if (summary.getLastBooking() != null) {
+            itemDtoOut.setLastBooking(BookingMapper.toBookingDtoShort(summary.getLastBooking()));
+        }
+        if (summary.getNextBooking() != null) {
+            itemDtoOut.setNextBooking(BookingMapper.toBookingDtoShort(summary.getNextBooking()));
+        }
+    }
+
+    private void checkRequestsExist(Set<Long> requestIds) {
+        if (itemRequestRepository.countByIdIn(requestIds) != requestIds.size()) {
+            throw new EntityNotFoundException(String.format("Объект класса %s не найден", ItemRequest.class));
+        }
+    }
+
     private User getUser(long userId) {
-        return userRepository.findById(userId).orElseThrow(() ->
+        return entityCache.findUser(userId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Объект класса %s не найден", User.class)));
     }
 }
@@ -1,7 +1,16 @@
 package ru.practicum.shareit.service.impl;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.batch.BatchValidator;
+import ru.practicum.shareit.batch.BatchWriter;
+import ru.practicum.shareit.cache.EntityCache;
+import ru.practicum.shareit.email.EmailRegistry;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.dto.UserDto;
 import ru.practicum.shareit.mapper.UserMapper;
 import ru.practicum.shareit.model.User;
@@ -9,14 +18,34 @@ import ru.practicum.shareit.service.UserService;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.DuplicateEmailException;
 import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.validationgroup.Add;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final EmailRegistry emailRegistry;
+    private final EntityCache entityCache;
+    private final BatchValidator batchValidator;
+    private final BatchWriter batchWriter;
+    private final TransactionTemplate separateTransaction;
+
+    public UserServiceImpl(UserRepository userRepository, EmailRegistry emailRegistry, EntityCache entityCache,
+                           BatchValidator batchValidator, BatchWriter batchWriter,
+                           PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.emailRegistry = emailRegistry;
+        this.entityCache = entityCache;
+        this.batchValidator = batchValidator;
+        this.batchWriter = batchWriter;
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.separateTransaction.setReadOnly(true);
+    }
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -25,18 +54,52 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto getUserById(long id) {
-        User user = userRepository.findById(id).orElseThrow(() ->
+        User user = entityCache.findUser(id).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Пользователь с id %s не найден", id)));
         return UserMapper.toDto(user);
     }
 
+    @Override
+    public String getUserETag(long id) {
+        User user = entityCache.findUser(id).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Пользователь с id %s не найден", id)));
+        return ETags.user(user);
+    }
+
     @Override
     public UserDto addUser(UserDto userDto) {
-        validateUniqueEmail(userDto);
-        User user = userRepository.save(UserMapper.toEntity(userDto));
+        validateUniqueEmail(userDto.getEmail());
+        User user = save(UserMapper.toEntity(userDto));
         return UserMapper.toDto(user);
     }
 
+    @Transactional
+    @Override
+    public List<UserDto> addUsers(List<UserDto> userDtos) {
+        batchValidator.validate(userDtos, Add.class);
+        Set<String> emails = new HashSet<>();
+        for (UserDto userDto : userDtos) {
+            if (!emails.add(userDto.getEmail())) {
+                throw new DuplicateEmailException(String.format("Email %s повторяется в пакете", userDto.getEmail()));
+            }
+            validateUniqueEmail(userDto.getEmail());
+        }
+        List<User> users = userDtos.stream()
+                .map(userDto -> new User(0, userDto.getName(), userDto.getEmail()))
+                .collect(Collectors.toList());
+        try {
+            batchWriter.insert(users, userRepository);
+        } catch (DataIntegrityViolationException e) {
+            // текущая транзакция уже не может выполнять запросы, адреса проверяются в отдельной
+            if (Boolean.TRUE.equals(separateTransaction.execute(status -> userRepository.existsByEmailIn(emails)))) {
+                throw new DuplicateEmailException("Пользователь с одним из email пакета уже существует");
+            }
+            throw e;
+        }
+        users.forEach(user -> emailRegistry.register(user.getEmail()));
+        return users.stream().map(UserMapper::toDto).collect(Collectors.toList());
+    }
+
 
     @Override
     public UserDto updateUser(long id, UserDto userDto) {
@@ -50,23 +113,43 @@ public class UserServiceImpl implements UserService {
         }
 
         if (email != null && !email.isBlank()) {
-            if (!user.getEmail().equals(userDto.getEmail())) {
-                validateUniqueEmail(userDto);
+            if (!user.getEmail().equals(email)) {
+                validateUniqueEmail(email);
             }
             user.setEmail(email);
         }
-        return UserMapper.toDto(user);
+        User saved = save(user);
+        entityCache.evictUser(saved);
+        return UserMapper.toDto(saved);
     }
 
     @Override
     public void deleteUserById(long id) {
         userRepository.deleteById(id);
+        entityCache.removeUser(id);
     }
 
-    private void validateUniqueEmail(UserDto userDto) {
-        if (userRepository.findAll().stream().anyMatch(user -> user.getEmail().equals(userDto.getEmail()))) {
-            throw new DuplicateEmailException(String.format("Пользователь с email %s уже существует",
-                    userDto.getEmail()));
+    private void validateUniqueEmail(String email) {
+        if (emailRegistry.isTaken(email)) {
+            throw new DuplicateEmailException(String.format("Пользователь с email %s уже существует", email));
+        }
+    }
+
+    /**
+     * Сохраняет пользователя. Нарушение ограничения считается занятым email, только если адрес действительно
+     * принадлежит другому пользователю; остальные нарушения пробрасываются как есть.
+     */
+    private User save(User user) {
+        try {
+            User saved = userRepository.saveAndFlush(user);
+            emailRegistry.register(saved.getEmail());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (userRepository.existsByEmailAndIdNot(user.getEmail(), user.getId())) {
+                throw new DuplicateEmailException(String.format("Пользователь с email %s уже существует",
+                        user.getEmail()));
+            }
+            throw e;
         }
     }
 }
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.springframework.data.domain.Sort.Direction.DESC;
+
+/**
+ * Выборки бронирований, общие для действующих бронирований и истории: в памяти архива нет,
+ * и обе читают одну таблицу. Списки идут по индексам букера и владельца в порядке start DESC, id DESC.
+ */
+final class BookingSelections {
+    private static final Sort NEWEST_FIRST = Sort.by(DESC, "start", "id");
+    private static final Comparator<Booking> NEWEST = Comparator.comparing(b -> new SortKey(b.getStart(), b.getId()));
+
+    private final InMemoryStorage storage;
+
+    BookingSelections(InMemoryStorage storage) {
+        this.storage = storage;
+    }
+
+    static Predicate<Booking> any() {
+        return booking -> true;
+    }
+
+    static Predicate<Booking> current() {
+        LocalDateTime now = LocalDateTime.now();
+        return booking -> !now.isBefore(booking.getStart()) && !now.isAfter(booking.getEnd());
+    }
+
+    static Predicate<Booking> future() {
+        LocalDateTime now = LocalDateTime.now();
+        return booking -> now.isBefore(booking.getStart());
+    }
+
+    static Predicate<Booking> past() {
+        LocalDateTime now = LocalDateTime.now();
+        return booking -> now.isAfter(booking.getEnd());
+    }
+
+    static Predicate<Booking> status(BookingStatus status) {
+        return booking -> booking.getStatus() == status;
+    }
+
+    List<Booking> byBooker(long bookerId, Predicate<Booking> filter, Pageable pageable) {
+        return page(storage.bookingsByBooker.get(bookerId), booker(bookerId).and(filter), pageable);
+    }
+
+    List<Booking> byOwner(long ownerId, Predicate<Booking> filter, Pageable pageable) {
+        return page(storage.bookingsByOwner.get(ownerId), owner(ownerId).and(filter), pageable);
+    }
+
+    List<Booking> pageByBooker(long bookerId, Predicate<Booking> filter, LocalDateTime start, long id, Limit limit) {
+        return keyset(storage.bookingsByBooker.get(bookerId), booker(bookerId).and(filter), start, id, limit);
+    }
+
+    List<Booking> pageByOwner(long ownerId, Predicate<Booking> filter, LocalDateTime start, long id, Limit limit) {
+        return keyset(storage.bookingsByOwner.get(ownerId), owner(ownerId).and(filter), start, id, limit);
+    }
+
+    Optional<Booking> findById(long id) {
+        return Optional.ofNullable(storage.find(storage.bookings, id));
+    }
+
+    /**
+     * Первое по {@code order} бронирование вещи среди начавшихся не позже {@code time}
+     * ({@code started == true}) или начинающихся позже него.
+     */
+    Optional<Booking> findFirstByItem(long itemId, LocalDateTime time, boolean started, Predicate<Booking> filter,
+                                      Comparator<Booking> order) {
+        NavigableSet<SortKey> keys = storage.bookingsByItem.get(itemId);
+        SortKey bound = new SortKey(time, Long.MAX_VALUE);
+        Predicate<Booking> byStart = started
+                ? booking -> !booking.getStart().isAfter(time)
+                : booking -> booking.getStart().isAfter(time);
+        return storage.select(storage.bookings, SortKey.ids(started ? keys.tailSet(bound, true) : keys.headSet(bound)),
+                        false, item(itemId).and(byStart).and(filter), order, 0, 1)
+                .stream().findFirst();
+    }
+
+    /**
+     * Есть ли бронирование вещи, подходящее под условие, среди начинающихся раньше {@code before}.
+     */
+    boolean existsByItemStartingBefore(long itemId, LocalDateTime before, Predicate<Booking> filter) {
+        NavigableSet<SortKey> keys = storage.bookingsByItem.get(itemId).tailSet(new SortKey(before, Long.MIN_VALUE),
+                false);
+        Predicate<Booking> byStart = booking -> booking.getStart().isBefore(before);
+        return !storage.select(storage.bookings, SortKey.ids(keys), true, item(itemId).and(byStart).and(filter),
+                NEWEST, 0, 1).isEmpty();
+    }
+
+    private List<Booking> page(NavigableSet<SortKey> keys, Predicate<Booking> filter, Pageable pageable) {
+        Sort sort = pageable.getSort();
+        boolean newestFirst = sort.isUnsorted() || sort.equals(NEWEST_FIRST);
+        return storage.select(storage.bookings, SortKey.ids(keys), newestFirst, filter,
+                newestFirst ? NEWEST : EntityComparators.of(Booking.class, sort),
+                InMemoryRepository.offset(pageable), InMemoryRepository.size(pageable));
+    }
+
+    private List<Booking> keyset(NavigableSet<SortKey> keys, Predicate<Booking> filter, LocalDateTime start, long id,
+                                 Limit limit) {
+        SortKey cursor = new SortKey(start, id);
+        Predicate<Booking> before = booking -> new SortKey(booking.getStart(), booking.getId()).compareTo(cursor) > 0;
+        return storage.select(storage.bookings, SortKey.ids(keys.tailSet(cursor, false)), true, before.and(filter),
+                NEWEST, 0, InMemoryRepository.max(limit));
+    }
+
+    private static Predicate<Booking> booker(long bookerId) {
+        return booking -> booking.getBooker().getId() == bookerId;
+    }
+
+    private Predicate<Booking> owner(long ownerId) {
+        return booking -> Objects.equals(storage.ownerOf(booking), ownerId);
+    }
+
+    private static Predicate<Booking> item(long itemId) {
+        return booking -> booking.getItem().getId() == itemId;
+    }
+}
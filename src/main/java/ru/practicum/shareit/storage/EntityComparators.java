@@ -0,0 +1,54 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.data.domain.Sort;
+
+import java.lang.reflect.Field;
+import java.util.Comparator;
+
+/**
+ * Порядок {@link Sort} для сущностей в памяти. Свойства - поля сущности; null при сортировке по возрастанию
+ * идут последними, по убыванию - первыми, как в PostgreSQL.
+ */
+final class EntityComparators {
+    private EntityComparators() {
+    }
+
+    static <T> Comparator<T> of(Class<T> type, Sort sort) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<T> next = by(field(type, order.getProperty()));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator == null ? (a, b) -> 0 : comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> by(Field field) {
+        Comparator<Comparable> values = Comparator.nullsLast(Comparator.naturalOrder());
+        return (a, b) -> values.compare((Comparable) get(field, a), (Comparable) get(field, b));
+    }
+
+    private static Field field(Class<?> type, String property) {
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(property);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // свойство может быть объявлено в родительском классе
+            }
+        }
+        throw new IllegalArgumentException(String.format("У %s нет свойства %s", type.getSimpleName(), property));
+    }
+
+    private static Object get(Field field, Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.storage;
+
+import jakarta.persistence.Embedded;
+import jakarta.persistence.ManyToOne;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Условие запроса по образцу ({@link Example}) для сущностей в памяти, как в Spring Data JPA: учитываются
+ * заданные поля образца (примитивы - всегда), кроме игнорируемых путей; встроенные объекты и связи
+ * {@code @ManyToOne} сравниваются по своим полям с путями вида {@code owner.name}.
+ */
+final class EntityExamples {
+    private EntityExamples() {
+    }
+
+    /**
+     * @param resolve текущая сущность по заглушке связи, которая хранится в строке
+     */
+    static <T> Predicate<T> of(Example<? extends T> example, UnaryOperator<Object> resolve) {
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(example.getMatcher());
+        List<Predicate<Object>> conditions = new ArrayList<>();
+        collect(example.getProbe(), "", Function.identity(), accessor, resolve, conditions);
+        Class<?> type = example.getProbeType();
+        Predicate<Object> matches;
+        if (conditions.isEmpty()) {
+            matches = row -> true;
+        } else if (example.getMatcher().isAllMatching()) {
+            matches = row -> conditions.stream().allMatch(condition -> condition.test(row));
+        } else {
+            matches = row -> conditions.stream().anyMatch(condition -> condition.test(row));
+        }
+        return row -> type.isInstance(row) && matches.test(row);
+    }
+
+    private static void collect(Object probe, String prefix, Function<Object, Object> owner,
+                                ExampleMatcherAccessor accessor, UnaryOperator<Object> resolve,
+                                List<Predicate<Object>> conditions) {
+        for (Field field : EntityMetadata.fields(probe.getClass())) {
+            String path = prefix + field.getName();
+            if (accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Object value = accessor.getValueTransformerForPath(path).apply(Optional.ofNullable(get(field, probe)))
+                    .orElse(null);
+            Function<Object, Object> actual = row -> {
+                Object target = owner.apply(row);
+                return target == null ? null : get(field, target);
+            };
+            if (value == null) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    conditions.add(row -> actual.apply(row) == null);
+                }
+            } else if (field.isAnnotationPresent(Embedded.class)) {
+                collect(value, path + ".", actual, accessor, resolve, conditions);
+            } else if (field.isAnnotationPresent(ManyToOne.class)) {
+                collect(value, path + ".", actual.andThen(related -> related == null ? null : resolve.apply(related)),
+                        accessor, resolve, conditions);
+            } else if (value instanceof String expected) {
+                Predicate<String> matcher = matcher(expected, accessor.getStringMatcherForPath(path),
+                        accessor.isIgnoreCaseForPath(path));
+                conditions.add(row -> actual.apply(row) instanceof String string && matcher.test(string));
+            } else {
+                conditions.add(row -> Objects.equals(actual.apply(row), value));
+            }
+        }
+    }
+
+    private static Predicate<String> matcher(String expected, ExampleMatcher.StringMatcher stringMatcher,
+                                             boolean ignoreCase) {
+        if (stringMatcher == ExampleMatcher.StringMatcher.REGEX) {
+            Pattern pattern = Pattern.compile(expected, ignoreCase ? Pattern.CASE_INSENSITIVE : 0);
+            return actual -> pattern.matcher(actual).matches();
+        }
+        String value = ignoreCase ? expected.toLowerCase(Locale.ROOT) : expected;
+        Predicate<String> matches = switch (stringMatcher) {
+            case STARTING -> actual -> actual.startsWith(value);
+            case ENDING -> actual -> actual.endsWith(value);
+            case CONTAINING -> actual -> actual.contains(value);
+            default -> value::equals;
+        };
+        return ignoreCase ? actual -> matches.test(actual.toLowerCase(Locale.ROOT)) : matches;
+    }
+
+    private static Object get(Field field, Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package ru.practicum.shareit.storage;
+
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+import org.springframework.data.domain.Persistable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Поля сущности, с которыми работает хранилище в памяти: простые значения копируются как есть,
+ * {@code @Embedded} - новым экземпляром, связи {@code @ManyToOne} - по id через переданную функцию.
+ * Поля {@code @Transient} не хранятся, как и в базе.
+ */
+final class EntityMetadata<T> {
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return persistentFields(type);
+        }
+    };
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> type) {
+            return constructor(type);
+        }
+    };
+    private static final ClassValue<Field> ID_FIELDS = new ClassValue<>() {
+        @Override
+        protected Field computeValue(Class<?> type) {
+            return FIELDS.get(type).stream()
+                    .filter(field -> field.isAnnotationPresent(Id.class))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("У " + type + " нет поля @Id"));
+        }
+    };
+
+    private final Class<T> type;
+    private final Field id;
+    private final Field version;
+    private final Field[] values;
+    private final Field[] embedded;
+    private final Field[] relations;
+
+    EntityMetadata(Class<T> type) {
+        this.type = type;
+        this.id = ID_FIELDS.get(type);
+        List<Field> fields = FIELDS.get(type);
+        this.version = fields.stream().filter(field -> field.isAnnotationPresent(Version.class)).findFirst()
+                .orElse(null);
+        this.embedded = fields.stream().filter(field -> field.isAnnotationPresent(Embedded.class))
+                .toArray(Field[]::new);
+        this.relations = fields.stream().filter(field -> field.isAnnotationPresent(ManyToOne.class))
+                .toArray(Field[]::new);
+        this.values = fields.stream()
+                .filter(field -> !field.isAnnotationPresent(Embedded.class))
+                .filter(field -> !field.isAnnotationPresent(ManyToOne.class))
+                .toArray(Field[]::new);
+    }
+
+    Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Хранимые поля класса сущности или встроенного объекта.
+     */
+    static List<Field> fields(Class<?> type) {
+        return FIELDS.get(type);
+    }
+
+    /**
+     * Id сущности любого типа; 0 у ещё не сохранённой.
+     */
+    static long idOf(Object entity) {
+        Object value = get(ID_FIELDS.get(entity.getClass()), entity);
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    long id(T entity) {
+        return idOf(entity);
+    }
+
+    void assignId(T entity, long value) {
+        set(id, entity, id.getType() == long.class ? (Object) value : Long.valueOf(value));
+    }
+
+    /**
+     * Новая сущность сохраняется вставкой. Сущности с присвоенным ключом сами сообщают об этом через
+     * {@link Persistable}, остальные новые, пока у них нет id.
+     */
+    boolean isNew(T entity) {
+        return entity instanceof Persistable<?> persistable ? persistable.isNew() : id(entity) == 0;
+    }
+
+    boolean hasGeneratedId() {
+        return !Persistable.class.isAssignableFrom(type);
+    }
+
+    boolean isVersioned() {
+        return version != null;
+    }
+
+    long version(T entity) {
+        return version == null ? 0 : (long) get(version, entity);
+    }
+
+    void setVersion(T entity, long value) {
+        if (version != null) {
+            set(version, entity, value);
+        }
+    }
+
+    /**
+     * Копия сущности; связи заменяются результатом {@code relation}, который получает связанную сущность.
+     */
+    T copy(T source, Function<Object, Object> relation) {
+        T target = newInstance(type);
+        copyValues(source, target);
+        copyRelations(source, target, relation);
+        return target;
+    }
+
+    /**
+     * Копия без связей: их заполняет {@link #copyRelations}, когда копия уже зарегистрирована,
+     * чтобы связанные сущности могли ссылаться на неё.
+     */
+    T copyValues(T source) {
+        T target = newInstance(type);
+        copyValues(source, target);
+        return target;
+    }
+
+    void copyRelations(T source, T target, Function<Object, Object> relation) {
+        for (Field field : relations) {
+            Object value = get(field, source);
+            set(field, target, value == null ? null : relation.apply(value));
+        }
+    }
+
+    /**
+     * Переносит состояние отсоединённой сущности в управляемую, как merge; версия не переносится.
+     */
+    void merge(T source, T target, Function<Object, Object> relation) {
+        long targetVersion = version(target);
+        copyValues(source, target);
+        setVersion(target, targetVersion);
+        copyRelations(source, target, relation);
+    }
+
+    /**
+     * Совпадает ли состояние, которое попало бы в базу: значения, встроенные объекты и id связей.
+     */
+    boolean sameState(T a, T b) {
+        for (Field field : values) {
+            if (!Objects.equals(get(field, a), get(field, b))) {
+                return false;
+            }
+        }
+        for (Field field : embedded) {
+            if (!Objects.equals(get(field, a), get(field, b))) {
+                return false;
+            }
+        }
+        for (Field field : relations) {
+            Object left = get(field, a);
+            Object right = get(field, b);
+            if (left == null || right == null ? left != right : idOf(left) != idOf(right)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Заглушка связанной сущности, в которой заполнен только id. Так строки хранилища ссылаются друг на друга.
+     */
+    static Object stub(Object entity) {
+        Object stub = newInstance(entity.getClass());
+        Field id = ID_FIELDS.get(entity.getClass());
+        set(id, stub, get(id, entity));
+        return stub;
+    }
+
+    private void copyValues(T source, T target) {
+        for (Field field : values) {
+            set(field, target, get(field, source));
+        }
+        for (Field field : embedded) {
+            Object value = get(field, source);
+            set(field, target, value == null ? null : copyEmbeddable(value));
+        }
+    }
+
+    private static Object copyEmbeddable(Object value) {
+        Object copy = newInstance(value.getClass());
+        for (Field field : FIELDS.get(value.getClass())) {
+            set(field, copy, get(field, value));
+        }
+        return copy;
+    }
+
+    private static List<Field> persistentFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            Arrays.stream(current.getDeclaredFields())
+                    .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                    .filter(field -> !Modifier.isTransient(field.getModifiers()))
+                    .filter(field -> !field.isAnnotationPresent(Transient.class))
+                    .forEach(field -> {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    });
+        }
+        return fields;
+    }
+
+    private static Constructor<?> constructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("У " + type + " нет конструктора без аргументов", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T newInstance(Class<T> type) {
+        try {
+            return (T) CONSTRUCTORS.get(type).newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object get(Field field, Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void set(Field field, Object target, Object value) {
+        try {
+            field.set(target, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
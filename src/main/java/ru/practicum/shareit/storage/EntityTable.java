@@ -0,0 +1,64 @@
+package ru.practicum.shareit.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Таблица хранилища в памяти: строки по id в порядке возрастания id и вторичные индексы.
+ * Строка - неизменяемая копия сущности, связи в ней - заглушки с одним id. Изменение заменяет строку
+ * целиком, поэтому читатели без блокировок видят либо старую, либо новую версию строки.
+ */
+final class EntityTable<T> {
+    private final EntityMetadata<T> metadata;
+    private final NavigableMap<Long, T> rows = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<TableIndex<T>> indexes = new ArrayList<>();
+
+    EntityTable(Class<T> type) {
+        this.metadata = new EntityMetadata<>(type);
+    }
+
+    EntityMetadata<T> metadata() {
+        return metadata;
+    }
+
+    <I extends TableIndex<T>> I index(I index) {
+        indexes.add(index);
+        return index;
+    }
+
+    T row(long id) {
+        return rows.get(id);
+    }
+
+    NavigableMap<Long, T> rows() {
+        return rows;
+    }
+
+    long nextId() {
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * Вызывается только при фиксации изменений, под общей блокировкой записи.
+     */
+    void put(T row) {
+        long id = metadata.id(row);
+        T previous = rows.put(id, row);
+        if (previous != null) {
+            indexes.forEach(index -> index.remove(previous));
+        }
+        indexes.forEach(index -> index.add(row));
+        sequence.accumulateAndGet(id, Math::max);
+    }
+
+    void delete(long id) {
+        T previous = rows.remove(id);
+        if (previous != null) {
+            indexes.forEach(index -> index.remove(previous));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.storage;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Id строк по значению внешнего ключа, например вещи владельца, в порядке возрастания id.
+ * Строки, у которых ключ не задан, в индекс не попадают.
+ */
+final class GroupIndex<T> implements TableIndex<T> {
+    private final Map<Long, NavigableSet<Long>> groups = new ConcurrentHashMap<>();
+    private final Function<T, Long> group;
+
+    GroupIndex(Function<T, Long> group) {
+        this.group = group;
+    }
+
+    NavigableSet<Long> get(long key) {
+        return groups.getOrDefault(key, Collections.emptyNavigableSet());
+    }
+
+    @Override
+    public void add(T row) {
+        Long key = group.apply(row);
+        if (key != null) {
+            groups.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(EntityMetadata.idOf(row));
+        }
+    }
+
+    @Override
+    public void remove(T row) {
+        Long key = group.apply(row);
+        if (key != null) {
+            groups.computeIfPresent(key, (k, ids) -> {
+                ids.remove(EntityMetadata.idOf(row));
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
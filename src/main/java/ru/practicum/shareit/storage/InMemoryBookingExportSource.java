@@ -0,0 +1,43 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.export.BookingExportRow;
+import ru.practicum.shareit.export.BookingExportSource;
+import ru.practicum.shareit.export.BookingExporter;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.User;
+
+import java.util.NavigableSet;
+import java.util.function.Consumer;
+
+/**
+ * Выгрузка идёт по индексу букера или владельца, строки таблиц читаются без копирования в сущности.
+ */
+@Component
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryBookingExportSource implements BookingExportSource {
+    private final InMemoryStorage storage;
+
+    public InMemoryBookingExportSource(InMemoryStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public void forEach(BookingExporter.Party party, long userId, Consumer<BookingExportRow> action) {
+        NavigableSet<SortKey> keys = party == BookingExporter.Party.OWNER
+                ? storage.bookingsByOwner.get(userId)
+                : storage.bookingsByBooker.get(userId);
+        for (SortKey key : keys) {
+            Booking booking = storage.bookings.row(key.id());
+            if (booking == null) {
+                continue;
+            }
+            Item item = storage.items.row(booking.getItem().getId());
+            User booker = storage.users.row(booking.getBooker().getId());
+            action.accept(new BookingExportRow(booking.getId(), booking.getStart(), booking.getEnd(),
+                    booking.getStatus().name(), item.getId(), item.getName(), booker.getId(), booker.getName()));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.HistoricalBooking;
+import ru.practicum.shareit.repository.BookingHistoryRepository;
+import ru.practicum.shareit.summary.SummaryBookingView;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static ru.practicum.shareit.storage.BookingSelections.any;
+import static ru.practicum.shareit.storage.BookingSelections.past;
+import static ru.practicum.shareit.storage.BookingSelections.status;
+
+/**
+ * История бронирований в памяти совпадает с действующими бронированиями: архивации нет.
+ */
+@Repository
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryBookingHistoryRepository implements BookingHistoryRepository {
+    private static final Comparator<Booking> LATEST_END = Comparator.comparing(Booking::getEnd)
+            .thenComparingLong(Booking::getId).reversed();
+
+    private final InMemoryStorage storage;
+    private final BookingSelections selections;
+
+    public InMemoryBookingHistoryRepository(InMemoryStorage storage) {
+        this.storage = storage;
+        this.selections = new BookingSelections(storage);
+    }
+
+    @Override
+    public Optional<HistoricalBooking> findById(long id) {
+        return selections.findById(id).map(HistoricalBooking::of);
+    }
+
+    @Override
+    public List<HistoricalBooking> findAllByBookerId(long bookerId, Pageable pageable) {
+        return history(selections.byBooker(bookerId, any(), pageable));
+    }
+
+    @Override
+    public List<HistoricalBooking> findAllByBookerIdAndStatePast(long bookerId, Pageable pageable) {
+        return history(selections.byBooker(bookerId, past(), pageable));
+    }
+
+    @Override
+    public List<HistoricalBooking> findAllByBookerIdAndStatus(long bookerId, BookingStatus bookingStatus,
+                                                              Pageable pageable) {
+        return history(selections.byBooker(bookerId, status(bookingStatus), pageable));
+    }
+
+    @Override
+    public List<HistoricalBooking> findAllByOwnerId(long ownerId, Pageable pageable) {
+        return history(selections.byOwner(ownerId, any(), pageable));
+    }
+
+    @Override
+    public List<HistoricalBooking> findAllByOwnerIdAndStatePast(long ownerId, Pageable pageable) {
+        return history(selections.byOwner(ownerId, past(), pageable));
+    }
+
+    @Override
+    public List<HistoricalBooking> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus,
+                                                             Pageable pageable) {
+        return history(selections.byOwner(ownerId, status(bookingStatus), pageable));
+    }
+
+    @Override
+    public List<HistoricalBooking> findPageByBookerId(long bookerId, LocalDateTime start, long id, Limit limit) {
+        return history(selections.pageByBooker(bookerId, any(), start, id, limit));
+    }
+
+    @Override
+    public List<HistoricalBooking> findPageByBookerIdAndStatePast(long bookerId, LocalDateTime start, long id,
+                                                                  Limit limit) {
+        return history(selections.pageByBooker(bookerId, past(), start, id, limit));
+    }
+
+    @Override
+    public List<HistoricalBooking> findPageByBookerIdAndStatus(long bookerId, BookingStatus status,
+                                                               LocalDateTime start, long id, Limit limit) {
+        return history(selections.pageByBooker(bookerId, status(status), start, id, limit));
+    }
+
+    @Override
+    public List<HistoricalBooking> findPageByOwnerId(long ownerId, LocalDateTime start, long id, Limit limit) {
+        return history(selections.pageByOwner(ownerId, any(), start, id, limit));
+    }
+
+    @Override
+    public List<HistoricalBooking> findPageByOwnerIdAndStatePast(long ownerId, LocalDateTime start, long id,
+                                                                 Limit limit) {
+        return history(selections.pageByOwner(ownerId, past(), start, id, limit));
+    }
+
+    @Override
+    public List<HistoricalBooking> findPageByOwnerIdAndStatus(long ownerId, BookingStatus status,
+                                                              LocalDateTime start, long id, Limit limit) {
+        return history(selections.pageByOwner(ownerId, status(status), start, id, limit));
+    }
+
+    @Override
+    public List<SummaryBookingView> findLastByItemIds(Collection<Long> itemIds, LocalDateTime now,
+                                                      BookingStatus status) {
+        List<SummaryBookingView> views = new ArrayList<>();
+        for (long itemId : itemIds) {
+            selections.findFirstByItem(itemId, now, true, status(status), LATEST_END).ifPresent(last ->
+                    views.add(new LastView(itemId, last.getId(), last.getStart(), last.getEnd(),
+                            last.getBooker().getId())));
+        }
+        return views;
+    }
+
+    @Override
+    public boolean existsByBookerIdAndItemIdAndEndBefore(long bookerId, long itemId, LocalDateTime localDateTime) {
+        return !storage.select(storage.bookings, SortKey.ids(storage.bookingsByItem.get(itemId)), true,
+                booking -> booking.getItem().getId() == itemId && booking.getBooker().getId() == bookerId
+                        && booking.getEnd().isBefore(localDateTime),
+                (a, b) -> 0, 0, 1).isEmpty();
+    }
+
+    private record LastView(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end, Long bookerId)
+            implements SummaryBookingView {
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public Long getBookingId() {
+            return bookingId;
+        }
+
+        @Override
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        @Override
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        @Override
+        public Long getBookerId() {
+            return bookerId;
+        }
+    }
+
+    private static List<HistoricalBooking> history(List<Booking> bookings) {
+        return bookings.stream().map(HistoricalBooking::of).toList();
+    }
+}
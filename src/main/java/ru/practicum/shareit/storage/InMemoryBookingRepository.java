@@ -0,0 +1,189 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.availability.BookingIntervalView;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.summary.NextBookingView;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static ru.practicum.shareit.storage.BookingSelections.current;
+import static ru.practicum.shareit.storage.BookingSelections.future;
+import static ru.practicum.shareit.storage.BookingSelections.status;
+
+@Repository
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryBookingRepository extends InMemoryRepository<Booking, Long> implements BookingRepository {
+    private static final Comparator<Booking> BY_END = Comparator.comparing(Booking::getEnd)
+            .thenComparingLong(Booking::getId);
+    private static final Comparator<Booking> BY_START = Comparator.comparing(Booking::getStart);
+
+    private final BookingSelections selections;
+
+    public InMemoryBookingRepository(InMemoryStorage storage) {
+        super(storage, storage.bookings);
+        this.selections = new BookingSelections(storage);
+    }
+
+    @Override
+    public List<Booking> findAllByBookerIdAndStateCurrent(long bookerId, Pageable pageable) {
+        return selections.byBooker(bookerId, current(), pageable);
+    }
+
+    @Override
+    public List<Booking> findAllByBookerIdAndStateFuture(long bookerId, Pageable pageable) {
+        return selections.byBooker(bookerId, future(), pageable);
+    }
+
+    @Override
+    public List<Booking> findAllByBookerIdAndStatus(long bookerId, BookingStatus bookingStatus, Pageable pageable) {
+        return selections.byBooker(bookerId, status(bookingStatus), pageable);
+    }
+
+    @Override
+    public List<Booking> findAllByOwnerIdAndStateCurrent(long ownerId, Pageable pageable) {
+        return selections.byOwner(ownerId, current(), pageable);
+    }
+
+    @Override
+    public List<Booking> findAllByOwnerIdAndStateFuture(long ownerId, Pageable pageable) {
+        return selections.byOwner(ownerId, future(), pageable);
+    }
+
+    @Override
+    public List<Booking> findAllByOwnerIdAndStatus(long ownerId, BookingStatus bookingStatus, Pageable pageable) {
+        return selections.byOwner(ownerId, status(bookingStatus), pageable);
+    }
+
+    @Override
+    public List<Booking> findPageByBookerIdAndStateCurrent(long bookerId, LocalDateTime start, long id, Limit limit) {
+        return selections.pageByBooker(bookerId, current(), start, id, limit);
+    }
+
+    @Override
+    public List<Booking> findPageByBookerIdAndStateFuture(long bookerId, LocalDateTime start, long id, Limit limit) {
+        return selections.pageByBooker(bookerId, future(), start, id, limit);
+    }
+
+    @Override
+    public List<Booking> findPageByBookerIdAndStatus(long bookerId, BookingStatus status, LocalDateTime start, long id,
+                                                     Limit limit) {
+        return selections.pageByBooker(bookerId, status(status), start, id, limit);
+    }
+
+    @Override
+    public List<Booking> findPageByOwnerIdAndStateCurrent(long ownerId, LocalDateTime start, long id, Limit limit) {
+        return selections.pageByOwner(ownerId, current(), start, id, limit);
+    }
+
+    @Override
+    public List<Booking> findPageByOwnerIdAndStateFuture(long ownerId, LocalDateTime start, long id, Limit limit) {
+        return selections.pageByOwner(ownerId, future(), start, id, limit);
+    }
+
+    @Override
+    public List<Booking> findPageByOwnerIdAndStatus(long ownerId, BookingStatus status, LocalDateTime start, long id,
+                                                    Limit limit) {
+        return selections.pageByOwner(ownerId, status(status), start, id, limit);
+    }
+
+    @Override
+    public List<NextBookingView> findNextByItemIds(Collection<Long> itemIds, LocalDateTime now,
+                                                   BookingStatus status) {
+        List<NextBookingView> views = new ArrayList<>();
+        for (long itemId : itemIds) {
+            selections.findFirstByItem(itemId, now, false, status(status), BY_END).ifPresent(next -> {
+                Booking earliest = selections.findFirstByItem(itemId, now, false, status(status), BY_START)
+                        .orElse(next);
+                views.add(new NextView(itemId, next.getId(), next.getStart(), next.getEnd(),
+                        next.getBooker().getId(), earliest.getStart()));
+            });
+        }
+        return views;
+    }
+
+    /**
+     * Вызывается при старте для индекса занятости, поэтому просматривает всю таблицу.
+     */
+    @Override
+    public List<BookingIntervalView> findIntervals(Collection<BookingStatus> statuses, LocalDateTime endAfter) {
+        return scan(booking -> statuses.contains(booking.getStatus()) && booking.getEnd().isAfter(endAfter),
+                null, 0, Integer.MAX_VALUE).stream()
+                .map(booking -> (BookingIntervalView) new IntervalView(booking.getId(), booking.getItem().getId(),
+                        booking.getStart(), booking.getEnd()))
+                .toList();
+    }
+
+    @Override
+    public boolean existsOverlapping(long itemId, BookingStatus status, long excludedId, LocalDateTime start,
+                                     LocalDateTime end) {
+        return selections.existsByItemStartingBefore(itemId, end, status(status)
+                .and(booking -> booking.getId() != excludedId && booking.getEnd().isAfter(start)));
+    }
+
+    private record NextView(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end, Long bookerId,
+                            LocalDateTime refreshAt) implements NextBookingView {
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public Long getBookingId() {
+            return bookingId;
+        }
+
+        @Override
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        @Override
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        @Override
+        public Long getBookerId() {
+            return bookerId;
+        }
+
+        @Override
+        public LocalDateTime getRefreshAt() {
+            return refreshAt;
+        }
+    }
+
+    private record IntervalView(Long id, Long itemId, LocalDateTime start, LocalDateTime end)
+            implements BookingIntervalView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        @Override
+        public LocalDateTime getEnd() {
+            return end;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.model.Comment;
+import ru.practicum.shareit.repository.CommentRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.function.Predicate;
+
+@Repository
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryCommentRepository extends InMemoryRepository<Comment, Integer> implements CommentRepository {
+    private static final Comparator<Comment> NEWEST = Comparator.comparing(c -> new SortKey(c.getCreated(), c.getId()));
+
+    public InMemoryCommentRepository(InMemoryStorage storage) {
+        super(storage, storage.comments);
+    }
+
+    @Override
+    public List<Comment> findNewestByItemId(long itemId, Limit limit) {
+        return newest(itemId, storage.commentsByItem.get(itemId), comment -> true, max(limit));
+    }
+
+    @Override
+    public List<Comment> findPageByItemId(long itemId, LocalDateTime created, long id, Limit limit) {
+        SortKey cursor = new SortKey(created, id);
+        return newest(itemId, storage.commentsByItem.get(itemId).tailSet(cursor, false),
+                comment -> new SortKey(comment.getCreated(), comment.getId()).compareTo(cursor) > 0, max(limit));
+    }
+
+    /**
+     * По индексу каждой вещи берётся не больше {@code limit} комментариев, затем они упорядочиваются вместе.
+     */
+    @Override
+    public List<Comment> findNewestByItemIds(Collection<Long> itemIds, int limit) {
+        List<Comment> comments = new ArrayList<>();
+        for (long itemId : new LinkedHashSet<>(itemIds)) {
+            comments.addAll(newest(itemId, storage.commentsByItem.get(itemId), comment -> true, limit));
+        }
+        comments.sort(NEWEST);
+        return comments;
+    }
+
+    private List<Comment> newest(long itemId, NavigableSet<SortKey> keys, Predicate<Comment> filter, int limit) {
+        return storage.select(table, SortKey.ids(keys), true,
+                filter.and(comment -> comment.getItem().getId() == itemId), NEWEST, 0, limit);
+    }
+}
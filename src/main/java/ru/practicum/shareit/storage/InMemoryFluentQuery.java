@@ -0,0 +1,108 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * {@link FluentQuery.FetchableFluentQuery} над строками, выбранными запросом по образцу. Результат приводится
+ * к типу сущности или к интерфейсной проекции; список свойств {@link #project} - подсказка, как и в JPA:
+ * сущности в памяти загружаются целиком.
+ */
+final class InMemoryFluentQuery<S, R> implements FluentQuery.FetchableFluentQuery<R> {
+    private static final SpelAwareProxyProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private final BiFunction<Sort, Integer, List<S>> rows;
+    private final Class<R> resultType;
+    private final Sort sort;
+    private final int limit;
+
+    /**
+     * @param rows строки, подходящие под образец, в порядке {@link Sort}, не больше указанного числа
+     */
+    InMemoryFluentQuery(BiFunction<Sort, Integer, List<S>> rows, Class<R> resultType, Sort sort, int limit) {
+        this.rows = rows;
+        this.resultType = resultType;
+        this.sort = sort;
+        this.limit = limit;
+    }
+
+    @Override
+    public FetchableFluentQuery<R> sortBy(Sort sort) {
+        return new InMemoryFluentQuery<>(rows, resultType, this.sort.and(sort), limit);
+    }
+
+    @Override
+    public FetchableFluentQuery<R> limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Ограничение не может быть отрицательным");
+        }
+        return new InMemoryFluentQuery<>(rows, resultType, sort, limit);
+    }
+
+    @Override
+    public <P> FetchableFluentQuery<P> as(Class<P> resultType) {
+        return new InMemoryFluentQuery<>(rows, resultType, sort, limit);
+    }
+
+    @Override
+    public FetchableFluentQuery<R> project(Collection<String> properties) {
+        return this;
+    }
+
+    @Override
+    public R oneValue() {
+        List<S> found = rows.apply(sort, Math.min(limit, 2));
+        if (found.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1);
+        }
+        return found.isEmpty() ? null : map(found.get(0));
+    }
+
+    @Override
+    public R firstValue() {
+        List<S> found = rows.apply(sort, Math.min(limit, 1));
+        return found.isEmpty() ? null : map(found.get(0));
+    }
+
+    @Override
+    public List<R> all() {
+        return rows.apply(sort, limit).stream().map(this::map).toList();
+    }
+
+    @Override
+    public Page<R> page(Pageable pageable) {
+        List<S> found = rows.apply(pageable.getSort().isSorted() ? pageable.getSort() : sort, limit);
+        int from = (int) Math.min(InMemoryRepository.offset(pageable), found.size());
+        int to = (int) Math.min(found.size(), from + (long) InMemoryRepository.size(pageable));
+        return new PageImpl<>(found.subList(from, to).stream().map(this::map).toList(), pageable, found.size());
+    }
+
+    @Override
+    public Stream<R> stream() {
+        return all().stream();
+    }
+
+    @Override
+    public long count() {
+        return rows.apply(Sort.unsorted(), limit).size();
+    }
+
+    @Override
+    public boolean exists() {
+        return !rows.apply(Sort.unsorted(), Math.min(limit, 1)).isEmpty();
+    }
+
+    private R map(S row) {
+        return resultType.isInstance(row) ? resultType.cast(row) : PROJECTIONS.createProjection(resultType, row);
+    }
+}
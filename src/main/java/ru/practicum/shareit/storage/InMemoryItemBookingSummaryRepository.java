@@ -0,0 +1,68 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.ItemBookingSummary;
+import ru.practicum.shareit.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryItemBookingSummaryRepository extends InMemoryRepository<ItemBookingSummary, Long>
+        implements ItemBookingSummaryRepository {
+    private static final Comparator<ItemBookingSummary> BY_REFRESH_AT =
+            Comparator.comparing(ItemBookingSummary::getRefreshAt).thenComparing(ItemBookingSummary::getItemId);
+
+    public InMemoryItemBookingSummaryRepository(InMemoryStorage storage) {
+        super(storage, storage.summaries);
+    }
+
+    @Override
+    public Optional<ItemBookingSummary> findForUpdate(long itemId) {
+        storage.lock(table, itemId, false);
+        return findById(itemId);
+    }
+
+    /**
+     * Сводки идут по индексу refresh_at от ранних к поздним; блокируются после выборки.
+     */
+    @Override
+    public List<ItemBookingSummary> findStaleForUpdate(LocalDateTime now, Limit limit) {
+        List<ItemBookingSummary> stale = storage.select(table,
+                SortKey.ids(storage.summariesByRefreshAt.get(InMemoryStorage.ALL).descendingSet()
+                        .headSet(new SortKey(now, Long.MAX_VALUE), true)),
+                true, summary -> summary.isStale(now), BY_REFRESH_AT, 0, max(limit));
+        stale.forEach(summary -> storage.lock(table, summary.getItemId(), false));
+        return stale;
+    }
+
+    @Override
+    public int insertMissing() {
+        LocalDateTime now = LocalDateTime.now();
+        int added = 0;
+        for (long itemId : storage.items.rows().keySet()) {
+            if (storage.current(table, itemId) != null) {
+                continue;
+            }
+            ItemBookingSummary summary = new ItemBookingSummary(itemId);
+            if (hasApprovedBooking(itemId)) {
+                summary.setRefreshAt(now);
+            }
+            save(summary);
+            added++;
+        }
+        return added;
+    }
+
+    private boolean hasApprovedBooking(long itemId) {
+        return storage.bookingsByItem.get(itemId).stream()
+                .map(key -> storage.current(storage.bookings, key.id()))
+                .anyMatch(booking -> booking != null && booking.getStatus() == BookingStatus.APPROVED);
+    }
+}
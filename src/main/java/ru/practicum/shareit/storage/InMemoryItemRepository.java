@@ -0,0 +1,146 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.dto.ItemAnswerView;
+import ru.practicum.shareit.etag.ItemVersionView;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.search.ItemSearchView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TreeSet;
+
+@Repository
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryItemRepository extends InMemoryRepository<Item, Long> implements ItemRepository {
+
+    public InMemoryItemRepository(InMemoryStorage storage) {
+        super(storage, storage.items);
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(long userId) {
+        return storage.select(table, storage.itemsByOwner.get(userId), true,
+                item -> item.getOwner().getId() == userId, byId(), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Подстрока без учёта регистра, как UPPER(...) LIKE UPPER('%text%'); индекса нет, как и у LIKE в базе.
+     */
+    @Override
+    public List<Item> search(String text) {
+        String pattern = text.toUpperCase(Locale.ROOT);
+        return scan(item -> Boolean.TRUE.equals(item.getAvailable())
+                && (contains(item.getName(), pattern) || contains(item.getDescription(), pattern)),
+                null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Item> findAllByIdInOrderById(Collection<Long> ids) {
+        return storage.select(table, new TreeSet<>(ids), true, item -> ids.contains(item.getId()), byId(),
+                0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<ItemSearchView> findAvailableForSearch(long afterId, Limit limit) {
+        return storage.select(table, table.rows().tailMap(afterId, false).keySet(), true,
+                        item -> Boolean.TRUE.equals(item.getAvailable()), byId(), 0, max(limit)).stream()
+                .map(item -> (ItemSearchView) new SearchView(item.getId(), item.getName(), item.getDescription()))
+                .toList();
+    }
+
+    @Override
+    public Optional<ItemVersionView> findVersionById(long itemId) {
+        return Optional.ofNullable(storage.find(table, itemId))
+                .map(item -> new VersionView(item.getVersion(), item.getOwner().getId(),
+                        item.getOwner().getVersion()));
+    }
+
+    @Override
+    public List<ItemAnswerView> findAnswersByRequestIds(Collection<Long> requestIds) {
+        TreeSet<Long> ids = new TreeSet<>();
+        requestIds.forEach(requestId -> ids.addAll(storage.itemsByRequest.get(requestId)));
+        return storage.select(table, ids, true, item -> requestIds.contains(item.getRequestId()), byId(),
+                        0, Integer.MAX_VALUE).stream()
+                .map(item -> (ItemAnswerView) new AnswerView(item.getId(), item.getName(), item.getOwner().getId(),
+                        item.getRequestId()))
+                .toList();
+    }
+
+    @Override
+    public Optional<Item> findForUpdate(long itemId) {
+        storage.lock(table, itemId, false);
+        return findById(itemId);
+    }
+
+    @Override
+    public Optional<Item> findAndIncrementVersion(long itemId) {
+        storage.lock(table, itemId, true);
+        return findById(itemId);
+    }
+
+    private static boolean contains(String value, String pattern) {
+        return value != null && value.toUpperCase(Locale.ROOT).contains(pattern);
+    }
+
+    private record SearchView(Long id, String name, String description) implements ItemSearchView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private record VersionView(long version, long ownerId, long ownerVersion) implements ItemVersionView {
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public long getOwnerId() {
+            return ownerId;
+        }
+
+        @Override
+        public long getOwnerVersion() {
+            return ownerVersion;
+        }
+    }
+
+    private record AnswerView(long id, String name, long ownerId, long requestId) implements ItemAnswerView {
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getOwnerId() {
+            return ownerId;
+        }
+
+        @Override
+        public long getRequestId() {
+            return requestId;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.model.ItemRequest;
+import ru.practicum.shareit.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.function.Predicate;
+
+@Repository
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryItemRequestRepository extends InMemoryRepository<ItemRequest, Long>
+        implements ItemRequestRepository {
+    private static final Comparator<ItemRequest> NEWEST =
+            Comparator.comparing(r -> new SortKey(r.getCreated(), r.getId()));
+
+    public InMemoryItemRequestRepository(InMemoryStorage storage) {
+        super(storage, storage.requests);
+    }
+
+    @Override
+    public List<ItemRequest> findNewestByRequestorId(long userId, Limit limit) {
+        return newest(storage.requestsByRequestor.get(userId), requestor(userId), limit);
+    }
+
+    @Override
+    public List<ItemRequest> findPageByRequestorId(long userId, LocalDateTime created, long id, Limit limit) {
+        SortKey cursor = new SortKey(created, id);
+        return newest(storage.requestsByRequestor.get(userId).tailSet(cursor, false),
+                requestor(userId).and(before(cursor)), limit);
+    }
+
+    /**
+     * Запросы других пользователей идут по общему индексу от новых к старым, свои пропускаются.
+     */
+    @Override
+    public List<ItemRequest> findNewestOfOthers(long userId, Limit limit) {
+        return newest(storage.requestsByCreated.get(InMemoryStorage.ALL), requestor(userId).negate(), limit);
+    }
+
+    @Override
+    public List<ItemRequest> findPageOfOthers(long userId, LocalDateTime created, long id, Limit limit) {
+        SortKey cursor = new SortKey(created, id);
+        return newest(storage.requestsByCreated.get(InMemoryStorage.ALL).tailSet(cursor, false),
+                requestor(userId).negate().and(before(cursor)), limit);
+    }
+
+    @Override
+    public long countByIdIn(Collection<Long> ids) {
+        return ids.stream().distinct().filter(id -> storage.current(table, id) != null).count();
+    }
+
+    private List<ItemRequest> newest(NavigableSet<SortKey> keys, Predicate<ItemRequest> filter, Limit limit) {
+        return storage.select(table, SortKey.ids(keys), true, filter, NEWEST, 0, max(limit));
+    }
+
+    private static Predicate<ItemRequest> requestor(long userId) {
+        return request -> request.getRequestor().getId() == userId;
+    }
+
+    private static Predicate<ItemRequest> before(SortKey cursor) {
+        return request -> new SortKey(request.getCreated(), request.getId()).compareTo(cursor) > 0;
+    }
+}
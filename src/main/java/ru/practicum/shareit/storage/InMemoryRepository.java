@@ -0,0 +1,242 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.orm.ObjectRetrievalFailureException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Методы {@link JpaRepository} над таблицей хранилища в памяти, включая запросы по образцу (Example):
+ * условие строит {@link EntityExamples}, строки перебираются так же, как в {@link #findAll()}.
+ */
+abstract class InMemoryRepository<T, ID extends Number> implements JpaRepository<T, ID> {
+    protected final InMemoryStorage storage;
+    protected final EntityTable<T> table;
+
+    protected InMemoryRepository(InMemoryStorage storage, EntityTable<T> table) {
+        this.storage = storage;
+        this.table = table;
+    }
+
+    static int max(Limit limit) {
+        return limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+    }
+
+    static long offset(Pageable pageable) {
+        return pageable.isPaged() ? pageable.getOffset() : 0;
+    }
+
+    static int size(Pageable pageable) {
+        return pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Все строки таблицы в порядке id, отфильтрованные и упорядоченные по {@code order}.
+     */
+    protected List<T> scan(Predicate<T> filter, Comparator<? super T> order, long offset, int limit) {
+        return storage.select(table, table.rows().keySet(), order == null, filter,
+                order == null ? byId() : order, offset, limit);
+    }
+
+    protected Comparator<T> byId() {
+        return Comparator.comparingLong(table.metadata()::id);
+    }
+
+    protected Comparator<T> order(Sort sort) {
+        return sort.isSorted() ? EntityComparators.of(table.metadata().type(), sort) : null;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        return storage.save(table, entity);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        return Optional.ofNullable(storage.find(table, id.longValue()));
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        return storage.current(table, id.longValue()) != null;
+    }
+
+    @Override
+    public List<T> findAll() {
+        return scan(row -> true, null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        List<T> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return scan(row -> true, null, 0, Integer.MAX_VALUE).size();
+    }
+
+    @Override
+    public void deleteById(ID id) {
+        storage.delete(table, id.longValue());
+    }
+
+    @Override
+    public void delete(T entity) {
+        storage.delete(table, table.metadata().id(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        findAll().forEach(this::delete);
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return scan(row -> true, order(sort), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        List<T> all = findAll(pageable.getSort());
+        int from = (int) Math.min(offset(pageable), all.size());
+        int to = (int) Math.min(all.size(), from + (long) size(pageable));
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    @Override
+    public void flush() {
+        storage.flush();
+    }
+
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        S saved = save(entity);
+        flush();
+        return saved;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        List<S> saved = saveAll(entities);
+        flush();
+        return saved;
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<ID> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    @Deprecated
+    public T getOne(ID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public T getById(ID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public T getReferenceById(ID id) {
+        return findById(id).orElseThrow(() -> new ObjectRetrievalFailureException(table.metadata().type(), id));
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        List<S> found = scan(example, Sort.unsorted(), 2);
+        if (found.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1);
+        }
+        return found.stream().findFirst();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return scan(example, Sort.unsorted(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return scan(example, sort, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        List<S> all = findAll(example, pageable.getSort());
+        int from = (int) Math.min(offset(pageable), all.size());
+        int to = (int) Math.min(all.size(), from + (long) size(pageable));
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return findAll(example).size();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        return !scan(example, Sort.unsorted(), 1).isEmpty();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> query) {
+        return query.apply(new InMemoryFluentQuery<>((sort, limit) -> scan(example, sort, limit),
+                example.getProbeType(), Sort.unsorted(), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Строки, подходящие под образец; связи сравниваются с текущим состоянием связанных сущностей.
+     */
+    @SuppressWarnings("unchecked")
+    private <S extends T> List<S> scan(Example<S> example, Sort sort, int limit) {
+        Predicate<T> filter = EntityExamples.of(example, related ->
+                storage.current(storage.table(related.getClass()), EntityMetadata.idOf(related)));
+        return (List<S>) scan(filter, order(sort), 0, limit);
+    }
+}
@@ -0,0 +1,300 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.Comment;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.ItemBookingSummary;
+import ru.practicum.shareit.model.ItemRequest;
+import ru.practicum.shareit.model.User;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище ShareIt в памяти для профиля {@value #PROFILE}: нагрузочные тесты, демо-стенды и узлы без базы.
+ * Репозитории профиля отвечают на те же запросы, что и JPA, по таблицам с вторичными индексами: вещи владельца,
+ * бронирования пользователя и вещи от поздних к ранним, комментарии вещи, запросы пользователя.
+ *
+ * <p>Транзакции ведёт {@link InMemoryTransactionManager}: изменения копятся в {@link PersistenceContext}
+ * и записываются при коммите под общей блокировкой записи с проверкой версий, уникальности email
+ * и ссылок на удаляемых пользователей; откат отбрасывает контекст. Читатели не блокируются и видят только
+ * зафиксированные строки, но коммит для них не атомарен: параллельная выборка может увидеть часть его строк.
+ * Архива бронирований нет, данные живут до остановки приложения.
+ */
+@Component
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryStorage {
+    public static final String PROFILE = "inmemory";
+
+    /**
+     * Группа индексов, в которые попадают все строки таблицы.
+     */
+    static final long ALL = 0L;
+
+    private static final int LOCK_STRIPES = 1024;
+
+    final EntityTable<User> users = new EntityTable<>(User.class);
+    final EntityTable<Item> items = new EntityTable<>(Item.class);
+    final EntityTable<Booking> bookings = new EntityTable<>(Booking.class);
+    final EntityTable<Comment> comments = new EntityTable<>(Comment.class);
+    final EntityTable<ItemRequest> requests = new EntityTable<>(ItemRequest.class);
+    final EntityTable<ItemBookingSummary> summaries = new EntityTable<>(ItemBookingSummary.class);
+
+    final UniqueIndex<User> emails = users.index(new UniqueIndex<>(User::getEmail));
+    final GroupIndex<Item> itemsByOwner = items.index(new GroupIndex<>(item -> item.getOwner().getId()));
+    final GroupIndex<Item> itemsByRequest = items.index(new GroupIndex<>(Item::getRequestId));
+    final SortedIndex<Booking> bookingsByBooker = bookings.index(
+            new SortedIndex<>(booking -> booking.getBooker().getId(), InMemoryStorage::byStart));
+    final SortedIndex<Booking> bookingsByOwner = bookings.index(
+            new SortedIndex<>(this::ownerOf, InMemoryStorage::byStart));
+    final SortedIndex<Booking> bookingsByItem = bookings.index(
+            new SortedIndex<>(booking -> booking.getItem().getId(), InMemoryStorage::byStart));
+    final SortedIndex<Comment> commentsByItem = comments.index(
+            new SortedIndex<>(comment -> comment.getItem().getId(), InMemoryStorage::byCreated));
+    final SortedIndex<ItemRequest> requestsByRequestor = requests.index(
+            new SortedIndex<>(request -> request.getRequestor().getId(), InMemoryStorage::byCreated));
+    final SortedIndex<ItemRequest> requestsByCreated = requests.index(
+            new SortedIndex<>(request -> ALL, InMemoryStorage::byCreated));
+    final SortedIndex<ItemBookingSummary> summariesByRefreshAt = summaries.index(
+            new SortedIndex<>(summary -> ALL, s -> new SortKey(s.getRefreshAt(), s.getItemId())));
+
+    private final Map<Class<?>, EntityTable<?>> tables = new HashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock[] rowLocks = new ReentrantLock[LOCK_STRIPES];
+    private final Duration lockTimeout;
+
+    public InMemoryStorage(@Value("${shareit.storage.lock-timeout:10s}") Duration lockTimeout) {
+        this.lockTimeout = lockTimeout;
+        List.of(users, items, bookings, comments, requests, summaries)
+                .forEach(table -> tables.put(table.metadata().type(), table));
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            rowLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Выборка строк таблицы. {@code candidates} - id из индекса; если они уже идут в порядке {@code order},
+     * выборка останавливается, набрав {@code limit} строк. Строки, изменённые в текущей транзакции,
+     * проверяются по их состоянию в контексте. Условие получает строки таблицы, у которых связи - заглушки с id.
+     */
+    <T> List<T> select(EntityTable<T> table, Iterable<Long> candidates, boolean ordered, Predicate<T> filter,
+                       Comparator<? super T> order, long offset, int limit) {
+        PersistenceContext session = session();
+        Collection<Long> pending = session.managedIds(table);
+        List<T> rows = new ArrayList<>();
+        if (ordered && pending.isEmpty()) {
+            long skipped = 0;
+            Iterator<Long> ids = candidates.iterator();
+            while (rows.size() < limit && ids.hasNext()) {
+                T row = table.row(ids.next());
+                if (row != null && filter.test(row) && skipped++ >= offset) {
+                    rows.add(row);
+                }
+            }
+        } else {
+            for (long id : candidates) {
+                T row = pending.contains(id) ? null : table.row(id);
+                if (row != null && filter.test(row)) {
+                    rows.add(row);
+                }
+            }
+            for (long id : pending) {
+                T entity = session.current(table, id);
+                if (entity != null && filter.test(entity)) {
+                    rows.add(entity);
+                }
+            }
+            rows.sort(order);
+            int from = (int) Math.min(offset, rows.size());
+            rows = rows.subList(from, (int) Math.min(rows.size(), from + (long) limit));
+        }
+        List<T> entities = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            T entity = session.find(table, table.metadata().id(row));
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    <T> T find(EntityTable<T> table, long id) {
+        return session().find(table, id);
+    }
+
+    /**
+     * Строка с учётом изменений текущей транзакции, без копирования - для условий выборок.
+     */
+    <T> T current(EntityTable<T> table, long id) {
+        PersistenceContext context = context();
+        return context == null ? table.row(id) : context.current(table, id);
+    }
+
+    <T, S extends T> S save(EntityTable<T> table, S entity) {
+        return inTransaction(context -> context.save(table, entity));
+    }
+
+    <T> void delete(EntityTable<T> table, long id) {
+        inTransaction(context -> {
+            context.delete(table, id);
+            return null;
+        });
+    }
+
+    void flush() {
+        PersistenceContext context = context();
+        if (context != null) {
+            context.flush();
+        }
+    }
+
+    /**
+     * Блокирует строку до конца текущей транзакции; вне транзакции блокировать нечего.
+     */
+    void lock(EntityTable<?> table, long id, boolean incrementVersion) {
+        PersistenceContext context = context();
+        if (context != null) {
+            context.lock(table, id, incrementVersion);
+        }
+    }
+
+    Long ownerOf(Booking booking) {
+        Item item = current(items, booking.getItem().getId());
+        return item == null ? null : item.getOwner().getId();
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> EntityTable<T> table(Class<?> type) {
+        return (EntityTable<T>) Objects.requireNonNull(tables.get(type), () -> type + " не хранится в памяти");
+    }
+
+    ReentrantLock lockFor(PersistenceContext.Key key) {
+        return rowLocks[(key.type().hashCode() * 31 + Long.hashCode(key.id())) & (LOCK_STRIPES - 1)];
+    }
+
+    void acquire(ReentrantLock lock, PersistenceContext.Key key) {
+        try {
+            if (lock.tryLock(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new CannotAcquireLockException(String.format("Не удалось заблокировать %s с id %s",
+                key.type().getSimpleName(), key.id()));
+    }
+
+    /**
+     * Проверяет и записывает изменения транзакции. Изменения вычисляются под блокировкой записи,
+     * чтобы проверка версий и запись не разделялись чужим коммитом.
+     */
+    void write(Supplier<List<PersistenceContext.Write>> changes) {
+        writeLock.lock();
+        try {
+            List<PersistenceContext.Write> writes = changes.get();
+            check(writes);
+            writes.forEach(PersistenceContext.Write::apply);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Ограничения, которые в базе задают UNIQUE и внешние ключи: email пользователя уникален,
+     * пользователя нельзя удалить, пока на него ссылаются вещи, бронирования, комментарии или запросы.
+     */
+    void check(List<PersistenceContext.Write> writes) {
+        Map<Object, Long> claimed = new HashMap<>();
+        Map<Long, Object> released = new HashMap<>();
+        for (PersistenceContext.Write write : writes) {
+            if (write.table() == (Object) users) {
+                User user = (User) write.entity();
+                released.put(write.id(), user == null ? null : user.getEmail());
+            }
+        }
+        for (PersistenceContext.Write write : writes) {
+            if (write.table() != (Object) users) {
+                continue;
+            }
+            if (write.entity() == null) {
+                checkNotReferenced(write.id());
+                continue;
+            }
+            Object email = emails.value((User) write.entity());
+            Long claimant = claimed.put(email, write.id());
+            Long owner = emails.owner(email);
+            boolean taken = owner != null && owner != write.id()
+                    && !(released.containsKey(owner) && !Objects.equals(released.get(owner), email));
+            if (claimant != null && claimant != write.id() || taken) {
+                throw new DataIntegrityViolationException(String.format("Email %s уже занят", email));
+            }
+        }
+    }
+
+    private void checkNotReferenced(long userId) {
+        boolean referenced = !itemsByOwner.get(userId).isEmpty() || !bookingsByBooker.get(userId).isEmpty()
+                || !requestsByRequestor.get(userId).isEmpty()
+                || comments.rows().values().stream().anyMatch(comment -> comment.getAuthor().getId() == userId);
+        if (referenced) {
+            throw new DataIntegrityViolationException(String.format("На пользователя %s есть ссылки", userId));
+        }
+    }
+
+    private PersistenceContext context() {
+        return (PersistenceContext) TransactionSynchronizationManager.getResource(this);
+    }
+
+    /**
+     * Контекст текущей транзакции, а вне её - отдельный контекст на одно чтение, как у read-only
+     * методов репозиториев Spring Data.
+     */
+    private PersistenceContext session() {
+        PersistenceContext context = context();
+        return context != null ? context : new PersistenceContext(this, true);
+    }
+
+    /**
+     * Вне транзакции изменение выполняется в своей транзакции и сразу фиксируется, как save и delete
+     * репозиториев Spring Data.
+     */
+    private <R> R inTransaction(Function<PersistenceContext, R> action) {
+        PersistenceContext context = context();
+        if (context != null) {
+            return action.apply(context);
+        }
+        context = new PersistenceContext(this, false);
+        R result = action.apply(context);
+        context.commit();
+        return result;
+    }
+
+    private static SortKey byStart(Booking booking) {
+        return new SortKey(booking.getStart(), booking.getId());
+    }
+
+    private static SortKey byCreated(ItemRequest request) {
+        return new SortKey(request.getCreated(), request.getId());
+    }
+
+    private static SortKey byCreated(Comment comment) {
+        return new SortKey(comment.getCreated(), comment.getId());
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Транзакции хранилища в памяти. Транзакция - {@link PersistenceContext}, привязанный к потоку;
+ * коммит записывает его изменения в таблицы, откат отбрасывает. Блокировки строк снимаются по завершении
+ * транзакции. Синхронизации транзакций (afterCommit, afterCompletion) работают как с JPA.
+ */
+@Component("transactionManager")
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+    private final transient InMemoryStorage storage;
+
+    public InMemoryTransactionManager(InMemoryStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Transaction((PersistenceContext) TransactionSynchronizationManager.getResource(storage));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((Transaction) transaction).context != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        Transaction tx = (Transaction) transaction;
+        tx.context = new PersistenceContext(storage, definition.isReadOnly());
+        tx.rollbackOnly = false;
+        TransactionSynchronizationManager.bindResource(storage, tx.context);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((Transaction) transaction).context = null;
+        return TransactionSynchronizationManager.unbindResource(storage);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(storage, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        ((Transaction) status.getTransaction()).context.commit();
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        // изменения есть только в контексте транзакции и пропадают вместе с ним
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((Transaction) status.getTransaction()).rollbackOnly = true;
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        Transaction tx = (Transaction) transaction;
+        TransactionSynchronizationManager.unbindResource(storage);
+        tx.context.release();
+    }
+
+    private static final class Transaction implements SmartTransactionObject {
+        private PersistenceContext context;
+        private boolean rollbackOnly;
+
+        private Transaction(PersistenceContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+            context.flush();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.email.UserEmailView;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.repository.UserRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@Profile(InMemoryStorage.PROFILE)
+public class InMemoryUserRepository extends InMemoryRepository<User, Long> implements UserRepository {
+
+    public InMemoryUserRepository(InMemoryStorage storage) {
+        super(storage, storage.users);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        Long owner = storage.emails.owner(email);
+        return !storage.select(table, owner == null ? List.of() : List.of(owner), true,
+                user -> email.equals(user.getEmail()), byId(), 0, 1).isEmpty();
+    }
+
+    @Override
+    public boolean existsByEmailAndIdNot(String email, long id) {
+        Long owner = storage.emails.owner(email);
+        return owner != null && owner != id && existsByEmail(email);
+    }
+
+    @Override
+    public boolean existsByEmailIn(Collection<String> emails) {
+        return emails.stream().anyMatch(this::existsByEmail);
+    }
+
+    @Override
+    public List<UserEmailView> findEmails(long afterId, Limit limit) {
+        return storage.select(table, table.rows().tailMap(afterId, false).keySet(), true, user -> true, byId(),
+                        0, max(limit)).stream()
+                .map(user -> (UserEmailView) new EmailView(user.getId(), user.getEmail()))
+                .toList();
+    }
+
+    private record EmailView(Long id, String email) implements UserEmailView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+    }
+}
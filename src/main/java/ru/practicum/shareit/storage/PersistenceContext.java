@@ -0,0 +1,235 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Контекст транзакции хранилища в памяти - аналог контекста персистентности JPA. Каждая строка читается
+ * в транзакции один раз и дальше отдаётся одним и тем же экземпляром; изменения сущностей находятся
+ * сравнением с прочитанной строкой и записываются в таблицы при коммите. В read-only транзакции изменения
+ * не записываются, как при FlushMode.MANUAL.
+ */
+final class PersistenceContext {
+    private final InMemoryStorage storage;
+    private final boolean readOnly;
+    private final Map<Key, Object> managed = new LinkedHashMap<>();
+    private final Map<Key, Object> loaded = new HashMap<>();
+    private final Set<Key> inserted = new HashSet<>();
+    private final Set<Key> deleted = new HashSet<>();
+    private final Set<Key> incremented = new HashSet<>();
+    private final List<ReentrantLock> locks = new ArrayList<>();
+
+    PersistenceContext(InMemoryStorage storage, boolean readOnly) {
+        this.storage = storage;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Управляемая сущность с заданным id или null. Связанные сущности загружаются сразу, как с EntityGraph.
+     */
+    <T> T find(EntityTable<T> table, long id) {
+        Key key = new Key(table.metadata().type(), id);
+        Object entity = managed.get(key);
+        if (entity != null) {
+            return deleted.contains(key) ? null : cast(entity);
+        }
+        T row = table.row(id);
+        if (row == null) {
+            return null;
+        }
+        T copy = table.metadata().copyValues(row);
+        managed.put(key, copy);
+        loaded.put(key, row);
+        table.metadata().copyRelations(row, copy, this::resolve);
+        return copy;
+    }
+
+    /**
+     * Состояние строки с учётом изменений этой транзакции, без загрузки в контекст - для условий выборок.
+     * Связи у строки таблицы - заглушки, у них можно брать только id.
+     */
+    <T> T current(EntityTable<T> table, long id) {
+        Key key = new Key(table.metadata().type(), id);
+        Object entity = managed.get(key);
+        if (entity != null) {
+            return deleted.contains(key) ? null : cast(entity);
+        }
+        return table.row(id);
+    }
+
+    /**
+     * Id сущностей таблицы, загруженных или добавленных в этой транзакции: выборка проверяет их по состоянию
+     * в контексте, как если бы изменения были сброшены в базу перед запросом.
+     */
+    Collection<Long> managedIds(EntityTable<?> table) {
+        if (readOnly || managed.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> ids = new HashSet<>();
+        for (Key key : managed.keySet()) {
+            if (key.type() == table.metadata().type()) {
+                ids.add(key.id());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Новая сущность становится управляемой как есть и получает id, отсоединённая - переносится
+     * в управляемую с проверкой версии, как persist и merge в JPA.
+     */
+    <T, S extends T> S save(EntityTable<T> table, S entity) {
+        EntityMetadata<T> metadata = table.metadata();
+        if (metadata.isNew(entity)) {
+            if (metadata.hasGeneratedId()) {
+                metadata.assignId(entity, table.nextId());
+            }
+            Key key = new Key(metadata.type(), metadata.id(entity));
+            if (managed.containsKey(key) && !deleted.contains(key)) {
+                throw new DuplicateKeyException(String.format("Строка %s с id %s уже существует",
+                        metadata.type().getSimpleName(), key.id()));
+            }
+            managed.put(key, entity);
+            inserted.add(key);
+            return entity;
+        }
+        long id = metadata.id(entity);
+        T target = find(table, id);
+        if (target == entity) {
+            return entity;
+        }
+        if (target == null || metadata.isVersioned() && metadata.version(entity) != metadata.version(target)) {
+            throw new ObjectOptimisticLockingFailureException(metadata.type(), id);
+        }
+        metadata.merge(entity, target, this::resolve);
+        return cast(target);
+    }
+
+    <T> void delete(EntityTable<T> table, long id) {
+        if (find(table, id) == null) {
+            return;
+        }
+        Key key = new Key(table.metadata().type(), id);
+        if (inserted.remove(key)) {
+            managed.remove(key);
+        } else {
+            deleted.add(key);
+        }
+    }
+
+    /**
+     * Блокирует строку до конца транзакции; {@code incrementVersion} - увеличить версию при коммите,
+     * даже если сущность не изменилась.
+     */
+    void lock(EntityTable<?> table, long id, boolean incrementVersion) {
+        Key key = new Key(table.metadata().type(), id);
+        ReentrantLock lock = storage.lockFor(key);
+        if (!lock.isHeldByCurrentThread()) {
+            storage.acquire(lock, key);
+            locks.add(lock);
+        }
+        if (incrementVersion && !readOnly) {
+            incremented.add(key);
+        }
+    }
+
+    /**
+     * Проверяет изменения так же, как коммит, но не записывает их: ошибки уникальности и версий
+     * появляются в месте вызова, как при flush в JPA.
+     */
+    void flush() {
+        if (!readOnly) {
+            storage.check(changes());
+        }
+    }
+
+    void commit() {
+        if (!readOnly && !managed.isEmpty()) {
+            storage.write(this::changes);
+        }
+    }
+
+    void release() {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+        locks.clear();
+    }
+
+    /**
+     * Изменения транзакции в порядке, в котором сущности попали в контекст. Строки, изменённые другой
+     * транзакцией после чтения, дают ObjectOptimisticLockingFailureException.
+     */
+    private List<Write> changes() {
+        List<Write> writes = new ArrayList<>();
+        for (Map.Entry<Key, Object> entry : managed.entrySet()) {
+            Key key = entry.getKey();
+            EntityTable<Object> table = storage.table(key.type());
+            EntityMetadata<Object> metadata = table.metadata();
+            Object current = table.row(key.id());
+            Object row = loaded.get(key);
+            if (inserted.contains(key)) {
+                if (current != null) {
+                    throw new DuplicateKeyException(String.format("Строка %s с id %s уже существует",
+                            metadata.type().getSimpleName(), key.id()));
+                }
+                writes.add(new Write(table, key.id(), entry.getValue(), 0));
+                continue;
+            }
+            boolean removed = deleted.contains(key);
+            if (!removed && metadata.sameState(entry.getValue(), row) && !incremented.contains(key)) {
+                continue;
+            }
+            if (current == null || metadata.isVersioned() && metadata.version(current) != metadata.version(row)) {
+                if (removed && current == null) {
+                    continue;
+                }
+                throw new ObjectOptimisticLockingFailureException(metadata.type(), key.id());
+            }
+            writes.add(new Write(table, key.id(), removed ? null : entry.getValue(), metadata.version(row) + 1));
+        }
+        return writes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object entity) {
+        return (T) entity;
+    }
+
+    private Object resolve(Object relation) {
+        Object entity = find(storage.table(relation.getClass()), EntityMetadata.idOf(relation));
+        return entity != null ? entity : relation;
+    }
+
+    record Key(Class<?> type, long id) {
+    }
+
+    /**
+     * Запись одной строки при коммите; {@code entity == null} - удаление.
+     */
+    record Write(EntityTable<Object> table, long id, Object entity, long version) {
+        void apply() {
+            if (entity == null) {
+                table.delete(id);
+                return;
+            }
+            EntityMetadata<Object> metadata = table.metadata();
+            Object row = metadata.copy(entity, EntityMetadata::stub);
+            if (version > 0) {
+                metadata.setVersion(row, version);
+                metadata.setVersion(entity, version);
+            }
+            table.put(row);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.storage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Ключ упорядоченных индексов: сначала новые по времени, при равном времени - по убыванию id,
+ * как ORDER BY ... DESC, id DESC в запросах репозиториев.
+ */
+record SortKey(LocalDateTime time, long id) implements Comparable<SortKey> {
+
+    /**
+     * Id строк в порядке ключей, без копирования набора.
+     */
+    static Iterable<Long> ids(Collection<SortKey> keys) {
+        return () -> keys.stream().map(SortKey::id).iterator();
+    }
+
+    @Override
+    public int compareTo(SortKey other) {
+        int byTime = other.time.compareTo(time);
+        return byTime != 0 ? byTime : Long.compare(other.id, id);
+    }
+}
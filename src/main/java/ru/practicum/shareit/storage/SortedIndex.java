@@ -0,0 +1,49 @@
+package ru.practicum.shareit.storage;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Строки по значению внешнего ключа, упорядоченные по {@link SortKey}: например бронирования пользователя
+ * от поздних к ранним. Страница по курсору начинается с {@link NavigableSet#tailSet} без просмотра
+ * предыдущих строк. Строки, у которых ключ группы или время не заданы, в индекс не попадают.
+ */
+final class SortedIndex<T> implements TableIndex<T> {
+    private final Map<Long, NavigableSet<SortKey>> groups = new ConcurrentHashMap<>();
+    private final Function<T, Long> group;
+    private final Function<T, SortKey> key;
+
+    SortedIndex(Function<T, Long> group, Function<T, SortKey> key) {
+        this.group = group;
+        this.key = key;
+    }
+
+    NavigableSet<SortKey> get(long value) {
+        return groups.getOrDefault(value, Collections.emptyNavigableSet());
+    }
+
+    @Override
+    public void add(T row) {
+        Long value = group.apply(row);
+        SortKey sortKey = key.apply(row);
+        if (value != null && sortKey.time() != null) {
+            groups.computeIfAbsent(value, k -> new ConcurrentSkipListSet<>()).add(sortKey);
+        }
+    }
+
+    @Override
+    public void remove(T row) {
+        Long value = group.apply(row);
+        SortKey sortKey = key.apply(row);
+        if (value != null && sortKey.time() != null) {
+            groups.computeIfPresent(value, (k, keys) -> {
+                keys.remove(sortKey);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.storage;
+
+/**
+ * Вторичный индекс таблицы в памяти. Таблица вызывает его при каждой записи строки: старая версия строки
+ * убирается из индекса, новая добавляется.
+ */
+interface TableIndex<T> {
+    void add(T row);
+
+    void remove(T row);
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.storage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Уникальное значение столбца, например email пользователя, и id строки, которой оно принадлежит.
+ * Проверку уникальности выполняет хранилище при фиксации изменений.
+ */
+final class UniqueIndex<T> implements TableIndex<T> {
+    private final Map<Object, Long> owners = new ConcurrentHashMap<>();
+    private final Function<T, Object> value;
+
+    UniqueIndex(Function<T, Object> value) {
+        this.value = value;
+    }
+
+    Object value(T row) {
+        return value.apply(row);
+    }
+
+    Long owner(Object value) {
+        return value == null ? null : owners.get(value);
+    }
+
+    @Override
+    public void add(T row) {
+        Object key = value.apply(row);
+        if (key != null) {
+            owners.put(key, EntityMetadata.idOf(row));
+        }
+    }
+
+    @Override
+    public void remove(T row) {
+        Object key = value.apply(row);
+        if (key != null) {
+            owners.remove(key, EntityMetadata.idOf(row));
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package ru.practicum.shareit.summary;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.batch.BatchWriter;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.BookingSnapshot;
+import ru.practicum.shareit.model.ItemBookingSummary;
+import ru.practicum.shareit.repository.BookingHistoryRepository;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Поддерживает сводки последнего и ближайшего бронирования вещей.
+ * Подтверждение бронирования обновляет сводку сразу, а начало очередного будущего бронирования
+ * учитывается фоновым обновлением; до него чтение пересчитывает устаревшие сводки по бронированиям.
+ */
+@Slf4j
+@Component
+public class ItemBookingSummaryTracker {
+    /**
+     * Порядок выбора последнего и ближайшего бронирований: по end, при равных end - по id.
+     */
+    private static final Comparator<BookingSnapshot> BY_END = Comparator.comparing(BookingSnapshot::getEnd)
+            .thenComparing(BookingSnapshot::getBookingId);
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingHistoryRepository bookingHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchWriter batchWriter;
+    private final int refreshBatchSize;
+    private final Lock refreshLock = new ReentrantLock();
+
+    public ItemBookingSummaryTracker(ItemBookingSummaryRepository summaryRepository,
+                                     BookingRepository bookingRepository,
+                                     BookingHistoryRepository bookingHistoryRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     BatchWriter batchWriter,
+                                     @Value("${shareit.bookings.summary.refresh-batch-size:500}")
+                                     int refreshBatchSize) {
+        this.summaryRepository = summaryRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingHistoryRepository = bookingHistoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchWriter = batchWriter;
+        this.refreshBatchSize = refreshBatchSize;
+    }
+
+    /**
+     * Возвращает актуальные сводки по вещам. Устаревшие и отсутствующие сводки пересчитываются вместе,
+     * двумя запросами на все вещи. Чтение не изменяет таблицу сводок.
+     */
+    public Map<Long, ItemBookingSummary> findByItemIds(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        for (ItemBookingSummary summary : summaryRepository.findAllById(itemIds)) {
+            if (!summary.isStale(now)) {
+                summaries.put(summary.getItemId(), summary);
+            }
+        }
+        List<Long> outdated = itemIds.stream().filter(itemId -> !summaries.containsKey(itemId)).toList();
+        if (!outdated.isEmpty()) {
+            summaries.putAll(compute(outdated, now));
+        }
+        return summaries;
+    }
+
+    public ItemBookingSummary findByItemId(long itemId) {
+        return findByItemIds(List.of(itemId)).get(itemId);
+    }
+
+    /**
+     * Создаёт пустую сводку для новой вещи.
+     */
+    public void create(long itemId) {
+        summaryRepository.save(new ItemBookingSummary(itemId));
+    }
+
+    /**
+     * Создаёт пустые сводки для вещей, добавленных пакетом.
+     */
+    public void createAll(List<Long> itemIds) {
+        batchWriter.insert(itemIds.stream().map(ItemBookingSummary::new).toList(), summaryRepository);
+    }
+
+    /**
+     * Учитывает подтверждённое бронирование в сводке его вещи. Вызывается в транзакции подтверждения.
+     */
+    public void onApproved(Booking booking) {
+        long itemId = booking.getItem().getId();
+        LocalDateTime now = LocalDateTime.now();
+        ItemBookingSummary summary = summaryRepository.findForUpdate(itemId).orElse(null);
+        if (summary == null || summary.isStale(now)) {
+            ItemBookingSummary computed = compute(List.of(itemId), now).get(itemId);
+            if (summary != null) {
+                copy(computed, summary);
+            }
+            summaryRepository.save(summary == null ? computed : summary);
+            return;
+        }
+        BookingSnapshot snapshot = BookingSnapshot.of(booking);
+        if (!booking.getStart().isAfter(now)) {
+            summary.setLastBooking(latest(summary.getLastBooking(), snapshot));
+        } else {
+            summary.setNextBooking(earliest(summary.getNextBooking(), snapshot));
+            if (summary.getRefreshAt() == null || booking.getStart().isBefore(summary.getRefreshAt())) {
+                summary.setRefreshAt(booking.getStart());
+            }
+        }
+    }
+
+    /**
+     * Пересчитывает сводки, ближайшее бронирование которых уже началось.
+     * Пропускается, если пересчёт уже выполняется.
+     */
+    @Scheduled(initialDelayString = "${shareit.bookings.summary.refresh-delay:60000}",
+            fixedDelayString = "${shareit.bookings.summary.refresh-delay:60000}")
+    public void refreshStale() {
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            refreshAll();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Заводит сводки для вещей, добавленных в обход сервиса, и заполняет устаревшие.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Integer added = transactionTemplate.execute(status -> summaryRepository.insertMissing());
+        refreshLock.lock();
+        try {
+            refreshAll();
+        } finally {
+            refreshLock.unlock();
+        }
+        log.info("Сводки бронирований заполнены: добавлено {}", added);
+    }
+
+    private void refreshAll() {
+        int refreshed = 0;
+        Integer batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<ItemBookingSummary> stale = summaryRepository.findStaleForUpdate(now,
+                        Limit.of(refreshBatchSize));
+                if (!stale.isEmpty()) {
+                    Map<Long, ItemBookingSummary> computed = compute(stale.stream()
+                            .map(ItemBookingSummary::getItemId).toList(), now);
+                    stale.forEach(summary -> copy(computed.get(summary.getItemId()), summary));
+                }
+                return stale.size();
+            });
+            refreshed += batch;
+        } while (batch == refreshBatchSize);
+        if (refreshed > 0) {
+            log.debug("Обновлено сводок бронирований: {}", refreshed);
+        }
+    }
+
+    /**
+     * Сводки вещей по бронированиям: последнее - начавшееся не позже {@code now} с наибольшим end,
+     * ближайшее - начинающееся позже с наименьшим end; так же их выбирает {@link #onApproved}.
+     */
+    private Map<Long, ItemBookingSummary> compute(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        itemIds.forEach(itemId -> summaries.put(itemId, new ItemBookingSummary(itemId)));
+        for (SummaryBookingView last : bookingHistoryRepository.findLastByItemIds(itemIds, now,
+                BookingStatus.APPROVED)) {
+            ItemBookingSummary summary = summaries.get(last.getItemId());
+            summary.setLastBooking(latest(summary.getLastBooking(), snapshot(last)));
+        }
+        for (NextBookingView next : bookingRepository.findNextByItemIds(itemIds, now, BookingStatus.APPROVED)) {
+            ItemBookingSummary summary = summaries.get(next.getItemId());
+            summary.setNextBooking(earliest(summary.getNextBooking(), snapshot(next)));
+            summary.setRefreshAt(next.getRefreshAt());
+        }
+        return summaries;
+    }
+
+    private static BookingSnapshot latest(BookingSnapshot current, BookingSnapshot candidate) {
+        return current == null || BY_END.compare(candidate, current) > 0 ? candidate : current;
+    }
+
+    private static BookingSnapshot earliest(BookingSnapshot current, BookingSnapshot candidate) {
+        return current == null || BY_END.compare(candidate, current) < 0 ? candidate : current;
+    }
+
+    private static BookingSnapshot snapshot(SummaryBookingView booking) {
+        return new BookingSnapshot(booking.getBookingId(), booking.getStart(), booking.getEnd(),
+                booking.getBookerId());
+    }
+
+    private static void copy(ItemBookingSummary from, ItemBookingSummary to) {
+        to.setLastBooking(from.getLastBooking());
+        to.setNextBooking(from.getNextBooking());
+        to.setRefreshAt(from.getRefreshAt());
+    }
+}
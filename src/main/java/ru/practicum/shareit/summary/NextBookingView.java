@@ -0,0 +1,11 @@
+package ru.practicum.shareit.summary;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ближайшее бронирование вещи и начало самого раннего из её будущих бронирований - момент, когда сводку
+ * нужно пересчитать.
+ */
+public interface NextBookingView extends SummaryBookingView {
+    LocalDateTime getRefreshAt();
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.summary;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование вещи для пересчёта сводки: только поля {@link ru.practicum.shareit.model.BookingSnapshot}.
+ */
+public interface SummaryBookingView {
+    Long getItemId();
+
+    Long getBookingId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    Long getBookerId();
+}
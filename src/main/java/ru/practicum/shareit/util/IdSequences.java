@@ -0,0 +1,71 @@
+package ru.practicum.shareit.util;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.storage.InMemoryStorage;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Последовательности идентификаторов таблиц. При старте сдвигает последовательность за максимальный id,
+ * если строки вставлялись в обход неё: при переходе с IDENTITY или после загрузки данных с явными id.
+ */
+@Slf4j
+@Component
+@Profile("!" + InMemoryStorage.PROFILE)
+public class IdSequences implements SmartInitializingSingleton {
+    /**
+     * Шаг последовательностей в schema.sql и allocationSize генераторов сущностей.
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Таблицы, получающие id из последовательности. Архив бронирований хранит id, выданные bookings_seq,
+     * и история объединяет его с bookings, поэтому повторно выданный id дал бы в ней дубликат.
+     */
+    private static final Map<String, List<String>> SEQUENCES = Map.of(
+            "users_seq", List.of("users"),
+            "items_seq", List.of("items"),
+            "bookings_seq", List.of("bookings", "bookings_archive"),
+            "comments_seq", List.of("comments"),
+            "requests_seq", List.of("requests"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public IdSequences(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        align();
+    }
+
+    /**
+     * Должен вызываться до первой вставки через JPA: уже выданные Hibernate диапазоны id не пересматриваются.
+     */
+    public void align() {
+        SEQUENCES.forEach((sequence, tables) -> {
+            long maxId = 0;
+            for (String table : tables) {
+                maxId = Math.max(maxId, jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table,
+                        Long.class));
+            }
+            Long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence),
+                    Long.class);
+            if (next < maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + ALLOCATION_SIZE));
+                log.info("Последовательность {} сдвинута за id {}", sequence, maxId);
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.metrics.RequestTimings;
+import ru.practicum.shareit.replica.ReplicaRouting;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет независимые чтения в виртуальных потоках, каждое в собственной read-only транзакции
+ * и на собственном соединении. Число одновременно вынесенных чтений меньше размера пула соединений,
+ * поэтому запросы, ожидающие их результата, не могут занять все соединения; при нехватке разрешений
+ * чтение выполняется в вызывающем потоке в его транзакции.
+ */
+@Component
+public class ParallelReads implements DisposableBean {
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final boolean enabled;
+
+    public ParallelReads(PlatformTransactionManager transactionManager,
+                         @Value("${shareit.parallel-reads.enabled:false}") boolean enabled,
+                         @Value("${shareit.parallel-reads.max-concurrency:4}") int maxConcurrency) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.permits = new Semaphore(maxConcurrency);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Запускает чтение параллельно вызывающему потоку. Результат нужно получить до конца транзакции вызывающего.
+     * Если параллельные чтения выключены или разрешений нет, чтение выполнится при обращении к результату.
+     */
+    public <T> Supplier<T> fork(Supplier<T> read) {
+        if (!enabled || !permits.tryAcquire()) {
+            return read;
+        }
+        RequestTimings timings = RequestTimings.current();
+        boolean pinnedToPrimary = ReplicaRouting.isPinnedToPrimary();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    return RequestTimings.callWith(timings, () -> ReplicaRouting.callWith(pinnedToPrimary,
+                            () -> readOnlyTransaction.execute(status -> read.get())));
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return () -> join(future);
+    }
+
+    @Override
+    public void destroy() {
+        executor.close();
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание параллельного чтения прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -1,30 +1,125 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
-    email VARCHAR(512) UNIQUE NOT NULL
+    email VARCHAR(512) UNIQUE NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL
+    );
+
+CREATE TABLE IF NOT EXISTS requests (
+    id BIGINT PRIMARY KEY,
+    description VARCHAR(1000) NOT NULL,
+    requestor_id BIGINT REFERENCES users (id) NOT NULL,
+    created TIMESTAMP NOT NULL
     );
 
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     description VARCHAR(1000) NOT NULL,
     available BOOLEAN NOT NULL,
-    owner_id BIGINT REFERENCES users (id)  NOT NULL
+    owner_id BIGINT REFERENCES users (id)  NOT NULL,
+    request_id BIGINT REFERENCES requests (id),
+    comments_count INT DEFAULT 0 NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL
     );
 
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     start_date TIMESTAMP NOT NULL,
     end_date TIMESTAMP NOT NULL,
     item_id BIGINT REFERENCES items (id) NOT NULL,
     booker_id BIGINT REFERENCES users (id) NOT NULL,
-    status varchar(25) CHECK (status IN ('WAITING', 'APPROVED', 'REJECTED','CANCELED'))
+    status varchar(25) CHECK (status IN ('WAITING', 'APPROVED', 'REJECTED','CANCELED')),
+    version BIGINT DEFAULT 0 NOT NULL
     );
 
 CREATE TABLE IF NOT EXISTS comments (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     content VARCHAR(1000) NOT NULL,
     item_id BIGINT REFERENCES items (id) NOT NULL,
     author_id BIGINT REFERENCES users (id) NOT NULL,
     created TIMESTAMP NOT NULL
-    );
\ No newline at end of file
+    );
+
+-- столбцы, добавленные после первой версии схемы: CREATE TABLE IF NOT EXISTS не меняет уже созданные таблицы
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS request_id BIGINT REFERENCES requests (id);
+
+-- счётчик заполняется по уже оставленным комментариям только там, где столбец только что добавлен
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comments_count INT;
+
+UPDATE items SET comments_count = (SELECT COUNT(*) FROM comments WHERE comments.item_id = items.id)
+    WHERE comments_count IS NULL;
+
+ALTER TABLE items ALTER COLUMN comments_count SET DEFAULT 0;
+
+ALTER TABLE items ALTER COLUMN comments_count SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS requests_requestor_created_idx ON requests (requestor_id, created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS comments_item_created_idx ON comments (item_id, created DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS item_booking_summaries (
+    item_id BIGINT PRIMARY KEY REFERENCES items (id) ON DELETE CASCADE,
+    last_booking_id BIGINT,
+    last_start_date TIMESTAMP,
+    last_end_date TIMESTAMP,
+    last_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_start_date TIMESTAMP,
+    next_end_date TIMESTAMP,
+    next_booker_id BIGINT,
+    refresh_at TIMESTAMP
+    );
+
+CREATE INDEX IF NOT EXISTS item_booking_summaries_refresh_idx ON item_booking_summaries (refresh_at);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(64) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    response_body TEXT,
+    created TIMESTAMP NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_created_idx ON idempotency_keys (created);
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT PRIMARY KEY,
+    start_date TIMESTAMP NOT NULL,
+    end_date TIMESTAMP NOT NULL,
+    item_id BIGINT REFERENCES items (id) NOT NULL,
+    booker_id BIGINT REFERENCES users (id) NOT NULL,
+    status varchar(25) CHECK (status IN ('WAITING', 'APPROVED', 'REJECTED','CANCELED')),
+    archived TIMESTAMP NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS bookings_archive_booker_start_idx ON bookings_archive (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_archive_item_start_idx ON bookings_archive (item_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_end_idx ON bookings (end_date);
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.constant.Constants;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionFilterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AdmissionFilter filter = new AdmissionFilter(properties(), registry, new ObjectMapper());
+
+    @Test
+    void rejectsUserOverRateWithRetryAfter() throws Exception {
+        assertThat(perform("/items/search", "1", (req, res) -> { }).getStatus()).isEqualTo(200);
+        assertThat(perform("/items/search", "1", (req, res) -> { }).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = perform("/items/search", "1", (req, res) -> { });
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("\"error\"");
+        assertThat(perform("/items/search", "2", (req, res) -> { }).getStatus()).isEqualTo(200);
+        assertThat(perform("/users", "1", (req, res) -> { }).getStatus()).isEqualTo(200);
+        assertThat(rejections("search", "rate")).isEqualTo(1);
+    }
+
+    @Test
+    void shedsRequestsOverGroupConcurrency() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+
+        MockHttpServletResponse first = perform("/bookings", "1",
+                (req, res) -> nested[0] = perform("/bookings/owner", "2", (r, s) -> { }));
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(nested[0].getStatus()).isEqualTo(503);
+        assertThat(nested[0].getHeader("Retry-After")).isEqualTo("1");
+        assertThat(perform("/bookings", "2", (req, res) -> { }).getStatus()).isEqualTo(200);
+        assertThat(rejections("bookings", "concurrency")).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse perform(String path, String userId, FilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader(Constants.HEADER_USER_ID, userId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private double rejections(String group, String reason) {
+        return registry.get(AdmissionFilter.REJECTED).tag("group", group).tag("reason", reason).counter().count();
+    }
+
+    private static AdmissionProperties properties() {
+        AdmissionProperties.Group search = new AdmissionProperties.Group();
+        search.setName("search");
+        search.setPaths(List.of("/items/search"));
+        search.setRate(1);
+        search.setBurst(2);
+        AdmissionProperties.Group bookings = new AdmissionProperties.Group();
+        bookings.setName("bookings");
+        bookings.setPaths(List.of("/bookings", "/bookings/**"));
+        bookings.setMaxConcurrent(1);
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setGroups(List.of(search, bookings));
+        return properties;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRateLimiterTest {
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final UserRateLimiter limiter = new UserRateLimiter(10, 3, now::get);
+
+    @Test
+    void admitsBurstThenRejectsUntilNextEmission() {
+        assertThat(limiter.tryAcquire("1")).isZero();
+        assertThat(limiter.tryAcquire("1")).isZero();
+        assertThat(limiter.tryAcquire("1")).isZero();
+        assertThat(limiter.tryAcquire("1")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+        assertThat(limiter.tryAcquire("1")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(60));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+        assertThat(limiter.tryAcquire("1")).isZero();
+        assertThat(limiter.tryAcquire("1")).isPositive();
+    }
+
+    @Test
+    void usersHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("1");
+        }
+
+        assertThat(limiter.tryAcquire("1")).isPositive();
+        assertThat(limiter.tryAcquire("2")).isZero();
+    }
+
+    @Test
+    void idleTimeRefillsNoMoreThanBurst() {
+        limiter.tryAcquire("1");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("1")).isZero();
+        }
+        assertThat(limiter.tryAcquire("1")).isPositive();
+    }
+}
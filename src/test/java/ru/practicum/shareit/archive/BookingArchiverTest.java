@@ -0,0 +1,128 @@
+package ru.practicum.shareit.archive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.dto.BookingDtoOut;
+import ru.practicum.shareit.dto.CommentDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.util.SqlStatementBudget.assertAtMost;
+
+@SpringBootTest(properties = "shareit.bookings.archive.horizon=30d")
+class BookingArchiverTest {
+    @Autowired
+    private BookingArchiver bookingArchiver;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void oldCompletedBookingsMoveToArchiveAndStayVisibleInHistory() {
+        User owner = addUser("archive-owner");
+        User booker = addUser("archive-booker");
+        Item item = itemRepository.findById(itemService.addItem(ItemDtoIn.builder().name("Мангал")
+                .description("Складной").available(true).build(), owner.getId()).getId()).orElseThrow();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking oldApproved = save(now.minusDays(100), now.minusDays(99), item, booker, BookingStatus.APPROVED);
+        Booking oldRejected = save(now.minusDays(80), now.minusDays(79), item, booker, BookingStatus.REJECTED);
+        Booking oldWaiting = save(now.minusDays(70), now.minusDays(69), item, booker, BookingStatus.WAITING);
+        Booking recent = save(now.minusDays(3), now.minusDays(2), item, booker, BookingStatus.APPROVED);
+        Booking future = save(now.plusDays(2), now.plusDays(3), item, booker, BookingStatus.WAITING);
+
+        assertThat(bookingArchiver.archive()).isGreaterThanOrEqualTo(2);
+
+        assertThat(bookingRepository.findAllById(List.of(oldApproved.getId(), oldRejected.getId()))).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_archive WHERE id IN (?, ?)",
+                Integer.class, oldApproved.getId(), oldRejected.getId())).isEqualTo(2);
+        assertThat(bookingRepository.findById(oldWaiting.getId())).isPresent();
+
+        assertThat(ids(assertAtMost("ALL with archive", 2,
+                () -> bookingService.getAllByBooker("ALL", booker.getId(), 0, 10))))
+                .containsExactly(future.getId(), recent.getId(), oldWaiting.getId(), oldRejected.getId(),
+                        oldApproved.getId());
+        assertThat(ids(bookingService.getAllByOwner(owner.getId(), "PAST", 1, 10)))
+                .containsExactly(oldWaiting.getId(), oldRejected.getId(), oldApproved.getId());
+        assertThat(ids(bookingService.getAllByBooker("PAST", booker.getId(),
+                new KeysetCursor(oldWaiting.getStart(), oldWaiting.getId()), 10)))
+                .containsExactly(oldRejected.getId(), oldApproved.getId());
+        assertThat(ids(bookingService.getAllByOwner(owner.getId(), "REJECTED", 0, 10)))
+                .containsExactly(oldRejected.getId());
+        assertThat(ids(bookingService.getAllByBooker("FUTURE", booker.getId(), 0, 10)))
+                .containsExactly(future.getId());
+
+        assertThat(bookingService.getBookingById(oldApproved.getId(), booker.getId()).getStatus())
+                .isEqualTo(BookingStatus.APPROVED);
+        dropSummary(item);
+        assertThat(itemService.getItemById(item.getId(), owner.getId()).getLastBooking().getId())
+                .isEqualTo(recent.getId());
+    }
+
+    @Test
+    void bookerOfArchivedBookingCanComment() {
+        User owner = addUser("archive-comment-owner");
+        User booker = addUser("archive-comment-booker");
+        Item item = itemRepository.findById(itemService.addItem(ItemDtoIn.builder().name("Котелок")
+                .description("Титановый").available(true).build(), owner.getId()).getId()).orElseThrow();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking old = save(now.minusDays(60), now.minusDays(59), item, booker, BookingStatus.APPROVED);
+
+        bookingArchiver.archive();
+
+        assertThat(bookingRepository.findById(old.getId())).isEmpty();
+        assertThat(itemService.addComment(item.getId(), new CommentDto(0, "Отличный котелок", null, null),
+                booker.getId()).getText()).isEqualTo("Отличный котелок");
+        dropSummary(item);
+        assertThat(itemService.getItemById(item.getId(), owner.getId()).getLastBooking().getId())
+                .isEqualTo(old.getId());
+    }
+
+    private Booking save(LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        return bookingRepository.save(new Booking(0, start, end, item, booker, status));
+    }
+
+    /**
+     * Без сводки последнее бронирование вычисляется по истории бронирований.
+     */
+    private void dropSummary(Item item) {
+        jdbcTemplate.update("DELETE FROM item_booking_summaries WHERE item_id = ?", item.getId());
+    }
+
+    private static List<Long> ids(List<BookingDtoOut> bookings) {
+        return bookings.stream().map(BookingDtoOut::getId).toList();
+    }
+
+    private User addUser(String name) {
+        long id = userService.addUser(UserDto.builder().name(name).email(name + "@archive.ru").build()).getId();
+        return userRepository.findById(id).orElseThrow();
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.availability;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.dto.BookingDtoOut;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class BookingAdmissionConcurrencyTest {
+    private static final int THREADS = 32;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void racingBookingsOfHotItemNeverOverlap() throws Exception {
+        long ownerId = addUser("hot-owner");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Перфоратор").description("Мощный")
+                .available(true).build(), ownerId).getId();
+        List<Long> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(addUser("hot-booker-" + i));
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (long bookerId : bookers) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int attempt = 0; attempt < 20; attempt++) {
+                    LocalDateTime from = base.plusHours(ThreadLocalRandom.current().nextInt(48));
+                    BookingItemDto dto = BookingItemDto.builder().itemId(itemId).start(from)
+                            .end(from.plusHours(1 + ThreadLocalRandom.current().nextInt(6))).build();
+                    try {
+                        bookingService.addBooking(dto, bookerId);
+                    } catch (BookingConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Booking> bookings = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId() == itemId)
+                .sorted(Comparator.comparing(Booking::getStart))
+                .toList();
+        assertThat(bookings).isNotEmpty();
+        assertThat(rejected.get()).isPositive();
+        assertThat(bookings.size() + rejected.get()).isEqualTo(THREADS * 20);
+        for (int i = 1; i < bookings.size(); i++) {
+            assertThat(bookings.get(i).getStart()).isAfterOrEqualTo(bookings.get(i - 1).getEnd());
+        }
+    }
+
+    @Test
+    void rejectedBookingFreesInterval() {
+        long ownerId = addUser("free-owner");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Стремянка").description("Три ступени")
+                .available(true).build(), ownerId).getId();
+        long first = addUser("free-booker-1");
+        long second = addUser("free-booker-2");
+        LocalDateTime from = LocalDateTime.now().plusDays(2);
+        BookingItemDto dto = BookingItemDto.builder().itemId(itemId).start(from).end(from.plusDays(1)).build();
+
+        BookingDtoOut booking = bookingService.addBooking(dto, first);
+        assertThatThrownBy(() -> bookingService.addBooking(dto, second))
+                .isInstanceOf(BookingConflictException.class);
+
+        bookingService.approve(booking.getId(), false, ownerId);
+        assertThat(bookingService.addBooking(dto, second).getId()).isNotEqualTo(booking.getId());
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@mail.ru").build()).getId();
+    }
+}
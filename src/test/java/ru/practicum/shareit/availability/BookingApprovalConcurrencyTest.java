@@ -0,0 +1,148 @@
+package ru.practicum.shareit.availability;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.exception.ErrorHandler;
+import ru.practicum.shareit.exception.ErrorResponse;
+import ru.practicum.shareit.exception.ItemNotAvailableForBookingException;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookingApprovalConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    /**
+     * Пересекающиеся заявки записаны напрямую в базу, минуя индекс интервалов, как если бы их приняли
+     * разные экземпляры приложения. Подтвердить удаётся только одну.
+     */
+    @Test
+    void overlappingApprovalsLeaveSingleApprovedBooking() throws Exception {
+        long ownerId = addUser("approve-owner");
+        Item item = itemRepository.findById(addItem(ownerId)).orElseThrow();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            long bookerId = addUser("approve-booker-" + i);
+            bookingIds.add(bookingRepository.save(new Booking(0, start.plusHours(i), start.plusHours(i).plusDays(1),
+                    item, userRepository.findById(bookerId).orElseThrow(), BookingStatus.WAITING)).getId());
+        }
+
+        List<Object> outcomes = race(bookingIds.stream()
+                .<Callable<Object>>map(bookingId -> () -> bookingService.approve(bookingId, true, ownerId))
+                .toList());
+
+        assertThat(outcomes).filteredOn(outcome -> !(outcome instanceof Exception)).hasSize(1);
+        assertThat(outcomes).filteredOn(Exception.class::isInstance)
+                .allMatch(e -> e instanceof BookingConflictException || e instanceof ConcurrencyFailureException);
+        assertThat(bookingRepository.findAllById(bookingIds))
+                .filteredOn(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .hasSize(1);
+    }
+
+    @Test
+    void concurrentDecisionsOnSameBookingHaveSingleWinner() throws Exception {
+        long ownerId = addUser("decide-owner");
+        Item item = itemRepository.findById(addItem(ownerId)).orElseThrow();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long bookingId = bookingRepository.save(new Booking(0, start, start.plusDays(1), item,
+                userRepository.findById(addUser("decide-booker")).orElseThrow(), BookingStatus.WAITING)).getId();
+        List<Callable<Object>> decisions = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approved = i % 2 == 0;
+            decisions.add(() -> bookingService.approve(bookingId, approved, ownerId).getStatus());
+        }
+
+        List<Object> outcomes = race(decisions);
+
+        List<Object> winners = outcomes.stream().filter(outcome -> !(outcome instanceof Exception)).toList();
+        assertThat(winners).hasSize(1);
+        assertThat(outcomes).filteredOn(Exception.class::isInstance).allMatch(e ->
+                e instanceof ItemNotAvailableForBookingException || e instanceof ConcurrencyFailureException);
+        assertThat(bookingRepository.findById(bookingId).orElseThrow().getStatus()).isEqualTo(winners.get(0));
+    }
+
+    @Test
+    void lostRaceIsConflictWithRetryAfter() {
+        ResponseEntity<ErrorResponse> response = new ErrorHandler()
+                .concurrencyFailureException(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    /**
+     * Запускает действия одновременно и возвращает результат или исключение каждого.
+     */
+    private static List<Object> race(List<Callable<Object>> actions) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(actions.size());
+        List<Future<Object>> futures = new ArrayList<>();
+        for (Callable<Object> action : actions) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return action.call();
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            }));
+        }
+        start.countDown();
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            outcomes.add(future.get());
+        }
+        executor.shutdown();
+        return outcomes;
+    }
+
+    private long addItem(long ownerId) {
+        return itemService.addItem(ItemDtoIn.builder().name("Палатка").description("Четырёхместная")
+                .available(true).build(), ownerId).getId();
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@approve.ru").build()).getId();
+    }
+}
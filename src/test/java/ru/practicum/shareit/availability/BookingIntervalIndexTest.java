@@ -0,0 +1,43 @@
+package ru.practicum.shareit.availability;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.availability.BookingIntervalIndex.Interval;
+import ru.practicum.shareit.availability.BookingIntervalIndex.ItemSchedule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingIntervalIndexTest {
+    private static final long HOUR = 3_600_000L;
+    private static final long YEAR = 365 * 24 * HOUR;
+
+    @Test
+    void releasedLongBookingNoLongerWidensSearch() {
+        ItemSchedule schedule = new ItemSchedule();
+        assertThat(schedule.tryAdd(new Interval(0, YEAR, 1), 0)).isTrue();
+        assertThat(schedule.tryAdd(new Interval(YEAR, YEAR + HOUR, 2), 0)).isTrue();
+        assertThat(schedule.tryAdd(new Interval(YEAR + 2 * HOUR, YEAR + 3 * HOUR, 3), 0)).isTrue();
+        assertThat(schedule.maxLength()).isEqualTo(YEAR);
+
+        schedule.remove(1);
+
+        assertThat(schedule.maxLength()).isEqualTo(HOUR);
+        assertThat(schedule.tryAdd(new Interval(YEAR / 2, YEAR / 2 + HOUR, 4), 0)).isTrue();
+        assertThat(schedule.tryAdd(new Interval(YEAR + HOUR / 2, YEAR + 2 * HOUR, 5), 0)).isFalse();
+    }
+
+    @Test
+    void finishedBookingsShrinkSearchWhenEvicted() {
+        ItemSchedule schedule = new ItemSchedule();
+        schedule.add(new Interval(0, 30 * 24 * HOUR, 1));
+        schedule.add(new Interval(40 * 24 * HOUR, 40 * 24 * HOUR + 2 * HOUR, 2));
+        schedule.add(new Interval(40 * 24 * HOUR + 2 * HOUR, 40 * 24 * HOUR + 3 * HOUR, 3));
+
+        long now = 31 * 24 * HOUR;
+        assertThat(schedule.tryAdd(new Interval(40 * 24 * HOUR + HOUR, 40 * 24 * HOUR + 4 * HOUR, 4), now))
+                .isFalse();
+
+        assertThat(schedule.maxLength()).isEqualTo(2 * HOUR);
+        assertThat(schedule.tryAdd(new Interval(40 * 24 * HOUR + 3 * HOUR, 40 * 24 * HOUR + 4 * HOUR, 5), now))
+                .isTrue();
+    }
+}
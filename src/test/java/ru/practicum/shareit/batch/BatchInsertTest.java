@@ -0,0 +1,134 @@
+package ru.practicum.shareit.batch;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.exception.BatchValidationException;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.exception.DuplicateEmailException;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+import ru.practicum.shareit.util.IdSequences;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class BatchInsertTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private IdSequences idSequences;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void insertsUsersAndItemsInJdbcBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<UserDto> users = IntStream.range(0, 500)
+                .mapToObj(i -> UserDto.builder().name("bulk" + i).email("bulk" + i + "@batch.ru").build())
+                .toList();
+
+        statistics.clear();
+        List<UserDto> created = userService.addUsers(users);
+        assertThat(created).hasSize(500).allSatisfy(user -> assertThat(user.getId()).isPositive());
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(500);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(50);
+
+        List<ItemDtoIn> items = IntStream.range(0, 300)
+                .mapToObj(i -> ItemDtoIn.builder().name("Ящик " + i).description("Пластиковый").available(true).build())
+                .toList();
+        statistics.clear();
+        List<ItemDtoOut> addedItems = itemService.addItems(items, created.get(0).getId());
+        assertThat(addedItems).hasSize(300);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(50);
+        assertThat(itemService.getItemsByOwner(created.get(0).getId())).hasSize(300);
+    }
+
+    @Test
+    void rejectsWholeBatchBeforeWriting() {
+        List<UserDto> users = List.of(
+                UserDto.builder().name("ok").email("ok@batch.ru").build(),
+                UserDto.builder().name("").email("not-an-email").build());
+        assertThatThrownBy(() -> userService.addUsers(users))
+                .isInstanceOf(BatchValidationException.class)
+                .hasMessageContaining("[1].name")
+                .hasMessageContaining("[1].email");
+        assertThatThrownBy(() -> userService.addUsers(List.of(
+                UserDto.builder().name("a").email("twice@batch.ru").build(),
+                UserDto.builder().name("b").email("twice@batch.ru").build())))
+                .isInstanceOf(DuplicateEmailException.class);
+        assertThat(userService.getAllUsers()).noneMatch(user -> user.getEmail().equals("ok@batch.ru"));
+    }
+
+    @Test
+    void overlappingBookingRollsBackWholeBatch() {
+        long ownerId = userService.addUser(UserDto.builder().name("o").email("owner@batch.ru").build()).getId();
+        long bookerId = userService.addUser(UserDto.builder().name("b").email("booker@batch.ru").build()).getId();
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Тачка").description("Садовая")
+                .available(true).build(), ownerId).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingItemDto first = BookingItemDto.builder().itemId(itemId).start(start).end(start.plusDays(2)).build();
+        BookingItemDto overlapping = BookingItemDto.builder().itemId(itemId).start(start.plusDays(1))
+                .end(start.plusDays(3)).build();
+
+        assertThatThrownBy(() -> bookingService.addBookings(List.of(first, overlapping), bookerId))
+                .isInstanceOf(BookingConflictException.class);
+        assertThat(bookingRepository.findAll()).noneMatch(booking -> booking.getItem().getId() == itemId);
+        assertThat(bookingService.addBookings(List.of(first), bookerId)).hasSize(1);
+    }
+
+    @Test
+    void alignMovesSequencePastExplicitIds() {
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM comments", Long.class);
+        long explicitId = maxId + 10_000;
+        long userId = userService.addUser(UserDto.builder().name("c").email("author@batch.ru").build()).getId();
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Ведро").description("Жестяное")
+                .available(true).build(), userId).getId();
+        jdbcTemplate.update("INSERT INTO comments (id, content, item_id, author_id, created) " +
+                "VALUES (?, 'Импорт', ?, ?, CURRENT_TIMESTAMP)", explicitId, itemId, userId);
+
+        idSequences.align();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR comments_seq", Long.class))
+                .isGreaterThan(explicitId);
+    }
+
+    @Test
+    void alignMovesBookingSequencePastArchivedIds() {
+        long explicitId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR bookings_seq", Long.class) + 10_000;
+        long userId = userService.addUser(UserDto.builder().name("a").email("archive@batch.ru").build()).getId();
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Лодка").description("Резиновая")
+                .available(true).build(), userId).getId();
+        jdbcTemplate.update("INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status, "
+                + "archived) VALUES (?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, ?, ?, 'APPROVED', CURRENT_TIMESTAMP)",
+                explicitId, itemId, userId);
+
+        idSequences.align();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR bookings_seq", Long.class))
+                .isGreaterThan(explicitId);
+    }
+}
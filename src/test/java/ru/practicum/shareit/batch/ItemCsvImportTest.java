@@ -0,0 +1,195 @@
+package ru.practicum.shareit.batch;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.executable.ExecutableValidator;
+import jakarta.validation.metadata.BeanDescriptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.dto.ItemImportReport;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.exception.BatchValidationException;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Маленькая часть вставки, чтобы импорт шёл несколькими транзакциями.
+ */
+@SpringBootTest(properties = {"shareit.items.import.chunk-size=3", "shareit.items.import.max-errors=2"})
+@AutoConfigureMockMvc
+class ItemCsvImportTest {
+    @Autowired
+    private ItemCsvImporter itemCsvImporter;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CountingValidator validator;
+
+    @Test
+    void importsValidRowsInChunksAndReportsRejectedOnes() throws IOException {
+        long ownerId = addUser("import-owner");
+        String csv = "\uFEFFavailable,name,description\r\n"
+                + "true,Дрель,Ударная\r\n"
+                + "false,\"Лестница, алюминиевая\",\"Три секции,\n\"\"стремянка\"\"\"\r\n"
+                + "true,,Без названия\r\n"
+                + "\r\n"
+                + "да,Пила,Цепная\r\n"
+                + "true,Фен\r\n"
+                + "true,Шуруповёрт,Аккумуляторный\n"
+                + "false,Тиски,Слесарные\n"
+                + "true,Рубанок,Электрический";
+
+        ItemImportReport report = importCsv(csv, ownerId);
+
+        assertThat(report.getImported()).isEqualTo(5);
+        assertThat(report.getRejected()).isEqualTo(3);
+        assertThat(report.getErrors()).hasSize(2);
+        assertThat(report.getErrors().get(0)).startsWith("Строка 5: name");
+        assertThat(report.getErrors().get(1)).startsWith("Строка 7: available");
+        List<ItemDtoOut> items = itemService.getItemsByOwner(ownerId);
+        assertThat(items).extracting(ItemDtoOut::getName)
+                .containsExactlyInAnyOrder("Дрель", "Лестница, алюминиевая", "Шуруповёрт", "Тиски", "Рубанок");
+        assertThat(items).filteredOn(item -> item.getName().startsWith("Лестница"))
+                .singleElement()
+                .satisfies(item -> {
+                    assertThat(item.getDescription()).isEqualTo("Три секции,\n\"стремянка\"");
+                    assertThat(item.getAvailable()).isFalse();
+                });
+    }
+
+    @Test
+    void eachImportedRowIsValidatedOnce() throws IOException {
+        long ownerId = addUser("import-validated-owner");
+        validator.items.set(0);
+
+        ItemImportReport report = importCsv("name,description,available\n"
+                + "Дрель,Ударная,true\nПила,Цепная,true\n,Без названия,true\nТиски,Слесарные,false", ownerId);
+
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(validator.items).hasValue(4);
+        assertThatThrownBy(() -> itemService.addItems(
+                List.of(ItemDtoIn.builder().name("").description("Пустое имя").available(true).build()), ownerId))
+                .isInstanceOf(BatchValidationException.class);
+        assertThat(validator.items).hasValue(5);
+    }
+
+    @Test
+    void malformedFileIsRejected() {
+        long ownerId = addUser("import-malformed-owner");
+
+        assertThatThrownBy(() -> importCsv("name,available\nДрель,true", ownerId))
+                .isInstanceOf(BatchValidationException.class)
+                .hasMessageContaining("description");
+        assertThatThrownBy(() -> importCsv("name,description,available\n\"Дрель,Ударная,true", ownerId))
+                .isInstanceOf(BatchValidationException.class)
+                .hasMessageContaining("Строка 2");
+    }
+
+    @Test
+    void importEndpointAcceptsCsvBody() throws Exception {
+        long ownerId = addUser("import-endpoint-owner");
+
+        mockMvc.perform(post("/items/import").header(Constants.HEADER_USER_ID, ownerId)
+                        .contentType("text/csv")
+                        .content("name,description,available\nКаяк,Надувной,true\n".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(0));
+        mockMvc.perform(post("/items/import").header(Constants.HEADER_USER_ID, Long.MAX_VALUE)
+                        .contentType("text/csv")
+                        .content("name,description,available\n"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ItemImportReport importCsv(String csv, long ownerId) throws IOException {
+        return itemCsvImporter.importItems(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ownerId);
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@import.ru").build()).getId();
+    }
+
+    /**
+     * Считает проверки строк вещей, остальное передаёт обычному валидатору.
+     */
+    @TestConfiguration
+    static class CountingValidation {
+        @Bean
+        @Primary
+        CountingValidator countingValidator() {
+            LocalValidatorFactoryBean delegate = new LocalValidatorFactoryBean();
+            delegate.afterPropertiesSet();
+            return new CountingValidator(delegate);
+        }
+    }
+
+    static class CountingValidator implements Validator {
+        private final Validator delegate;
+        private final AtomicInteger items = new AtomicInteger();
+
+        CountingValidator(Validator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validate(T object, Class<?>... groups) {
+            if (object instanceof ItemDtoIn) {
+                items.incrementAndGet();
+            }
+            return delegate.validate(object, groups);
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateProperty(T object, String propertyName, Class<?>... groups) {
+            return delegate.validateProperty(object, propertyName, groups);
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateValue(Class<T> beanType, String propertyName, Object value,
+                                                             Class<?>... groups) {
+            return delegate.validateValue(beanType, propertyName, value, groups);
+        }
+
+        @Override
+        public BeanDescriptor getConstraintsForClass(Class<?> clazz) {
+            return delegate.getConstraintsForClass(clazz);
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            return delegate.unwrap(type);
+        }
+
+        @Override
+        public ExecutableValidator forExecutables() {
+            return delegate.forExecutables();
+        }
+    }
+}
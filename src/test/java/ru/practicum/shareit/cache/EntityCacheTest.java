@@ -0,0 +1,112 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+import ru.practicum.shareit.util.SqlStatementBudget;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EntityCacheTest {
+    @Autowired
+    private EntityCache entityCache;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void repeatedLookupIsServedFromCacheAsDetachedCopy() {
+        long userId = addUser("cache-hit");
+        User loaded = entityCache.findUser(userId).orElseThrow();
+
+        User cached = SqlStatementBudget.assertAtMost("повторный поиск пользователя", 0, () ->
+                entityCache.findUser(userId).orElseThrow());
+
+        assertThat(cached).isSameAs(loaded);
+        transactionTemplate.executeWithoutResult(status ->
+                assertThat(userRepository.findById(userId).orElseThrow()).isNotSameAs(cached));
+    }
+
+    @Test
+    void committedUpdateReplacesCachedEntity() {
+        long userId = addUser("cache-update");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Дрель").description("Ударная").available(true)
+                .build(), userId).getId();
+        User before = entityCache.findUser(userId).orElseThrow();
+        Item item = entityCache.findItem(itemId).orElseThrow();
+
+        userService.updateUser(userId, UserDto.builder().name("cache-update-renamed").build());
+        itemService.updateItem(itemId, ItemDtoIn.builder().available(false).build(), userId);
+
+        User after = entityCache.findUser(userId).orElseThrow();
+        assertThat(after.getName()).isEqualTo("cache-update-renamed");
+        assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+        assertThat(entityCache.findItem(itemId).orElseThrow().getAvailable()).isFalse();
+        assertThat(item.getOwner().getId()).isEqualTo(userId);
+
+        long deletedId = addUser("cache-delete");
+        entityCache.findUser(deletedId).orElseThrow();
+        userService.deleteUserById(deletedId);
+        assertThat(entityCache.findUser(deletedId)).isEmpty();
+    }
+
+    @Test
+    void entityLoadedBeforeConcurrentCommitIsNotCached() {
+        long userId = addUser("cache-race");
+
+        User stale = transactionTemplate.execute(status -> {
+            // строка попадает в контекст транзакции до чужого коммита
+            userRepository.findById(userId).orElseThrow();
+            CompletableFuture.runAsync(() ->
+                    userService.updateUser(userId, UserDto.builder().name("cache-race-renamed").build())).join();
+            return entityCache.findUser(userId).orElseThrow();
+        });
+
+        assertThat(stale.getName()).isEqualTo("cache-race");
+        assertThat(entityCache.findUser(userId).orElseThrow().getName()).isEqualTo("cache-race-renamed");
+    }
+
+    @Test
+    void readAfterUpdateIsCountedAsMiss() {
+        long userId = addUser("cache-stats");
+        entityCache.findUser(userId).orElseThrow();
+        userService.updateUser(userId, UserDto.builder().name("cache-stats-renamed").build());
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        assertThat(entityCache.findUser(userId).orElseThrow().getName()).isEqualTo("cache-stats-renamed");
+        assertThat(gets("hit")).isEqualTo(hits);
+        assertThat(gets("miss")).isEqualTo(misses + 1);
+
+        entityCache.findUser(userId).orElseThrow();
+        assertThat(gets("hit")).isEqualTo(hits + 1);
+        assertThat(gets("miss")).isEqualTo(misses + 1);
+    }
+
+    private double gets(String result) {
+        return registry.get("cache.gets").tags("cache", EntityCache.USERS, "result", result).functionCounter().count();
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@cache.ru").build()).getId();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.email;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.exception.DuplicateEmailException;
+import ru.practicum.shareit.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ConcurrentSignupTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void onlyOneConcurrentSignupWithSameEmailSucceeds() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String name = "racer" + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    userService.addUser(UserDto.builder().name(name).email("race@mail.ru").build());
+                } catch (DuplicateEmailException e) {
+                    duplicates.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(duplicates.get()).isEqualTo(THREADS - 1);
+        assertThat(userService.getAllUsers()).filteredOn(user -> user.getEmail().equals("race@mail.ru")).hasSize(1);
+    }
+
+    @Test
+    void emailChangeToTakenAddressIsRejected() {
+        userService.addUser(UserDto.builder().name("first").email("taken@mail.ru").build());
+        long id = userService.addUser(UserDto.builder().name("second").email("free@mail.ru").build()).getId();
+
+        assertThatThrownBy(() -> userService.updateUser(id, UserDto.builder().email("taken@mail.ru").build()))
+                .isInstanceOf(DuplicateEmailException.class);
+        assertThat(userService.getUserById(id).getEmail()).isEqualTo("free@mail.ru");
+    }
+
+    @Test
+    void otherConstraintViolationsAreNotReportedAsTakenEmail() {
+        String tooLong = "x".repeat(300);
+        long id = userService.addUser(UserDto.builder().name("short").email("short@mail.ru").build()).getId();
+
+        assertThatThrownBy(() -> userService.addUser(UserDto.builder().name(tooLong).email("long@mail.ru").build()))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(DuplicateEmailException.class);
+        assertThatThrownBy(() -> userService.updateUser(id, UserDto.builder().name(tooLong).build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> userService.addUsers(List.of(
+                UserDto.builder().name("batch").email("batch-short@mail.ru").build(),
+                UserDto.builder().name(tooLong).email("batch-long@mail.ru").build())))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(userService.getUserById(id).getName()).isEqualTo("short");
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.etag;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.CommentDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+import ru.practicum.shareit.util.SqlStatementBudget;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void unchangedItemIsNotModifiedWithoutLoadingComments() {
+        long ownerId = addUser("etag-owner");
+        long itemId = addItem(ownerId);
+        String etag = getItem(itemId, ownerId, null).getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        SqlStatementBudget.Recorded<MvcResult> recorded = SqlStatementBudget.record(() ->
+                getItem(itemId, ownerId, etag));
+
+        assertThat(recorded.result().getResponse().getStatus()).isEqualTo(304);
+        assertThat(recorded.result().getResponse().getContentAsByteArray()).isEmpty();
+        assertThat(recorded.statements()).hasSizeLessThanOrEqualTo(2)
+                .noneMatch(sql -> sql.contains("comments") || sql.contains("bookings"));
+    }
+
+    @Test
+    void commentChangesItemETagForEveryone() {
+        long ownerId = addUser("etag-commented-owner");
+        long bookerId = addUser("etag-commenter");
+        long itemId = addItem(ownerId);
+        bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                itemRepository.findById(itemId).orElseThrow(), userRepository.findById(bookerId).orElseThrow(),
+                BookingStatus.APPROVED));
+        String ownerTag = etag(itemId, ownerId);
+        String bookerTag = etag(itemId, bookerId);
+
+        itemService.addComment(itemId, new CommentDto(0, "Всё работает", null, null), bookerId);
+
+        assertThat(getItem(itemId, ownerId, ownerTag).getResponse().getStatus()).isEqualTo(200);
+        assertThat(getItem(itemId, bookerId, bookerTag).getResponse().getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void approvedBookingChangesOnlyOwnerETag() {
+        long ownerId = addUser("etag-booked-owner");
+        long bookerId = addUser("etag-booker");
+        long itemId = addItem(ownerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long bookingId = bookingService.addBooking(BookingItemDto.builder().itemId(itemId).start(start)
+                .end(start.plusDays(1)).build(), bookerId).getId();
+        String ownerTag = etag(itemId, ownerId);
+        String bookerTag = etag(itemId, bookerId);
+        assertThat(getItem(itemId, ownerId, ownerTag).getResponse().getStatus()).isEqualTo(304);
+
+        bookingService.approve(bookingId, true, ownerId);
+
+        MvcResult owner = getItem(itemId, ownerId, ownerTag);
+        assertThat(owner.getResponse().getStatus()).isEqualTo(200);
+        assertThat(owner.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(ownerTag);
+        assertThat(getItem(itemId, bookerId, bookerTag).getResponse().getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void userETagChangesOnUpdate() {
+        long userId = addUser("etag-user");
+        String etag = perform(get("/users/{userId}", userId)).getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(perform(get("/users/{userId}", userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .getResponse().getStatus()).isEqualTo(304);
+
+        userService.updateUser(userId, UserDto.builder().name("etag-renamed").build());
+
+        MvcResult renamed = perform(get("/users/{userId}", userId).header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertThat(renamed.getResponse().getStatus()).isEqualTo(200);
+        assertThat(renamed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    private String etag(long itemId, long userId) {
+        return getItem(itemId, userId, null).getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private MvcResult getItem(long itemId, long userId, String ifNoneMatch) {
+        MockHttpServletRequestBuilder request = get("/items/{itemId}", itemId)
+                .header(Constants.HEADER_USER_ID, userId);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return perform(request);
+    }
+
+    private MvcResult perform(RequestBuilder request) {
+        try {
+            return mockMvc.perform(request).andReturn();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long addItem(long ownerId) {
+        return itemService.addItem(ItemDtoIn.builder().name("Велосипед").description("Горный")
+                .available(true).build(), ownerId).getId();
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@etag.ru").build()).getId();
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.dto.BookingDtoOut;
+import ru.practicum.shareit.dto.ItemShortDto;
+import ru.practicum.shareit.dto.UserShortDto;
+import ru.practicum.shareit.enums.BookingStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingEventBrokerTest {
+    private static final long OWNER_ID = 1;
+    private static final long BOOKER_ID = 2;
+    private static final int QUEUE_CAPACITY = 2;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BookingEventBroker broker = new BookingEventBroker(registry, Duration.ofMinutes(1), QUEUE_CAPACITY);
+
+    @AfterEach
+    void shutdown() {
+        broker.shutdown();
+    }
+
+    @Test
+    void eventReachesOwnerAndBookerOnly() throws Exception {
+        RecordingEmitter owner = new RecordingEmitter(null);
+        RecordingEmitter booker = new RecordingEmitter(null);
+        RecordingEmitter stranger = new RecordingEmitter(null);
+        broker.register(OWNER_ID, owner);
+        broker.register(BOOKER_ID, booker);
+        broker.register(3, stranger);
+
+        broker.onBookingEvent(event(BookingEvent.Type.APPROVED, 10));
+
+        owner.awaitEvents(1);
+        booker.awaitEvents(1);
+        assertThat(owner.events.get(0)).contains("event:booking-approved").contains("id=10");
+        assertThat(booker.events.get(0)).contains("event:booking-approved");
+        assertThat(stranger.events).isEmpty();
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWithoutBlockingOthers() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stuck);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        broker.register(OWNER_ID, slow);
+        broker.register(BOOKER_ID, fast);
+
+        int events = QUEUE_CAPACITY + 3;
+        for (int i = 0; i < events; i++) {
+            broker.onBookingEvent(event(BookingEvent.Type.CREATED, i));
+            fast.awaitEvents(i + 1);
+        }
+
+        assertThat(slow.completed).isTrue();
+        assertThat(registry.get(BookingEventBroker.DROPPED).counter().count()).isEqualTo(1);
+        assertThat(registry.get(BookingEventBroker.SUBSCRIBERS).gauge().value()).isEqualTo(1);
+        stuck.countDown();
+    }
+
+    private static BookingEvent event(BookingEvent.Type type, long bookingId) {
+        return new BookingEvent(type, OWNER_ID, new BookingDtoOut(bookingId, null, null, BookingStatus.APPROVED,
+                new ItemShortDto(5L, "Велосипед"), new UserShortDto(BOOKER_ID, "booker")));
+    }
+
+    /**
+     * Запоминает отправленные события; если задан {@code stuck}, первая отправка ждёт его, как медленный клиент.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch stuck;
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch stuck) {
+            this.stuck = stuck;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (stuck != null) {
+                try {
+                    stuck.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(events).hasSize(count);
+        }
+    }
+}
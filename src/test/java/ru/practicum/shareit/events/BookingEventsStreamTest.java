@@ -0,0 +1,122 @@
+package ru.practicum.shareit.events;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingEventsStreamTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void ownerAndBookerReceiveCreatedAndApprovedEvents() throws Exception {
+        long ownerId = addUser("events-owner");
+        long bookerId = addUser("events-booker");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Самокат").description("Электрический")
+                .available(true).build(), ownerId).getId();
+        MvcResult ownerStream = subscribe(ownerId);
+        MvcResult bookerStream = subscribe(bookerId);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long bookingId = bookingService.addBooking(BookingItemDto.builder().itemId(itemId).start(start)
+                .end(start.plusDays(1)).build(), bookerId).getId();
+        bookingService.approve(bookingId, true, ownerId);
+
+        for (MvcResult stream : new MvcResult[]{ownerStream, bookerStream}) {
+            String content = awaitContent(stream, "event:booking-approved");
+            assertThat(content).contains("event:booking-created")
+                    .contains("\"id\":" + bookingId)
+                    .contains("\"status\":\"APPROVED\"");
+            assertThat(stream.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        }
+    }
+
+    @Test
+    void rolledBackBookingPublishesNothing() throws Exception {
+        long ownerId = addUser("events-rollback-owner");
+        long bookerId = addUser("events-rollback-booker");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Гироскутер").description("Детский")
+                .available(true).build(), ownerId).getId();
+        MvcResult ownerStream = subscribe(ownerId);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookingService.addBooking(BookingItemDto.builder().itemId(itemId).start(start)
+                    .end(start.plusDays(1)).build(), bookerId);
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(200);
+        assertThat(ownerStream.getResponse().getContentAsString()).doesNotContain("event:");
+    }
+
+    @Test
+    void unknownUserCannotSubscribe() throws Exception {
+        double subscribers = registry.get(BookingEventBroker.SUBSCRIBERS).gauge().value();
+
+        mockMvc.perform(get("/bookings/events").header(Constants.HEADER_USER_ID, Long.MAX_VALUE)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Пользователь с id " + Long.MAX_VALUE + " не найден"));
+
+        assertThat(registry.get(BookingEventBroker.SUBSCRIBERS).gauge().value()).isEqualTo(subscribers);
+    }
+
+    private MvcResult subscribe(long userId) throws Exception {
+        return mockMvc.perform(get("/bookings/events").header(Constants.HEADER_USER_ID, userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static String awaitContent(MvcResult stream, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = stream.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = stream.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@events.ru").build()).getId();
+    }
+}
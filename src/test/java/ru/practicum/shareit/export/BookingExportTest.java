@@ -0,0 +1,177 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Маленький fetch-size заставляет курсор дочитывать строки много раз за одну выгрузку.
+ */
+@SpringBootTest(properties = "shareit.bookings.export.fetch-size=7")
+@AutoConfigureMockMvc
+class BookingExportTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void bookerExportsActiveAndArchivedBookingsAsCsv() throws Exception {
+        long ownerId = addUser("export-owner");
+        long bookerId = addUser("export-booker");
+        long itemId = addItem("Палатка, \"двухместная\"", ownerId);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        long active = insert(false, now.plusDays(1), itemId, bookerId, BookingStatus.WAITING);
+        long archived = insert(true, now.minusDays(200), itemId, bookerId, BookingStatus.APPROVED);
+
+        MvcResult result = export("/bookings/export?format=csv", bookerId);
+
+        assertThat(result.getResponse().getContentType()).startsWith(ExportFormat.CSV.getMediaType());
+        assertThat(result.getResponse().getHeader("Content-Disposition"))
+                .contains("bookings-booker-" + bookerId + ".csv");
+        assertThat(result.getResponse().getContentAsString().split("\r\n")).containsExactly(
+                "id,start,end,status,item_id,item_name,booker_id,booker_name",
+                active + "," + iso(now.plusDays(1)) + "," + iso(now.plusDays(2)) + ",WAITING," + itemId
+                        + ",\"Палатка, \"\"двухместная\"\"\"," + bookerId + ",export-booker",
+                archived + "," + iso(now.minusDays(200)) + "," + iso(now.minusDays(199)) + ",APPROVED," + itemId
+                        + ",\"Палатка, \"\"двухместная\"\"\"," + bookerId + ",export-booker");
+    }
+
+    @Test
+    void ownerExportsWholeHistoryAsNdjson() throws Exception {
+        long ownerId = addUser("export-ndjson-owner");
+        long bookerId = addUser("export-ndjson-booker");
+        long itemId = addItem("Байдарка", ownerId);
+        LocalDateTime start = LocalDateTime.now().minusDays(400).truncatedTo(ChronoUnit.SECONDS);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add(0, insert(i % 2 == 1, start.plusDays(i), itemId, bookerId, BookingStatus.APPROVED));
+        }
+
+        MvcResult result = export("/bookings/owner/export?format=ndjson", ownerId);
+
+        assertThat(result.getResponse().getContentType()).startsWith(ExportFormat.NDJSON.getMediaType());
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            assertThat(row.get("item_name").asText()).isEqualTo("Байдарка");
+            ids.add(row.get("id").asLong());
+        }
+        assertThat(ids).isEqualTo(expected);
+        assertThat(objectMapper.readTree(lines[lines.length - 1]).get("start").asText())
+                .isEqualTo(iso(start));
+    }
+
+    @Test
+    void bookingWithoutStatusIsExportedWithEmptyStatus() throws Exception {
+        long ownerId = addUser("export-nostatus-owner");
+        long bookerId = addUser("export-nostatus-booker");
+        long itemId = addItem("Гамак", ownerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.SECONDS);
+        long id = insert(false, start, itemId, bookerId, null);
+
+        String csv = export("/bookings/export?format=csv", bookerId).getResponse().getContentAsString();
+        String ndjson = export("/bookings/export?format=ndjson", bookerId).getResponse().getContentAsString();
+
+        assertThat(csv.split("\r\n")).contains(id + "," + iso(start) + "," + iso(start.plusDays(1)) + ",," + itemId
+                + ",Гамак," + bookerId + ",export-nostatus-booker");
+        assertThat(objectMapper.readTree(ndjson.split("\n")[0]).get("status").isNull()).isTrue();
+    }
+
+    @Test
+    void unknownFormatAndUnknownUserAreRejectedBeforeStreaming() throws Exception {
+        long bookerId = addUser("export-format-booker");
+
+        mockMvc.perform(get("/bookings/export?format=xml").header(Constants.HEADER_USER_ID, bookerId))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Неизвестный формат выгрузки xml, допустимые: csv, ndjson"));
+        mockMvc.perform(get("/bookings/owner/export").header(Constants.HEADER_USER_ID, Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/bookings/export")
+                                .header(Constants.HEADER_USER_ID, bookerId))
+                        .andExpect(request().asyncStarted()).andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"));
+    }
+
+    private MvcResult export(String url, long userId) throws Exception {
+        MvcResult started = mockMvc.perform(get(url).header(Constants.HEADER_USER_ID, userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    /**
+     * Архивная строка переносится так же, как это делает архиватор.
+     */
+    private long insert(boolean archived, LocalDateTime start, long itemId, long bookerId, BookingStatus status) {
+        long id = bookingRepository.save(new Booking(0, start, start.plusDays(1),
+                itemRepository.findById(itemId).orElseThrow(), userRepository.findById(bookerId).orElseThrow(),
+                status)).getId();
+        if (archived) {
+            jdbcTemplate.update("INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status, "
+                    + "archived) SELECT id, start_date, end_date, item_id, booker_id, status, CURRENT_TIMESTAMP "
+                    + "FROM bookings WHERE id = ?", id);
+            jdbcTemplate.update("DELETE FROM bookings WHERE id = ?", id);
+        }
+        return id;
+    }
+
+    private static String iso(LocalDateTime value) {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value);
+    }
+
+    private long addItem(String name, long ownerId) {
+        return itemService.addItem(ItemDtoIn.builder().name(name).description("Для выгрузки").available(true)
+                .build(), ownerId).getId();
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@export.ru").build()).getId();
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.BookingDtoOut;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.exception.IdempotencyConflictException;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotentRequestsTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void retriedBookingIsCreatedOnceAndReplayed() throws Exception {
+        long ownerId = addUser("retry-owner");
+        long bookerId = addUser("retry-booker");
+        long itemId = addItem(ownerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingItemDto booking = BookingItemDto.builder().itemId(itemId).start(start).end(start.plusDays(1)).build();
+
+        String first = addBooking(booking, bookerId, "booking-1").andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String retried = addBooking(booking, bookerId, "booking-1").andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(retried).isEqualTo(first);
+        assertThat(bookingService.getAllByBooker("ALL", bookerId, 0, 20)).hasSize(1);
+        BookingItemDto changed = BookingItemDto.builder().itemId(itemId).start(start).end(start.plusDays(2)).build();
+        addBooking(changed, bookerId, "booking-1")
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void concurrentDuplicatesAreCoalesced() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<BookingDtoOut>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotentRequests.execute("coalesced", 1, "addBooking", "same", BookingDtoOut.class, () -> {
+                    executions.incrementAndGet();
+                    sleep();
+                    return booking(42);
+                });
+            }));
+        }
+        start.countDown();
+
+        for (Future<BookingDtoOut> future : futures) {
+            assertThat(future.get().getId()).isEqualTo(42);
+        }
+        executor.shutdown();
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void failedRequestReleasesKey() {
+        assertThatThrownBy(() -> idempotentRequests.execute("failed", 1, "addBooking", "same", BookingDtoOut.class,
+                () -> {
+                    throw new IdempotencyConflictException("сбой");
+                })).isInstanceOf(IdempotencyConflictException.class);
+
+        BookingDtoOut retried = idempotentRequests.execute("failed", 1, "addBooking", "same", BookingDtoOut.class,
+                () -> booking(7));
+
+        assertThat(retried.getId()).isEqualTo(7);
+    }
+
+    @Test
+    void keysAreScopedByUser() {
+        BookingDtoOut first = idempotentRequests.execute("scoped", 1, "addBooking", "same", BookingDtoOut.class,
+                () -> booking(1));
+        BookingDtoOut other = idempotentRequests.execute("scoped", 2, "addBooking", "same", BookingDtoOut.class,
+                () -> booking(2));
+
+        assertThat(first.getId()).isEqualTo(1);
+        assertThat(other.getId()).isEqualTo(2);
+    }
+
+    private ResultActions addBooking(BookingItemDto booking, long bookerId, String key) throws Exception {
+        return mockMvc.perform(post("/bookings")
+                .header(Constants.HEADER_USER_ID, bookerId)
+                .header(Constants.HEADER_IDEMPOTENCY_KEY, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(booking)));
+    }
+
+    private static BookingDtoOut booking(long id) {
+        return new BookingDtoOut(id, null, null, null, null, null);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long addItem(long ownerId) {
+        return itemService.addItem(ItemDtoIn.builder().name("Байдарка").description("Двухместная")
+                .available(true).build(), ownerId).getId();
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@idempotency.ru").build()).getId();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "shareit.idempotency.store=jdbc")
+class JdbcIdempotencyStoreTest {
+    @Autowired
+    private IdempotencyStore store;
+
+    @Test
+    void keyIsReservedOnceUntilReleased() {
+        assertThat(store).isInstanceOf(JdbcIdempotencyStore.class);
+
+        assertThat(store.reserve("jdbc-key", "hash")).isTrue();
+        assertThat(store.reserve("jdbc-key", "hash")).isFalse();
+        assertThat(store.find("jdbc-key")).contains(new IdempotencyRecord("hash", null));
+
+        store.complete("jdbc-key", "{\"id\":1}");
+        assertThat(store.find("jdbc-key")).contains(new IdempotencyRecord("hash", "{\"id\":1}"));
+
+        store.release("jdbc-key");
+        assertThat(store.find("jdbc-key")).isEmpty();
+        assertThat(store.reserve("jdbc-key", "other")).isTrue();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookingListMetricsTest {
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void listingsAreTimedPerStateBranchAndRepositoryMethod() {
+        long ownerId = addUser("metrics-owner");
+        long bookerId = addUser("metrics-booker");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Палатка").description("Трёхместная")
+                .available(true).build(), ownerId).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.addBooking(BookingItemDto.builder().itemId(itemId).start(start)
+                .end(start.plusDays(1)).build(), bookerId);
+        long future = listTimer("owner", "FUTURE").count();
+        long waiting = listTimer("booker", "WAITING").count();
+
+        assertThat(bookingService.getAllByOwner(ownerId, "FUTURE", 0, 10)).hasSize(1);
+        assertThat(bookingService.getAllByBooker("WAITING", bookerId, 0, 10)).hasSize(1);
+
+        assertThat(listTimer("owner", "FUTURE").count()).isEqualTo(future + 1);
+        assertThat(listTimer("booker", "WAITING").count()).isEqualTo(waiting + 1);
+        assertThat(registry.find("spring.data.repository.invocations")
+                .tag("method", "findAllByOwnerIdAndStateFuture").timer())
+                .isNotNull()
+                .satisfies(timer -> assertThat(timer.count()).isPositive());
+    }
+
+    @Test
+    void hibernateStatisticsArePublished() {
+        addUser("metrics-statistics");
+
+        assertThat(registry.find("hibernate.statements").tag("status", "prepared").functionCounter())
+                .isNotNull()
+                .satisfies(counter -> assertThat(counter.count()).isPositive());
+        assertThat(registry.find("hibernate.entities.inserts").functionCounter()).isNotNull();
+        assertThat(registry.find("hibernate.entities.loads").functionCounter()).isNotNull();
+        assertThat(registry.find("cache.gets").tags("cache", "items", "result", "hit").functionCounter()).isNotNull();
+    }
+
+    private Timer listTimer(String role, String state) {
+        return registry.get(BookingListMetrics.TIMER)
+                .tags("role", role, "state", state, "paging", "offset")
+                .timer();
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@metrics.ru").build()).getId();
+    }
+}
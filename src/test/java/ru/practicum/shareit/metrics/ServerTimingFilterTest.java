@@ -0,0 +1,99 @@
+package ru.practicum.shareit.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.mapper.UserMapper;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import javax.sql.DataSource;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.server-timing.enabled=true")
+@AutoConfigureMockMvc
+class ServerTimingFilterTest {
+    private static final Pattern TIMING = Pattern.compile("db;dur=[\\d.]+;desc=\"(\\d+) statements\", "
+            + "mapping;dur=([\\d.]+), serialization;dur=([\\d.]+), total;dur=([\\d.]+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void itemResponseCarriesDbAndSerializationBreakdown() throws Exception {
+        long ownerId = userService.addUser(UserDto.builder().name("timing").email("timing@timing.ru").build())
+                .getId();
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Мангал").description("Складной")
+                .available(true).build(), ownerId).getId();
+
+        String header = mockMvc.perform(get("/items/{itemId}", itemId).header(Constants.HEADER_USER_ID, ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Мангал"))
+                .andReturn().getResponse().getHeader(ServerTimingFilter.HEADER);
+
+        assertThat(header).matches(TIMING);
+        Matcher matcher = TIMING.matcher(header);
+        assertThat(matcher.matches()).isTrue();
+        assertThat(Integer.parseInt(matcher.group(1))).isPositive();
+        assertThat(Double.parseDouble(matcher.group(3))).isPositive();
+        assertThat(Double.parseDouble(matcher.group(2)) + Double.parseDouble(matcher.group(3)))
+                .isLessThanOrEqualTo(Double.parseDouble(matcher.group(4)));
+    }
+
+    @Test
+    void mappingIsMeasuredOnlyInsideTimedRequest() {
+        User user = new User(1L, "timing", "timing@timing.ru");
+        UserMapper.toDto(user);
+
+        RequestTimings timings = RequestTimings.start();
+        try {
+            assertThat(UserMapper.toDto(user).getName()).isEqualTo("timing");
+        } finally {
+            RequestTimings.clear();
+        }
+
+        assertThat(timings.mappingNanos()).isPositive();
+        assertThat(timings.statements()).isZero();
+    }
+
+    @Test
+    void wrappedDataSourceKeepsCloseOfPool() throws Exception {
+        assertThat(dataSource).isInstanceOf(AutoCloseable.class);
+        assertThat(dataSource.isWrapperFor(HikariDataSource.class)).isTrue();
+
+        HikariDataSource pool = new HikariDataSource();
+        Object wrapped = new TimedDataSource().postProcessAfterInitialization(pool, "dataSource");
+        assertThat(wrapped).isInstanceOf(DataSource.class).isNotSameAs(pool);
+        ((AutoCloseable) wrapped).close();
+
+        assertThat(pool.isClosed()).isTrue();
+    }
+
+    @Test
+    void errorResponsesAreTimedToo() throws Exception {
+        String header = mockMvc.perform(get("/items/{itemId}", Long.MAX_VALUE).header(Constants.HEADER_USER_ID, 1))
+                .andExpect(status().isNotFound())
+                .andReturn().getResponse().getHeader(ServerTimingFilter.HEADER);
+
+        assertThat(header).matches(TIMING);
+    }
+}
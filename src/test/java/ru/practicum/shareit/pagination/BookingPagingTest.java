@@ -0,0 +1,144 @@
+package ru.practicum.shareit.pagination;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.BookingDtoOut;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.exception.InvalidCursorException;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingPagingTest {
+    private static final int BOOKINGS = 25;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void pagesContinueFromNextCursorHeader() throws Exception {
+        Seed seed = seed("paging-cursor");
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MvcResult page = mockMvc.perform(get("/bookings/owner").param("size", "10").param("cursor", cursor)
+                    .header(Constants.HEADER_USER_ID, seed.ownerId())).andReturn();
+            assertThat(page.getResponse().getStatus()).isEqualTo(200);
+            ids.addAll(ids(page));
+            cursor = page.getResponse().getHeader(Constants.HEADER_NEXT_CURSOR);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(ids).isEqualTo(seed.newestFirst());
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    void listWithoutPagingParametersIsComplete() throws Exception {
+        Seed seed = seed("paging-complete");
+
+        MvcResult all = mockMvc.perform(get("/bookings").header(Constants.HEADER_USER_ID, seed.bookerId()))
+                .andReturn();
+
+        assertThat(ids(all)).isEqualTo(seed.newestFirst());
+        assertThat(all.getResponse().getHeader(Constants.HEADER_NEXT_CURSOR)).isNull();
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        long userId = userService.addUser(UserDto.builder().name("paging-bad").email("paging-bad@paging.ru").build())
+                .getId();
+
+        for (String cursor : List.of("не-курсор", "bm90LWEtZGF0ZXw1", "MjAyNC0wMS0wMVQxMDowMA")) {
+            assertThat(mockMvc.perform(get("/bookings").param("cursor", cursor)
+                    .header(Constants.HEADER_USER_ID, userId)).andReturn().getResponse().getStatus())
+                    .isEqualTo(400);
+            assertThatThrownBy(() -> KeysetCursor.decode(cursor)).isInstanceOf(InvalidCursorException.class);
+        }
+    }
+
+    @Test
+    void offsetNeedNotBeMultipleOfSize() {
+        Seed seed = seed("paging-offset");
+
+        List<Long> page = bookingService.getAllByBooker("ALL", seed.bookerId(), 3, 5).stream()
+                .map(BookingDtoOut::getId).toList();
+
+        assertThat(page).isEqualTo(seed.newestFirst().subList(3, 8));
+        OffsetPageRequest request = new OffsetPageRequest(3, 5, Sort.unsorted());
+        assertThat(request.getOffset()).isEqualTo(3);
+        assertThat(request.next().getOffset()).isEqualTo(8);
+        assertThat(request.previousOrFirst().getOffset()).isZero();
+    }
+
+    @Test
+    void cursorFromServicePageContinuesWithoutGapsOrRepeats() {
+        Seed seed = seed("paging-service");
+
+        List<BookingDtoOut> first = bookingService.getAllByOwner(seed.ownerId(), "ALL", 0, 10);
+        BookingDtoOut last = first.get(first.size() - 1);
+        List<BookingDtoOut> second = bookingService.getAllByOwner(seed.ownerId(), "FUTURE",
+                KeysetCursor.decode(new KeysetCursor(last.getStart(), last.getId()).encode()), 10);
+
+        assertThat(second).extracting(BookingDtoOut::getId).isEqualTo(seed.newestFirst().subList(10, 20));
+    }
+
+    private static List<Long> ids(MvcResult result) throws Exception {
+        return JsonPath.<List<Number>>read(result.getResponse().getContentAsString(), "$[*].id").stream()
+                .map(Number::longValue).toList();
+    }
+
+    /**
+     * Владелец с одной вещью и {@value #BOOKINGS} последовательными будущими бронированиями одного букера.
+     */
+    private Seed seed(String name) {
+        long ownerId = addUser(name + "-owner");
+        long bookerId = addUser(name + "-booker");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Палатка").description("Трёхместная")
+                .available(true).build(), ownerId).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            ids.add(bookingService.addBooking(BookingItemDto.builder().itemId(itemId).start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1)).build(), bookerId).getId());
+        }
+        ids.sort(Comparator.reverseOrder());
+        return new Seed(ownerId, bookerId, ids);
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@paging.ru").build()).getId();
+    }
+
+    private record Seed(long ownerId, long bookerId, List<Long> newestFirst) {
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.replica;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Основная база и реплика - два независимых H2 без репликации, поэтому по пустому ответу видно,
+ * что чтение ушло на реплику.
+ */
+@SpringBootTest(properties = {
+        "shareit.replica.enabled=true",
+        "shareit.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:schema.sql'",
+        "shareit.replica.read-your-writes-window=1s"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void readOnlyTransactionsReadFromReplicaUnlessUserRecentlyWrote() throws Exception {
+        long ownerId = userService.addUser(UserDto.builder().name("replica-owner").email("owner@replica.ru").build())
+                .getId();
+        mockMvc.perform(post("/items").header(Constants.HEADER_USER_ID, ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Гамак\", \"description\": \"Походный\", \"available\": true}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items").header(Constants.HEADER_USER_ID, ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        assertThat(itemService.getItemBySearch("Гамак")).isEmpty();
+        assertThat(ReplicaRouting.callWith(true, () -> itemService.getItemBySearch("Гамак"))).hasSize(1);
+
+        Thread.sleep(1500);
+
+        mockMvc.perform(get("/items").header(Constants.HEADER_USER_ID, ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TrigramItemSearchEngineTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private TrigramItemSearchEngine engine;
+
+    @Test
+    void searchReturnsSameItemsAsLikeQuery() {
+        long ownerId = userService.addUser(UserDto.builder().name("owner").email("search-owner@mail.ru").build())
+                .getId();
+        itemService.addItem(item("Дрель", "Простая дрель", true), ownerId);
+        itemService.addItem(item("Аккумуляторная дрель", "Аккумулятор в комплекте", true), ownerId);
+        itemService.addItem(item("Отвёртка", "Аккумуляторная отвёртка", false), ownerId);
+        ItemDtoOut saw = itemService.addItem(item("Пила", "Ножовка по дереву", true), ownerId);
+
+        assertSameAsLike("дрель", "ДРЕЛЬ", "аккумулятор", "отвёртка", "ножовка", "дерев", "др", "100%", "нет такого");
+
+        itemService.updateItem(saw.getId(), ItemDtoIn.builder().name("Лобзик").available(false).build(), ownerId);
+        assertSameAsLike("пила", "лобзик", "ножовка");
+        assertThat(engine.search("ножовка")).isEmpty();
+
+        itemService.updateItem(saw.getId(), ItemDtoIn.builder().available(true).build(), ownerId);
+        assertSameAsLike("пила", "лобзик", "ножовка");
+        assertThat(engine.search("лобзик")).extracting(Item::getId).containsExactly(saw.getId());
+    }
+
+    private void assertSameAsLike(String... queries) {
+        for (String query : queries) {
+            List<Long> expected = itemRepository.search(query).stream().map(Item::getId).sorted().toList();
+            assertThat(engine.search(query)).extracting(Item::getId).as(query).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private static ItemDtoIn item(String name, String description, boolean available) {
+        return ItemDtoIn.builder().name(name).description(description).available(available).build();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.dto.BookingDtoOut;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.util.SqlStatementBudget;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.util.SqlStatementBudget.assertAtMost;
+
+@SpringBootTest
+class BookingListingQueryCountTest {
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void ownerListingCostsSameStatementsForAnyPageSize() {
+        long fewOwner = seed("owner-few", 2);
+        long manyOwner = seed("owner-many", 30);
+
+        int few = countStatements(() -> bookingService.getAllByOwner(fewOwner, "ALL", 0, PAGE_SIZE), 2);
+        int many = countStatements(() -> bookingService.getAllByOwner(manyOwner, "ALL", 0, PAGE_SIZE), 30);
+        assertThat(many).isEqualTo(few).isLessThanOrEqualTo(2);
+
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.now().plusYears(1), Long.MAX_VALUE);
+        assertThat(countStatements(() -> bookingService.getAllByOwner(manyOwner, "FUTURE", cursor, PAGE_SIZE), 30))
+                .isEqualTo(few);
+    }
+
+    @Test
+    void bookerListingDoesNotLoadItemsAndOwnersOneByOne() {
+        long bookerId = addUser("booker-of-many");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 20; i++) {
+            long ownerId = addUser("lender-" + i);
+            bookingService.addBooking(BookingItemDto.builder().itemId(addItem(ownerId)).start(start)
+                    .end(start.plusDays(1)).build(), bookerId);
+        }
+
+        assertThat(assertAtMost("getAllByBooker", 2,
+                () -> bookingService.getAllByBooker("ALL", bookerId, 0, PAGE_SIZE))).hasSize(20);
+    }
+
+    private static int countStatements(Supplier<List<BookingDtoOut>> listing, int expectedSize) {
+        SqlStatementBudget.Recorded<List<BookingDtoOut>> recorded = SqlStatementBudget.record(listing);
+        assertThat(recorded.result()).hasSize(expectedSize);
+        return recorded.count();
+    }
+
+    /**
+     * Создаёт владельца с указанным числом вещей, у каждой из которых своё бронирование от своего пользователя.
+     */
+    private long seed(String owner, int bookings) {
+        long ownerId = addUser(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < bookings; i++) {
+            long bookerId = addUser(owner + "-booker-" + i);
+            bookingService.addBooking(BookingItemDto.builder().itemId(addItem(ownerId)).start(start.plusHours(i))
+                    .end(start.plusHours(i + 1)).build(), bookerId);
+        }
+        return ownerId;
+    }
+
+    private long addItem(long ownerId) {
+        return itemService.addItem(ItemDtoIn.builder().name("Дрель").description("Ударная")
+                .available(true).build(), ownerId).getId();
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@listing.ru").build()).getId();
+    }
+}
@@ -0,0 +1,211 @@
+package ru.practicum.shareit.service;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.model.Comment;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.ItemBookingSummary;
+import ru.practicum.shareit.repository.CommentRepository;
+import ru.practicum.shareit.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.util.SqlStatementBudget;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static ru.practicum.shareit.util.SqlStatementBudget.assertAtMost;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemQueryBudgetTest {
+    private static final int OWNER_ITEMS_BUDGET = 4;
+    private static final int ITEM_BUDGET = 4;
+    /**
+     * Устаревшие сводки пересчитываются двумя запросами на все вещи: последние и ближайшие бронирования.
+     */
+    private static final int STALE_OWNER_ITEMS_BUDGET = OWNER_ITEMS_BUDGET + 2;
+    private static final int EMBEDDED_COMMENTS = 10;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void ownerItemsCostSameStatementsForAnyItemCount() {
+        long fewOwner = seed("budget-few", 2);
+        long manyOwner = seed("budget-many", 20);
+
+        int few = SqlStatementBudget.record(() -> itemService.getItemsByOwner(fewOwner)).count();
+        List<ItemDtoOut> items = assertAtMost("getItemsByOwner", OWNER_ITEMS_BUDGET,
+                () -> itemService.getItemsByOwner(manyOwner));
+
+        assertThat(items).hasSize(20).allSatisfy(item -> {
+            assertThat(item.getNextBooking()).isNotNull();
+            assertThat(item.getComments()).hasSize(2);
+        });
+        assertThat(SqlStatementBudget.record(() -> itemService.getItemsByOwner(manyOwner)).count()).isEqualTo(few);
+    }
+
+    @Test
+    void staleSummariesAreRecomputedForAllItemsAtOnce() {
+        long fewOwner = seed("budget-stale-few", 2);
+        long manyOwner = seed("budget-stale-many", 20);
+        expireSummaries(fewOwner);
+        expireSummaries(manyOwner);
+
+        int few = SqlStatementBudget.record(() -> itemService.getItemsByOwner(fewOwner)).count();
+        List<ItemDtoOut> items = assertAtMost("getItemsByOwner с устаревшими сводками", STALE_OWNER_ITEMS_BUDGET,
+                () -> itemService.getItemsByOwner(manyOwner));
+
+        assertThat(items).hasSize(20).allSatisfy(item -> assertThat(item.getNextBooking()).isNotNull());
+        assertThat(SqlStatementBudget.record(() -> itemService.getItemsByOwner(manyOwner)).count()).isEqualTo(few);
+    }
+
+    @Test
+    void itemCostsSameStatementsForAnyCommentCount() {
+        long ownerId = seed("budget-single", 1);
+        long itemId = itemService.getItemsByOwner(ownerId).get(0).getId();
+        for (int i = 0; i < 10; i++) {
+            comment(itemId, addUser("budget-single-guest-" + i));
+        }
+
+        ItemDtoOut item = assertAtMost("getItemById", ITEM_BUDGET, () -> itemService.getItemById(itemId, ownerId));
+        assertThat(item.getComments()).hasSize(EMBEDDED_COMMENTS);
+        assertThat(item.getComments().get(0).getAuthorName()).isEqualTo("budget-single-guest-9");
+        assertThat(item.getCommentsCount()).isEqualTo(12);
+        assertThat(item.getNextBooking()).isNotNull();
+    }
+
+    @Test
+    void ownerItemsEmbedNewestCommentsOfEachItem() {
+        long ownerId = seed("budget-top", 3);
+        long popularId = itemService.getItemsByOwner(ownerId).get(0).getId();
+        for (int i = 0; i < 12; i++) {
+            comment(popularId, addUser("budget-top-guest-" + i));
+        }
+
+        List<ItemDtoOut> items = assertAtMost("getItemsByOwner", OWNER_ITEMS_BUDGET,
+                () -> itemService.getItemsByOwner(ownerId));
+
+        ItemDtoOut popular = items.stream().filter(item -> item.getId() == popularId).findFirst().orElseThrow();
+        assertThat(popular.getComments()).hasSize(EMBEDDED_COMMENTS);
+        assertThat(popular.getComments().get(0).getAuthorName()).isEqualTo("budget-top-guest-11");
+        assertThat(popular.getCommentsCount()).isEqualTo(14);
+        assertThat(items).filteredOn(item -> item.getId() != popularId).allSatisfy(item -> {
+            assertThat(item.getComments()).hasSize(2);
+            assertThat(item.getCommentsCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void commentsArePagedNewestFirstByCursor() throws Exception {
+        long ownerId = seed("budget-pages", 1);
+        long itemId = itemService.getItemsByOwner(ownerId).get(0).getId();
+        for (int i = 0; i < 10; i++) {
+            comment(itemId, addUser("budget-pages-guest-" + i));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MvcResult page = mockMvc.perform(get("/items/{itemId}/comments", itemId).param("size", "5")
+                    .param("cursor", cursor)).andReturn();
+            assertThat(page.getResponse().getStatus()).isEqualTo(200);
+            ids.addAll(JsonPath.<List<Number>>read(page.getResponse().getContentAsString(), "$[*].id").stream()
+                    .map(Number::longValue).toList());
+            cursor = page.getResponse().getHeader(Constants.HEADER_NEXT_CURSOR);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(ids).hasSize(12).doesNotHaveDuplicates().isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(pages).isEqualTo(3);
+        assertThat(mockMvc.perform(get("/items/{itemId}/comments", Long.MAX_VALUE)).andReturn()
+                .getResponse().getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void ownerItemsRequestStaysWithinBudget() {
+        long ownerId = seed("budget-http", 10);
+
+        assertThat(assertAtMost("GET /items", OWNER_ITEMS_BUDGET, () -> getItems(ownerId)).getResponse().getStatus())
+                .isEqualTo(200);
+    }
+
+    private MvcResult getItems(long ownerId) {
+        try {
+            return mockMvc.perform(get("/items").header(Constants.HEADER_USER_ID, ownerId)).andReturn();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Создаёт владельца с указанным числом вещей; у каждой вещи подтверждённое будущее бронирование
+     * и два комментария от разных авторов.
+     */
+    private long seed(String owner, int items) {
+        long ownerId = addUser(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < items; i++) {
+            long itemId = itemService.addItem(ItemDtoIn.builder().name("Байдарка").description("Двухместная")
+                    .available(true).build(), ownerId).getId();
+            long bookerId = addUser(owner + "-booker-" + i);
+            long bookingId = bookingService.addBooking(BookingItemDto.builder().itemId(itemId).start(start)
+                    .end(start.plusDays(1)).build(), bookerId).getId();
+            bookingService.approve(bookingId, true, ownerId);
+            comment(itemId, bookerId);
+            comment(itemId, addUser(owner + "-reader-" + i));
+        }
+        return ownerId;
+    }
+
+    /**
+     * Помечает сводки вещей владельца устаревшими, как после начала ближайшего бронирования.
+     */
+    private void expireSummaries(long ownerId) {
+        List<Long> itemIds = itemRepository.findAllByOwnerId(ownerId).stream().map(Item::getId).toList();
+        List<ItemBookingSummary> summaries = summaryRepository.findAllById(itemIds);
+        summaries.forEach(summary -> summary.setRefreshAt(LocalDateTime.now().minusMinutes(1)));
+        summaryRepository.saveAll(summaries);
+    }
+
+    private void comment(long itemId, long authorId) {
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        item.setCommentsCount(item.getCommentsCount() + 1);
+        commentRepository.save(new Comment(0, "Отличная вещь", itemRepository.save(item),
+                userRepository.findById(authorId).orElseThrow(), LocalDateTime.now()));
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@budget.ru").build()).getId();
+    }
+}
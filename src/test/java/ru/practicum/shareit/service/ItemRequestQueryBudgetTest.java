@@ -0,0 +1,144 @@
+package ru.practicum.shareit.service;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.constant.Constants;
+import ru.practicum.shareit.dto.ItemAnswerDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemRequestDto;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.util.SqlStatementBudget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.util.SqlStatementBudget.assertAtMost;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemRequestQueryBudgetTest {
+    /**
+     * Проверка пользователя, страница запросов и ответы на все запросы страницы.
+     */
+    private static final int FEED_BUDGET = 3;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void feedPageCostsSameStatementsForAnyRequestCount() {
+        long fewRequestor = addUser("requests-few");
+        long manyRequestor = addUser("requests-many");
+        long reader = addUser("requests-reader");
+        seed(fewRequestor, 1);
+        List<Long> requestIds = seed(manyRequestor, 20);
+
+        int few = SqlStatementBudget.record(() -> itemRequestService.getOwnRequests(fewRequestor, null, 50)).count();
+        List<ItemRequestDto> own = assertAtMost("getOwnRequests", FEED_BUDGET,
+                () -> itemRequestService.getOwnRequests(manyRequestor, null, 50));
+        assertThat(few).isEqualTo(SqlStatementBudget.record(() ->
+                itemRequestService.getOwnRequests(manyRequestor, null, 50)).count());
+
+        assertThat(own).extracting(ItemRequestDto::getId).containsExactlyElementsOf(requestIds.reversed());
+        assertThat(own).allSatisfy(request -> assertThat(request.getItems()).hasSize(2)
+                .extracting(ItemAnswerDto::getName)
+                .allSatisfy(name -> assertThat(name).startsWith("Ответ на " + request.getDescription())));
+
+        List<ItemRequestDto> others = assertAtMost("getOtherRequests", FEED_BUDGET,
+                () -> itemRequestService.getOtherRequests(reader, null, 10));
+        assertThat(others).hasSize(10).allSatisfy(request -> assertThat(request.getItems()).hasSize(2));
+        assertThat(itemRequestService.getOtherRequests(manyRequestor, null, 50))
+                .extracting(ItemRequestDto::getId)
+                .doesNotContainAnyElementsOf(requestIds);
+    }
+
+    @Test
+    void feedIsPagedByCursor() throws Exception {
+        long requestor = addUser("requests-paged");
+        long reader = addUser("requests-paged-reader");
+        List<Long> requestIds = seed(requestor, 5);
+
+        MvcResult first = mockMvc.perform(get("/requests").header(Constants.HEADER_USER_ID, requestor)
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(requestIds.get(4)))
+                .andExpect(jsonPath("$[0].items.length()").value(2))
+                .andReturn();
+        String cursor = first.getResponse().getHeader(Constants.HEADER_NEXT_CURSOR);
+        assertThat(cursor).isNotNull();
+
+        MvcResult second = mockMvc.perform(get("/requests").header(Constants.HEADER_USER_ID, requestor)
+                        .param("size", "3").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<Integer> ids = JsonPath.read(second.getResponse().getContentAsString(), "$[*].id");
+        assertThat(ids.stream().map(Integer::longValue).toList())
+                .containsExactly(requestIds.get(1), requestIds.get(0));
+        assertThat(second.getResponse().getHeader(Constants.HEADER_NEXT_CURSOR)).isNull();
+
+        mockMvc.perform(get("/requests/{id}", requestIds.get(0)).header(Constants.HEADER_USER_ID, reader))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("requests-paged-0"))
+                .andExpect(jsonPath("$.items[0].ownerId").isNumber());
+    }
+
+    @Test
+    void requestsAreValidatedAndMustExistForAnswers() throws Exception {
+        long requestor = addUser("requests-invalid");
+
+        mockMvc.perform(post("/requests").header(Constants.HEADER_USER_ID, requestor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \" \"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/requests/{id}", Long.MAX_VALUE).header(Constants.HEADER_USER_ID, requestor))
+                .andExpect(status().isNotFound());
+        assertThatThrownBy(() -> itemService.addItem(ItemDtoIn.builder().name("Дрель").description("Ударная")
+                .available(true).requestId(Long.MAX_VALUE).build(), requestor))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    /**
+     * Создаёт запросы по одному с двумя ответами на каждый от другого пользователя.
+     */
+    private List<Long> seed(long requestor, int count) {
+        String name = userService.getUserById(requestor).getName();
+        long answerer = addUser(name + "-answerer");
+        List<Long> requestIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ItemRequestDto request = itemRequestService.addRequest(
+                    new ItemRequestDto(0, name + "-" + i, null, null), requestor);
+            requestIds.add(request.getId());
+            List<ItemDtoIn> answers = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                answers.add(ItemDtoIn.builder().name("Ответ на " + request.getDescription() + " #" + j)
+                        .description("Есть такая").available(true).requestId(request.getId()).build());
+            }
+            itemService.addItems(answers, answerer);
+        }
+        return requestIds;
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@requests.ru").build()).getId();
+    }
+}
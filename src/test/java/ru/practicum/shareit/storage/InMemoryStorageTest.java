@@ -0,0 +1,235 @@
+package ru.practicum.shareit.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.dto.BookingDtoOut;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.CommentDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.dto.ItemRequestDto;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.enums.BookingStatus;
+import ru.practicum.shareit.exception.DuplicateEmailException;
+import ru.practicum.shareit.export.BookingExporter;
+import ru.practicum.shareit.export.ExportFormat;
+import ru.practicum.shareit.model.Booking;
+import ru.practicum.shareit.model.Item;
+import ru.practicum.shareit.model.User;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.repository.BookingRepository;
+import ru.practicum.shareit.repository.ItemRepository;
+import ru.practicum.shareit.repository.UserRepository;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemRequestService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "shareit.search.engine=like")
+@ActiveProfiles({"test", InMemoryStorage.PROFILE})
+class InMemoryStorageTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private BookingExporter bookingExporter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void bookingsListedByStateWithOffsetAndKeysetPaging() throws Exception {
+        User owner = addUser("memory-owner");
+        User booker = addUser("memory-booker");
+        Item item = addItem(owner, "Палатка");
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking past = save(now.minusDays(5), now.minusDays(4), item, booker, BookingStatus.APPROVED);
+        Booking rejected = save(now.minusDays(3), now.minusDays(2), item, booker, BookingStatus.REJECTED);
+        Booking current = save(now.minusDays(1), now.plusDays(1), item, booker, BookingStatus.APPROVED);
+        long future = addBooking(item, booker, now.plusDays(3), now.plusDays(4));
+
+        assertThat(bookingService.approve(future, true, owner.getId()).getStatus()).isEqualTo(BookingStatus.APPROVED);
+
+        assertThat(ids(bookingService.getAllByBooker("ALL", booker.getId(), 0, 10)))
+                .containsExactly(future, current.getId(), rejected.getId(), past.getId());
+        assertThat(ids(bookingService.getAllByOwner(owner.getId(), "ALL", 1, 2)))
+                .containsExactly(current.getId(), rejected.getId());
+        assertThat(ids(bookingService.getAllByOwner(owner.getId(), "PAST", 0, 10)))
+                .containsExactly(rejected.getId(), past.getId());
+        assertThat(ids(bookingService.getAllByBooker("CURRENT", booker.getId(), 0, 10)))
+                .containsExactly(current.getId());
+        assertThat(ids(bookingService.getAllByBooker("FUTURE", booker.getId(), 0, 10))).containsExactly(future);
+        assertThat(ids(bookingService.getAllByOwner(owner.getId(), "REJECTED", 0, 10)))
+                .containsExactly(rejected.getId());
+        assertThat(ids(bookingService.getAllByBooker("ALL", booker.getId(),
+                new KeysetCursor(current.getStart(), current.getId()), 10)))
+                .containsExactly(rejected.getId(), past.getId());
+        assertThat(ids(bookingService.getAllByOwner(owner.getId(), "ALL",
+                new KeysetCursor(rejected.getStart(), rejected.getId()), 10)))
+                .containsExactly(past.getId());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingExporter.stream(BookingExporter.Party.OWNER, owner.getId(), ExportFormat.NDJSON).writeTo(out);
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(4).first().asString()
+                .contains("\"id\":" + future, "\"item_name\":\"Палатка\"");
+    }
+
+    @Test
+    void itemViewCombinesSummaryCommentsAndRequests() {
+        User owner = addUser("memory-item-owner");
+        User booker = addUser("memory-item-booker");
+        // вещь без сводки: сводка будет вычислена по бронированиям при подтверждении
+        Item item = itemRepository.save(new Item(null, "Байдарка", "Двухместная", true, owner));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking last = save(now.minusDays(2), now.minusDays(1), item, booker, BookingStatus.APPROVED);
+        long next = addBooking(item, booker, now.plusDays(1), now.plusDays(2));
+        bookingService.approve(next, true, owner.getId());
+
+        itemService.addComment(item.getId(), new CommentDto(0, "Не протекает", null, null), booker.getId());
+
+        ItemDtoOut view = itemService.getItemById(item.getId(), owner.getId());
+        assertThat(view.getLastBooking().getId()).isEqualTo(last.getId());
+        assertThat(view.getNextBooking().getId()).isEqualTo(next);
+        assertThat(view.getCommentsCount()).isEqualTo(1);
+        assertThat(view.getComments()).extracting(CommentDto::getText).containsExactly("Не протекает");
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getVersion())
+                .isGreaterThan(item.getVersion());
+
+        long requestId = itemRequestService.addRequest(new ItemRequestDto(0, "Нужно весло", null, null),
+                booker.getId()).getId();
+        long answerId = itemService.addItem(ItemDtoIn.builder().name("Весло").description("Карбон").available(true)
+                .requestId(requestId).build(), owner.getId()).getId();
+        assertThat(itemService.getItemBySearch("вЕсЛ")).extracting(ItemDtoOut::getId).contains(answerId);
+        assertThat(itemRequestService.getOtherRequests(owner.getId(), null, 10)).first()
+                .satisfies(request -> assertThat(request.getItems()).singleElement()
+                        .satisfies(answer -> assertThat(answer.getId()).isEqualTo(answerId)));
+    }
+
+    @Test
+    void failedTransactionLeavesNoChanges() {
+        User user = addUser("memory-rollback");
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            userRepository.findById(user.getId()).orElseThrow().setName("Изменённое имя");
+            userRepository.save(new User(0, "memory-rollback-new", "memory-rollback-new@memory.ru"));
+            throw new IllegalStateException("откат");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getName()).isEqualTo("memory-rollback");
+        assertThat(userRepository.existsByEmail("memory-rollback-new@memory.ru")).isFalse();
+    }
+
+    @Test
+    void uniqueEmailAndVersionsAreEnforced() {
+        User user = addUser("memory-unique");
+        addUser("memory-unique-other");
+
+        assertThatThrownBy(() -> userService.updateUser(user.getId(),
+                UserDto.builder().email("memory-unique-other@memory.ru").build()))
+                .isInstanceOf(DuplicateEmailException.class);
+        assertThatThrownBy(() -> userRepository.saveAndFlush(new User(0, "copy", "memory-unique@memory.ru")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        userService.updateUser(user.getId(), UserDto.builder().name("memory-unique-renamed").build());
+        user.setName("устаревшая копия");
+        assertThatThrownBy(() -> userRepository.save(user))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getName()).isEqualTo("memory-unique-renamed");
+    }
+
+    @Test
+    void queriesByExampleMatchLikeJpa() {
+        User first = addUser("memory-example-a");
+        User second = addUser("memory-example-b");
+        Item tent = addItem(first, "Палатка-пример");
+        addItem(second, "Палатка-пример");
+        ExampleMatcher byName = ExampleMatcher.matching().withIgnorePaths("id", "version")
+                .withStringMatcher(ExampleMatcher.StringMatcher.STARTING);
+        Example<User> prefix = Example.of(new User(0, "memory-example", null), byName);
+
+        assertThat(userRepository.findAll(prefix, Sort.by(Sort.Direction.DESC, "name")))
+                .extracting(User::getId).containsExactly(second.getId(), first.getId());
+        assertThat(userRepository.count(prefix)).isEqualTo(2);
+        assertThat(userRepository.findAll(prefix, PageRequest.of(1, 1, Sort.by("name"))).getContent())
+                .extracting(User::getId).containsExactly(second.getId());
+        assertThatThrownBy(() -> userRepository.findOne(prefix))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+        assertThat(userRepository.findOne(Example.of(new User(0, "MEMORY-EXAMPLE-A", null),
+                ExampleMatcher.matching().withIgnorePaths("id", "version").withIgnoreCase())))
+                .map(User::getId).contains(first.getId());
+        assertThat(userRepository.findAll(Example.of(new User(0, "memory-example-a", "memory-example-b@memory.ru"),
+                ExampleMatcher.matchingAny().withIgnorePaths("id", "version")))).hasSize(2);
+        assertThat(userRepository.exists(Example.of(new User(0, "memory-example-c", null),
+                ExampleMatcher.matching().withIgnorePaths("id", "version")))).isFalse();
+
+        Item probe = new Item();
+        probe.setName("Палатка-пример");
+        probe.setOwner(new User(0, "memory-example-a", null));
+        Example<Item> byOwnerName = Example.of(probe, ExampleMatcher.matching()
+                .withIgnorePaths("commentsCount", "version", "owner.id", "owner.version"));
+        assertThat(itemRepository.findAll(byOwnerName)).extracting(Item::getId).containsExactly(tent.getId());
+
+        List<String> names = userRepository.findBy(prefix, query -> query.sortBy(Sort.by("name"))
+                .as(NameView.class).all()).stream().map(NameView::getName).toList();
+        assertThat(names).containsExactly("memory-example-a", "memory-example-b");
+        long counted = userRepository.findBy(prefix, query -> query.count());
+        assertThat(counted).isEqualTo(2);
+    }
+
+    private long addBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        return bookingService.addBooking(BookingItemDto.builder().itemId(item.getId()).start(start).end(end).build(),
+                booker.getId()).getId();
+    }
+
+    private Booking save(LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        return bookingRepository.save(new Booking(0, start, end, item, booker, status));
+    }
+
+    private Item addItem(User owner, String name) {
+        long id = itemService.addItem(ItemDtoIn.builder().name(name).description("Для похода").available(true)
+                .build(), owner.getId()).getId();
+        return itemRepository.findById(id).orElseThrow();
+    }
+
+    private User addUser(String name) {
+        long id = userService.addUser(UserDto.builder().name(name).email(name + "@memory.ru").build()).getId();
+        return userRepository.findById(id).orElseThrow();
+    }
+
+    private static List<Long> ids(List<BookingDtoOut> bookings) {
+        return bookings.stream().map(BookingDtoOut::getId).toList();
+    }
+
+    interface NameView {
+        String getName();
+    }
+}
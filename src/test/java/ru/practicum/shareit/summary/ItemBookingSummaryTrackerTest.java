@@ -0,0 +1,99 @@
+package ru.practicum.shareit.summary;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.model.ItemBookingSummary;
+import ru.practicum.shareit.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ItemBookingSummaryTrackerTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemBookingSummaryTracker tracker;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+
+    @Test
+    void summaryFollowsApprovalsAndTime() throws InterruptedException {
+        long ownerId = addUser("summary-owner");
+        long bookerId = addUser("summary-booker");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Пила").description("Цепная")
+                .available(true).build(), ownerId).getId();
+        LocalDateTime soon = LocalDateTime.now().plusSeconds(2).truncatedTo(ChronoUnit.SECONDS);
+        long first = approve(itemId, bookerId, soon, soon.plusDays(1));
+        long later = approve(itemId, bookerId, soon.plusDays(3), soon.plusDays(4));
+        long rejected = bookingService.addBooking(BookingItemDto.builder().itemId(itemId)
+                .start(soon.plusDays(1)).end(soon.plusDays(2)).build(), bookerId).getId();
+        bookingService.approve(rejected, false, ownerId);
+
+        ItemDtoOut item = itemService.getItemById(itemId, ownerId);
+        assertThat(item.getLastBooking()).isNull();
+        assertThat(item.getNextBooking().getId()).isEqualTo(first);
+        assertThat(summaryRepository.findById(itemId).orElseThrow().getRefreshAt()).isEqualTo(soon);
+
+        Thread.sleep(Duration.between(LocalDateTime.now(), soon).toMillis() + 100);
+        item = itemService.getItemsByOwner(ownerId).get(0);
+        assertThat(item.getLastBooking().getId()).isEqualTo(first);
+        assertThat(item.getNextBooking().getId()).isEqualTo(later);
+
+        tracker.refreshStale();
+        ItemBookingSummary summary = summaryRepository.findById(itemId).orElseThrow();
+        assertThat(summary.getLastBooking().getBookingId()).isEqualTo(first);
+        assertThat(summary.getNextBooking().getBookingId()).isEqualTo(later);
+        assertThat(summary.getRefreshAt()).isEqualTo(soon.plusDays(3));
+    }
+
+    @Test
+    void approvalAndRecomputationPickSameBookings() {
+        long ownerId = addUser("summary-order-owner");
+        long bookerId = addUser("summary-order-booker");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Лодка").description("Надувная")
+                .available(true).build(), ownerId).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        approve(itemId, bookerId, start.plusDays(2), start.plusDays(3));
+        long earlier = approve(itemId, bookerId, start, start.plusDays(1));
+
+        ItemBookingSummary approved = summaryRepository.findById(itemId).orElseThrow();
+        assertThat(approved.getNextBooking().getBookingId()).isEqualTo(earlier);
+        assertThat(approved.getRefreshAt()).isEqualTo(start);
+
+        approved.setRefreshAt(LocalDateTime.now().minusMinutes(1));
+        summaryRepository.save(approved);
+        tracker.refreshStale();
+        ItemBookingSummary recomputed = summaryRepository.findById(itemId).orElseThrow();
+        assertThat(recomputed.getNextBooking()).isEqualTo(approved.getNextBooking());
+        assertThat(recomputed.getLastBooking()).isNull();
+        assertThat(recomputed.getRefreshAt()).isEqualTo(start);
+    }
+
+    private long approve(long itemId, long bookerId, LocalDateTime start, LocalDateTime end) {
+        long bookingId = bookingService.addBooking(BookingItemDto.builder().itemId(itemId).start(start).end(end)
+                .build(), bookerId).getId();
+        long ownerId = itemService.getItemById(itemId, bookerId).getOwner().getId();
+        bookingService.approve(bookingId, true, ownerId);
+        return bookingId;
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@summary.ru").build()).getId();
+    }
+}
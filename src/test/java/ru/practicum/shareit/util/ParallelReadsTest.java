@@ -0,0 +1,67 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.dto.BookingItemDto;
+import ru.practicum.shareit.dto.ItemDtoIn;
+import ru.practicum.shareit.dto.ItemDtoOut;
+import ru.practicum.shareit.dto.UserDto;
+import ru.practicum.shareit.service.BookingService;
+import ru.practicum.shareit.service.ItemService;
+import ru.practicum.shareit.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "shareit.parallel-reads.enabled=true")
+class ParallelReadsTest {
+    @Autowired
+    private ParallelReads parallelReads;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void forkedReadRunsInOwnReadOnlyTransactionOnVirtualThread() {
+        Supplier<List<Boolean>> read = parallelReads.fork(() -> List.of(
+                Thread.currentThread().isVirtual(),
+                TransactionSynchronizationManager.isActualTransactionActive(),
+                TransactionSynchronizationManager.isCurrentTransactionReadOnly()));
+
+        assertThat(read.get()).containsExactly(true, true, true);
+        assertThatThrownBy(() -> parallelReads.fork(() -> {
+            throw new IllegalArgumentException("сбой");
+        }).get()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ownerViewsMatchSequentialResult() {
+        long ownerId = addUser("parallel-owner");
+        long bookerId = addUser("parallel-booker");
+        long itemId = itemService.addItem(ItemDtoIn.builder().name("Лестница").description("Складная")
+                .available(true).build(), ownerId).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long bookingId = bookingService.addBooking(BookingItemDto.builder().itemId(itemId).start(start)
+                .end(start.plusDays(1)).build(), bookerId).getId();
+        bookingService.approve(bookingId, true, ownerId);
+
+        ItemDtoOut item = itemService.getItemById(itemId, ownerId);
+        assertThat(item.getNextBooking().getId()).isEqualTo(bookingId);
+        assertThat(item.getComments()).isEmpty();
+        assertThat(itemService.getItemsByOwner(ownerId)).singleElement()
+                .satisfies(owned -> assertThat(owned.getNextBooking().getId()).isEqualTo(bookingId));
+    }
+
+    private long addUser(String name) {
+        return userService.addUser(UserDto.builder().name(name).email(name + "@parallel.ru").build()).getId();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.util;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemaMigrationTest {
+    /**
+     * Первая версия схемы: без версий, счётчика комментариев и ссылки на запрос.
+     */
+    private static final String[] INITIAL_SCHEMA = {
+            "CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "name VARCHAR(255) NOT NULL, email VARCHAR(512) UNIQUE NOT NULL)",
+            "CREATE TABLE items (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "name VARCHAR(255) NOT NULL, description VARCHAR(1000) NOT NULL, available BOOLEAN NOT NULL, "
+                    + "owner_id BIGINT REFERENCES users (id) NOT NULL)",
+            "CREATE TABLE bookings (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "start_date TIMESTAMP NOT NULL, end_date TIMESTAMP NOT NULL, "
+                    + "item_id BIGINT REFERENCES items (id) NOT NULL, booker_id BIGINT REFERENCES users (id) NOT NULL, "
+                    + "status varchar(25))",
+            "CREATE TABLE comments (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "content VARCHAR(1000) NOT NULL, item_id BIGINT REFERENCES items (id) NOT NULL, "
+                    + "author_id BIGINT REFERENCES users (id) NOT NULL, created TIMESTAMP NOT NULL)"
+    };
+
+    @Test
+    void existingDatabaseGetsNewColumnsAndCommentCounts() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:schema-migration;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.batchUpdate(INITIAL_SCHEMA);
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (1, 'old', 'old@schema.ru')");
+        jdbcTemplate.update("INSERT INTO items (id, name, description, available, owner_id) "
+                + "VALUES (1, 'Дрель', 'Ударная', TRUE, 1), (2, 'Пила', 'Ножовка', TRUE, 1)");
+        jdbcTemplate.update("INSERT INTO comments (id, content, item_id, author_id, created) "
+                + "VALUES (1, 'Хорошая', 1, 1, NOW()), (2, 'Мощная', 1, 1, NOW())");
+
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        schema.execute(dataSource);
+        schema.execute(dataSource);
+
+        Map<String, Object> drill = jdbcTemplate.queryForMap(
+                "SELECT version, comments_count, request_id FROM items WHERE id = 1");
+        assertThat(drill).containsEntry("VERSION", 0L).containsEntry("COMMENTS_COUNT", 2)
+                .containsEntry("REQUEST_ID", null);
+        assertThat(jdbcTemplate.queryForObject("SELECT comments_count FROM items WHERE id = 2", Integer.class))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM users WHERE id = 1", Long.class)).isZero();
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (1, NOW(), NOW(), 2, 1, 'WAITING')");
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM bookings WHERE id = 1", Long.class)).isZero();
+        jdbcTemplate.update("INSERT INTO items (id, name, description, available, owner_id) "
+                + "VALUES (3, 'Молоток', 'Слесарный', TRUE, 1)");
+        assertThat(jdbcTemplate.queryForObject("SELECT comments_count FROM items WHERE id = 3", Integer.class))
+                .isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Бюджет SQL-операторов для тестов: считает операторы, подготовленные Hibernate за время вызова,
+ * и роняет тест, если их больше заявленного. Подключается в профиле test свойством
+ * hibernate.session_factory.statement_inspector, поэтому учитывает и операторы из параллельных чтений.
+ * Замеры выполняются по одному, чтобы в них не попадали операторы соседних вызовов.
+ */
+public class SqlStatementBudget implements StatementInspector {
+    private static final List<String> statements = new ArrayList<>();
+    private static boolean recording;
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            if (recording) {
+                statements.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Выполняет вызов и проверяет, что он уложился в {@code budget} операторов.
+     * В сообщении об ошибке перечисляются все выполненные операторы.
+     */
+    public static <T> T assertAtMost(String name, int budget, Supplier<T> call) {
+        Recorded<T> recorded = record(call);
+        if (recorded.count() > budget) {
+            throw new AssertionError(String.format("%s: %d SQL-операторов при бюджете %d:%n%s", name,
+                    recorded.count(), budget, String.join(System.lineSeparator(), recorded.statements())));
+        }
+        return recorded.result();
+    }
+
+    public static synchronized <T> Recorded<T> record(Supplier<T> call) {
+        start();
+        T result;
+        try {
+            result = call.get();
+        } finally {
+            synchronized (statements) {
+                recording = false;
+            }
+        }
+        synchronized (statements) {
+            return new Recorded<>(result, List.copyOf(statements));
+        }
+    }
+
+    private static void start() {
+        synchronized (statements) {
+            statements.clear();
+            recording = true;
+        }
+    }
+
+    public record Recorded<T>(T result, List<String> statements) {
+        public int count() {
+            return statements.size();
+        }
+    }
+}